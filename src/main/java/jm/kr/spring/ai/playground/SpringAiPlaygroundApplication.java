@@ -22,6 +22,11 @@ import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.component.page.TargetElement;
 import com.vaadin.flow.server.AppShellSettings;
 import com.vaadin.flow.server.PWA;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Chat;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Memory;
+import jm.kr.spring.ai.playground.service.chat.ChatHistory;
+import jm.kr.spring.ai.playground.service.chat.ChatHistoryService;
+import jm.kr.spring.ai.playground.service.chat.TokenBudgetChatMemory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
@@ -29,11 +34,17 @@ import org.springframework.ai.chat.client.advisor.api.Advisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
-import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.DefaultChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -44,7 +55,9 @@ import org.springframework.context.annotation.Bean;
 
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Predicate;
 
 @Push
@@ -95,8 +108,27 @@ public class SpringAiPlaygroundApplication implements AppShellConfigurator {
 
     @Bean
     @ConditionalOnMissingBean(ChatMemory.class)
-    public ChatMemory chatMemory(ChatMemoryRepository chatMemoryRepository) {
-        return MessageWindowChatMemory.builder().chatMemoryRepository(chatMemoryRepository).maxMessages(10).build();
+    public TokenBudgetChatMemory chatMemory(ChatMemoryRepository chatMemoryRepository,
+            ObjectProvider<ChatModel> chatModelProvider, ObjectProvider<ChatHistoryService> chatHistoryServiceProvider,
+            SpringAiPlaygroundOptions playgroundOptions) {
+        Optional<Chat> chat = Optional.ofNullable(playgroundOptions.chat());
+        Optional<Memory> memory = chat.map(Chat::memory);
+        int summaryMaxTokens = memory.map(Memory::summaryMaxTokens).orElse(512);
+        // the chat model and the chat history service are looked up per summary, both are built from this memory;
+        // a summary uses the model of its conversation with its own options, not the ones the conversation chats with
+        BiFunction<String, List<Message>, String> summarizer = (conversationId, messages) -> {
+            String model = Optional.ofNullable(chatHistoryServiceProvider.getIfAvailable())
+                    .map(chatHistoryService -> chatHistoryService.getChatHistory(conversationId))
+                    .map(ChatHistory::chatOptions).map(DefaultChatOptions::getModel)
+                    .or(() -> chat.map(Chat::chatOptions).map(DefaultChatOptions::getModel)).orElse(null);
+            ChatOptions summaryOptions =
+                    ChatOptions.builder().model(model).temperature(0.2).maxTokens(summaryMaxTokens).build();
+            return chatModelProvider.getObject().call(new Prompt(messages, summaryOptions)).getResult().getOutput()
+                    .getText();
+        };
+        return new TokenBudgetChatMemory(chatMemoryRepository, new JTokkitTokenCountEstimator(),
+                memory.map(Memory::maxTokens).orElse(8192), summaryMaxTokens,
+                memory.map(Memory::summarize).orElse(true) ? summarizer : null);
     }
 
     @Bean
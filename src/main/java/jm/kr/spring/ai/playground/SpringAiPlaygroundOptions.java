@@ -20,17 +20,58 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @ConfigurationProperties(prefix = "spring.ai.playground")
 public record SpringAiPlaygroundOptions(@NestedConfigurationProperty ToolStudio toolStudio, boolean persistence,
-                                        String userHome, @NestedConfigurationProperty Chat chat) {
+                                        String userHome, @NestedConfigurationProperty Chat chat,
+                                        @NestedConfigurationProperty McpClientOptions mcpClient) {
 
-    public record ToolStudio(Long timeoutSeconds, @NestedConfigurationProperty JsSandbox jsSandbox) {}
+    public record ToolStudio(Long timeoutSeconds, @NestedConfigurationProperty JsSandbox jsSandbox,
+                             @NestedConfigurationProperty ContextPool contextPool,
+                             @NestedConfigurationProperty Admission admission,
+                             @NestedConfigurationProperty ResultLimits resultLimits,
+                             @NestedConfigurationProperty ResultCache resultCache,
+                             @NestedConfigurationProperty HttpFetch httpFetch,
+                             @NestedConfigurationProperty McpServerQuota mcpServerQuota) {}
 
     public record JsSandbox(boolean allowNetworkIo, boolean allowFileIo, boolean allowNativeAccess,
                             boolean allowCreateThread, Long maxStatements, Set<String> allowClasses) {}
 
+    public record ContextPool(boolean enabled, Integer minSize, Integer maxSize, Long idleTimeoutSeconds) {}
+
+    public record Admission(Integer maxConcurrency, Integer maxQueueSize, Long queueTimeoutMillis) {}
+
+    public record ResultLimits(Integer maxDepth, Integer maxChars) {}
+
+    public record ResultCache(Integer maxSize) {}
+
+    public record HttpFetch(Integer maxConnectionsPerHost, Long connectTimeoutMillis, Long requestTimeoutMillis) {}
+
+    public record McpServerQuota(Integer maxConcurrency, Integer maxConcurrencyPerSession,
+                                 Integer maxConcurrencyPerTool, Integer maxQueueSize, Long queueTimeoutMillis,
+                                 Map<String, Integer> clientWeights) {}
+
     public record Chat(String systemPrompt, List<String> models,
-                       @NestedConfigurationProperty DefaultChatOptions chatOptions) {}
+                       @NestedConfigurationProperty DefaultChatOptions chatOptions,
+                       @NestedConfigurationProperty ToolCalling toolCalling,
+                       @NestedConfigurationProperty StreamFrame streamFrame,
+                       @NestedConfigurationProperty History history,
+                       @NestedConfigurationProperty Memory memory) {}
+
+    public record ToolCalling(boolean parallel, Long timeoutSeconds) {}
+
+    public record StreamFrame(Long frameMillis, Integer maxFrameChars) {}
+
+    public record History(Integer maxLoadedConversations, Long journalCompactionIntervalSeconds,
+                          Long journalCompactionBytes, Long journalCompactionIdleSeconds) {}
+
+    public record Memory(Integer maxTokens, Integer summaryMaxTokens, boolean summarize) {}
+
+    public record McpClientOptions(Long toolCacheTtlSeconds, @NestedConfigurationProperty HealthCheck healthCheck) {}
+
+    public record HealthCheck(boolean enabled, Long intervalSeconds, Long pingTimeoutMillis,
+                              Long reconnectTimeoutSeconds, Integer failureThreshold, Long initialBackoffSeconds,
+                              Long maxBackoffSeconds) {}
 }
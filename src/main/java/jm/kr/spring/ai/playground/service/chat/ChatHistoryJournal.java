@@ -0,0 +1,234 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.chat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Append-only JSON lines file per conversation. The first line names the journal with a random id, every later line
+ * is a history record with the conversation's latest title and timestamps, a chat memory summary record or one
+ * message. Every record starts
+ * with its type. A line cut off by a crash is skipped and the replay goes on with the next line, because the next
+ * append starts a new line after it; an incomplete last line is ignored.
+ */
+public class ChatHistoryJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatHistoryJournal.class);
+
+    private static final String JOURNAL_EXTENSION = ".jsonl";
+    private static final String TYPE = "type";
+    private static final String JOURNAL_ID = "journalId";
+    private static final String JOURNAL_RECORD = "journal";
+    private static final String HISTORY_RECORD = "history";
+    private static final String SUMMARY_RECORD = "summary";
+    private static final String MESSAGE_RECORD = "message";
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE_REFERENCE = new TypeReference<>() {};
+
+    public record JournalReplay(String journalId, long size, Map<String, Object> historyMap,
+                                Map<String, Object> summaryMap, List<Map<String, Object>> messageMaps) {}
+
+    private final Path journalDir;
+    private final ObjectMapper objectMapper;
+
+    public ChatHistoryJournal(Path journalDir, ObjectMapper objectMapper) throws IOException {
+        this.journalDir = journalDir;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(journalDir);
+    }
+
+    private Path getJournalPath(String conversationId) {
+        return this.journalDir.resolve(conversationId + JOURNAL_EXTENSION);
+    }
+
+    public List<String> getConversationIds() throws IOException {
+        try (Stream<Path> paths = Files.list(this.journalDir)) {
+            return paths.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(JOURNAL_EXTENSION))
+                    .map(name -> name.substring(0, name.length() - JOURNAL_EXTENSION.length())).toList();
+        }
+    }
+
+    public long size(String conversationId) throws IOException {
+        Path journalPath = getJournalPath(conversationId);
+        return Files.exists(journalPath) ? Files.size(journalPath) : 0;
+    }
+
+    public long lastModifiedMillis(String conversationId) throws IOException {
+        Path journalPath = getJournalPath(conversationId);
+        return Files.exists(journalPath) ? Files.getLastModifiedTime(journalPath).toMillis() : 0;
+    }
+
+    /**
+     * @param summaryMap the conversation's new chat memory summary, or {@code null} when it did not change
+     */
+    public void append(String conversationId, Map<String, Object> historyMap, Map<String, Object> summaryMap,
+            List<Map<String, Object>> messageMaps) throws IOException {
+        Path journalPath = getJournalPath(conversationId);
+        StringBuilder lines = new StringBuilder();
+        if (!Files.exists(journalPath))
+            appendLine(lines, Map.of(TYPE, JOURNAL_RECORD, JOURNAL_ID, UUID.randomUUID().toString()));
+        else if (!endsWithNewLine(journalPath))
+            lines.append('\n');
+        appendLine(lines, withType(HISTORY_RECORD, historyMap));
+        if (Objects.nonNull(summaryMap))
+            appendLine(lines, withType(SUMMARY_RECORD, summaryMap));
+        for (Map<String, Object> messageMap : messageMaps)
+            appendLine(lines, withType(MESSAGE_RECORD, Map.of(MESSAGE_RECORD, messageMap)));
+        Files.writeString(journalPath, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static boolean endsWithNewLine(Path journalPath) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(journalPath)) {
+            if (channel.size() == 0)
+                return true;
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(lastByte);
+            return lastByte.get(0) == '\n';
+        }
+    }
+
+    private static Map<String, Object> withType(String type, Map<String, Object> recordMap) {
+        // the type goes first, so a scan for one kind of record can stop reading a line after its first field
+        Map<String, Object> typedMap = new LinkedHashMap<>();
+        typedMap.put(TYPE, type);
+        typedMap.putAll(recordMap);
+        typedMap.put(TYPE, type);
+        return typedMap;
+    }
+
+    private void appendLine(StringBuilder lines, Map<String, Object> recordMap) throws JsonProcessingException {
+        lines.append(this.objectMapper.writeValueAsString(recordMap)).append('\n');
+    }
+
+    /**
+     * Replays the journal of a conversation. When its id is {@code compactedJournalId}, the first
+     * {@code compactedSize} bytes are already part of the snapshot and are skipped.
+     */
+    public Optional<JournalReplay> replay(String conversationId, String compactedJournalId, long compactedSize)
+            throws IOException {
+        Path journalPath = getJournalPath(conversationId);
+        if (!Files.exists(journalPath))
+            return Optional.empty();
+        byte[] bytes = Files.readAllBytes(journalPath);
+        String journalId = null;
+        Map<String, Object> historyMap = null;
+        Map<String, Object> summaryMap = null;
+        List<Map<String, Object>> messageMaps = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n')
+                lineEnd++;
+            if (lineEnd == bytes.length) {
+                logger.warn("Ignoring incomplete last line of chat history journal: {}", journalPath);
+                break;
+            }
+            Map<String, Object> recordMap;
+            try {
+                recordMap = this.objectMapper.readValue(
+                        new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8),
+                        RECORD_TYPE_REFERENCE);
+            } catch (JsonProcessingException e) {
+                // the rest of a line cut off by a crash
+                logger.warn("Skipping unreadable line of chat history journal: {}", journalPath);
+                lineStart = lineEnd + 1;
+                continue;
+            }
+            switch (String.valueOf(recordMap.get(TYPE))) {
+                case JOURNAL_RECORD -> {
+                    journalId = String.valueOf(recordMap.get(JOURNAL_ID));
+                    if (journalId.equals(compactedJournalId) && compactedSize > lineEnd + 1) {
+                        lineStart = (int) Math.min(compactedSize, bytes.length);
+                        continue;
+                    }
+                }
+                case HISTORY_RECORD -> historyMap = recordMap;
+                case SUMMARY_RECORD -> summaryMap = recordMap;
+                case MESSAGE_RECORD -> messageMaps.add((Map<String, Object>) recordMap.get(MESSAGE_RECORD));
+                default -> logger.warn("Skipping unknown chat history journal record: {}", recordMap.get(TYPE));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return Optional.of(new JournalReplay(journalId, bytes.length, historyMap, summaryMap, messageMaps));
+    }
+
+    /**
+     * The latest history record of a conversation. The journal is scanned backwards from its last complete line, and
+     * only the type of every other record is read, so the messages of earlier turns are never parsed.
+     */
+    public Optional<Map<String, Object>> lastHistory(String conversationId) throws IOException {
+        Path journalPath = getJournalPath(conversationId);
+        if (!Files.exists(journalPath))
+            return Optional.empty();
+        byte[] bytes = Files.readAllBytes(journalPath);
+        int lineEnd = bytes.length;
+        while (lineEnd > 0 && bytes[lineEnd - 1] != '\n')
+            lineEnd--;
+        while (lineEnd > 0) {
+            int lineStart = lineEnd - 1;
+            while (lineStart > 0 && bytes[lineStart - 1] != '\n')
+                lineStart--;
+            int lineLength = lineEnd - 1 - lineStart;
+            if (HISTORY_RECORD.equals(readType(bytes, lineStart, lineLength)))
+                return Optional.of(this.objectMapper.readValue(bytes, lineStart, lineLength, RECORD_TYPE_REFERENCE));
+            lineEnd = lineStart;
+        }
+        return Optional.empty();
+    }
+
+    private String readType(byte[] bytes, int offset, int length) {
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(bytes, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                if (TYPE.equals(fieldName))
+                    return parser.getValueAsString();
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // the rest of a line cut off by a crash
+        }
+        return null;
+    }
+
+    public void delete(String conversationId) throws IOException {
+        Files.deleteIfExists(getJournalPath(conversationId));
+    }
+}
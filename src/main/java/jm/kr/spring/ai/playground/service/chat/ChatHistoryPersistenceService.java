@@ -15,6 +15,10 @@
  */
 package jm.kr.spring.ai.playground.service.chat;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Chat;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.History;
 import jm.kr.spring.ai.playground.service.PersistenceServiceInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,8 +35,24 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class ChatHistoryPersistenceService implements PersistenceServiceInterface<ChatHistory> {
@@ -40,16 +60,45 @@ public class ChatHistoryPersistenceService implements PersistenceServiceInterfac
     private static final Logger logger = LoggerFactory.getLogger(ChatHistoryPersistenceService.class);
     public static final String CONVERSATION_ID = "conversationId";
     private static final String MESSAGE_LIST = "messageList";
+    private static final String JSON_EXTENSION = ".json";
+    private static final String COMPACTED_JOURNAL_ID = "compactedJournalId";
+    private static final String COMPACTED_JOURNAL_SIZE = "compactedJournalSize";
+    private static final String MEMORY_SUMMARY = "memorySummary";
+    private static final TypeReference<List<Map<String, Object>>> INDEX_TYPE_REFERENCE = new TypeReference<>() {};
+
+    /**
+     * The saved messages of a conversation and the chat memory summary saved with them, if there is one.
+     */
+    public record SavedMessages(List<Message> messages, TokenBudgetChatMemory.Summary summary) {}
 
     private final Path saveDir;
+    private final Path indexFile;
     private final ChatHistoryService chatHistoryService;
+    private final ChatHistoryJournal chatHistoryJournal;
+    private final ScheduledExecutorService journalExecutor;
+    private final long journalCompactionIntervalMillis;
+    private final long journalCompactionBytes;
+    private final long journalCompactionIdleMillis;
+    private volatile boolean journaling;
 
     public ChatHistoryPersistenceService(Path springAiPlaygroundHomeDir,
-            @Lazy ChatHistoryService chatHistoryService) throws
+            @Lazy ChatHistoryService chatHistoryService, SpringAiPlaygroundOptions playgroundOptions) throws
             IOException {
         this.chatHistoryService = chatHistoryService;
         this.saveDir = springAiPlaygroundHomeDir.resolve("chat").resolve("save");
+        this.indexFile = springAiPlaygroundHomeDir.resolve("chat").resolve("index.json");
         Files.createDirectories(this.saveDir);
+        this.chatHistoryJournal =
+                new ChatHistoryJournal(springAiPlaygroundHomeDir.resolve("chat").resolve("journal"), OBJECT_MAPPER);
+        // one thread appends, compacts and reads the journals, so they never race with each other
+        this.journalExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("chat-history-journal").factory());
+        Optional<History> history = Optional.ofNullable(playgroundOptions.chat()).map(Chat::history);
+        this.journalCompactionIntervalMillis = TimeUnit.SECONDS.toMillis(
+                history.map(History::journalCompactionIntervalSeconds).orElse(60L));
+        this.journalCompactionBytes = history.map(History::journalCompactionBytes).orElse(256 * 1024L);
+        this.journalCompactionIdleMillis = TimeUnit.SECONDS.toMillis(
+                history.map(History::journalCompactionIdleSeconds).orElse(600L));
     }
 
     @Override
@@ -74,6 +123,11 @@ public class ChatHistoryPersistenceService implements PersistenceServiceInterfac
 
     @Override
     public ChatHistory convertTo(Map<String, Object> saveObjectMap) {
+        List<Map<String, Object>> messageMapList = (List<Map<String, Object>>) saveObjectMap.get(MESSAGE_LIST);
+        return convertTo(saveObjectMap, () -> messageMapList.stream().map(this::convertToMessage).toList());
+    }
+
+    private ChatHistory convertTo(Map<String, Object> saveObjectMap, Supplier<List<Message>> messagesSupplier) {
         String conversationId = saveObjectMap.get(CONVERSATION_ID).toString();
         String title = saveObjectMap.get("title").toString();
         long createTimestamp = ((Number) saveObjectMap.get("createTimestamp")).longValue();
@@ -81,9 +135,209 @@ public class ChatHistoryPersistenceService implements PersistenceServiceInterfac
         String systemPrompt = saveObjectMap.computeIfAbsent("systemPrompt", s -> "").toString();
         DefaultChatOptions chatOptions =
                 OBJECT_MAPPER.convertValue(saveObjectMap.get("chatOptions"), DefaultChatOptions.class);
-        List<Map<String, Object>> messageMapList = (List<Map<String, Object>>) saveObjectMap.get(MESSAGE_LIST);
         return new ChatHistory(conversationId, title, createTimestamp, updateTimestamp, systemPrompt, chatOptions,
-                () -> messageMapList.stream().map(this::convertToMessage).toList());
+                messagesSupplier);
+    }
+
+    /**
+     * Histories without their messages. The index is saved on shutdown, so only journals written after it or missing
+     * from it are scanned for their latest history record; snapshot files that are newer than the index or missing
+     * from it are read once to fill the gap.
+     */
+    public List<ChatHistory> loadIndex() throws IOException {
+        Map<String, Map<String, Object>> indexedMap = new HashMap<>();
+        long indexTimestamp = 0;
+        if (Files.exists(this.indexFile)) {
+            try {
+                OBJECT_MAPPER.readValue(this.indexFile.toFile(), INDEX_TYPE_REFERENCE).forEach(
+                        indexEntry -> indexedMap.put(indexEntry.get(CONVERSATION_ID).toString(), indexEntry));
+                indexTimestamp = Files.getLastModifiedTime(this.indexFile).toMillis();
+            } catch (IOException e) {
+                logger.warn("Rebuilding unreadable chat history index: {}", e.getMessage());
+            }
+        }
+        Set<String> conversationIds = new LinkedHashSet<>();
+        try (Stream<Path> paths = Files.list(this.saveDir)) {
+            paths.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(JSON_EXTENSION))
+                    .map(name -> name.substring(0, name.length() - JSON_EXTENSION.length()))
+                    .forEach(conversationIds::add);
+        }
+        conversationIds.addAll(this.chatHistoryJournal.getConversationIds());
+        List<ChatHistory> chatHistoryList = new ArrayList<>();
+        for (String conversationId : conversationIds) {
+            Path snapshotPath = getSnapshotPath(conversationId);
+            Map<String, Object> historyMap = indexedMap.get(conversationId);
+            if (Files.exists(snapshotPath) && (Objects.isNull(historyMap) ||
+                    Files.getLastModifiedTime(snapshotPath).toMillis() > indexTimestamp)) {
+                logger.info("Indexing chat history file: {}", snapshotPath);
+                historyMap = OBJECT_MAPPER.readValue(snapshotPath.toFile(), MAP_TYPE_REFERENCE);
+            }
+            // an index written in the same clock tick as the journal is not trusted to contain it
+            if (Objects.isNull(indexedMap.get(conversationId)) ||
+                    this.chatHistoryJournal.lastModifiedMillis(conversationId) >= indexTimestamp) {
+                Optional<Map<String, Object>> journalHistoryMap = this.chatHistoryJournal.lastHistory(conversationId);
+                if (journalHistoryMap.isPresent())
+                    historyMap = journalHistoryMap.get();
+            }
+            if (Objects.nonNull(historyMap))
+                chatHistoryList.add(convertTo(historyMap, List::of));
+        }
+        return chatHistoryList;
+    }
+
+    public void saveIndex(Collection<ChatHistory> chatHistories) throws IOException {
+        logger.info("Saving chat history index of {} conversations to file: {}", chatHistories.size(),
+                this.indexFile);
+        OBJECT_MAPPER.writeValue(this.indexFile.toFile(), chatHistories.stream()
+                .map(chatHistory -> OBJECT_MAPPER.convertValue(chatHistory, MAP_TYPE_REFERENCE)).toList());
+    }
+
+    private Path getSnapshotPath(String conversationId) {
+        return this.saveDir.resolve(conversationId + JSON_EXTENSION);
+    }
+
+    private Map<String, Object> readSnapshot(String conversationId) throws IOException {
+        Path snapshotPath = getSnapshotPath(conversationId);
+        return Files.exists(snapshotPath) ? OBJECT_MAPPER.readValue(snapshotPath.toFile(), MAP_TYPE_REFERENCE) :
+                new HashMap<>();
+    }
+
+    private Optional<ChatHistoryJournal.JournalReplay> replayJournal(String conversationId,
+            Map<String, Object> snapshotMap) throws IOException {
+        return this.chatHistoryJournal.replay(conversationId,
+                (String) snapshotMap.get(COMPACTED_JOURNAL_ID),
+                Optional.ofNullable((Number) snapshotMap.get(COMPACTED_JOURNAL_SIZE)).map(Number::longValue)
+                        .orElse(0L));
+    }
+
+    public List<Message> loadMessages(String conversationId) {
+        return loadSavedMessages(conversationId).messages();
+    }
+
+    /**
+     * Messages of the snapshot followed by the messages appended to the journal since, with the latest memory
+     * summary of either. Reads run on the journal thread so they see every turn appended before.
+     */
+    public SavedMessages loadSavedMessages(String conversationId) {
+        return runOnJournalThread(() -> {
+            Map<String, Object> snapshotMap = readSnapshot(conversationId);
+            List<Map<String, Object>> messageMaps = new ArrayList<>(
+                    Optional.ofNullable((List<Map<String, Object>>) snapshotMap.get(MESSAGE_LIST)).orElseGet(List::of));
+            Map<String, Object> summaryMap = (Map<String, Object>) snapshotMap.get(MEMORY_SUMMARY);
+            Optional<ChatHistoryJournal.JournalReplay> journalReplay = replayJournal(conversationId, snapshotMap);
+            if (journalReplay.isPresent()) {
+                messageMaps.addAll(journalReplay.get().messageMaps());
+                summaryMap = Optional.ofNullable(journalReplay.get().summaryMap()).orElse(summaryMap);
+            }
+            logger.info("Loaded chat history messages: conversationId={}, messageCount={}", conversationId,
+                    messageMaps.size());
+            return new SavedMessages(messageMaps.stream().map(this::convertToMessage).toList(),
+                    Optional.ofNullable(summaryMap).map(ChatHistoryPersistenceService::convertToSummary).orElse(null));
+        });
+    }
+
+    private static TokenBudgetChatMemory.Summary convertToSummary(Map<String, Object> summaryMap) {
+        return new TokenBudgetChatMemory.Summary(summaryMap.get("text").toString(),
+                ((Number) summaryMap.get("summarizedMessages")).intValue());
+    }
+
+    private <R> R runOnJournalThread(Callable<R> callable) {
+        try {
+            return this.journalExecutor.submit(callable).get();
+        } catch (RejectedExecutionException e) {
+            try {
+                return callable.call();
+            } catch (Exception callException) {
+                throw new IllegalStateException(callException.getMessage(), callException);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Appends one completed turn to the conversation's journal: its latest history record, the memory summary when it
+     * changed and the new messages. The lines are serialized right away and written on the journal thread.
+     */
+    public void appendTurn(ChatHistory chatHistory, List<Message> newMessages, TokenBudgetChatMemory.Summary summary) {
+        if (!this.journaling)
+            return;
+        Map<String, Object> historyMap = OBJECT_MAPPER.convertValue(chatHistory, MAP_TYPE_REFERENCE);
+        Map<String, Object> summaryMap =
+                Objects.isNull(summary) ? null : OBJECT_MAPPER.convertValue(summary, MAP_TYPE_REFERENCE);
+        List<Map<String, Object>> messageMaps =
+                newMessages.stream().map(message -> OBJECT_MAPPER.convertValue(message, MAP_TYPE_REFERENCE)).toList();
+        this.journalExecutor.execute(() -> {
+            try {
+                this.chatHistoryJournal.append(chatHistory.conversationId(), historyMap, summaryMap, messageMaps);
+            } catch (IOException e) {
+                logger.error("Failed to append chat history journal: conversationId={}",
+                        chatHistory.conversationId(), e);
+            }
+        });
+    }
+
+    private void compactJournals() {
+        try {
+            boolean compacted = false;
+            long idleSinceMillis = System.currentTimeMillis() - this.journalCompactionIdleMillis;
+            // large journals are folded right away, small ones once their conversation has gone quiet
+            for (String conversationId : this.chatHistoryJournal.getConversationIds())
+                if (this.chatHistoryJournal.size(conversationId) >= this.journalCompactionBytes ||
+                        this.chatHistoryJournal.lastModifiedMillis(conversationId) <= idleSinceMillis)
+                    compacted |= compact(conversationId);
+            if (compacted)
+                saveIndex(this.chatHistoryService.getChatHistoryList());
+        } catch (Exception e) {
+            logger.error("Failed to compact chat history journals", e);
+        }
+    }
+
+    /**
+     * Folds the journal into the snapshot file and deletes it. The snapshot records which journal bytes it
+     * contains, so a journal left behind by a crash before the delete is not replayed twice.
+     */
+    private boolean compact(String conversationId) throws IOException {
+        Map<String, Object> snapshotMap = readSnapshot(conversationId);
+        Optional<ChatHistoryJournal.JournalReplay> journalReplay = replayJournal(conversationId, snapshotMap);
+        if (journalReplay.isEmpty())
+            return false;
+        Optional.ofNullable(journalReplay.get().historyMap()).ifPresent(snapshotMap::putAll);
+        Optional.ofNullable(journalReplay.get().summaryMap()).ifPresent(summaryMap -> {
+            Map<String, Object> memorySummaryMap = new HashMap<>(summaryMap);
+            memorySummaryMap.remove("type");
+            snapshotMap.put(MEMORY_SUMMARY, memorySummaryMap);
+        });
+        if (!snapshotMap.containsKey(CONVERSATION_ID))
+            return false;
+        List<Map<String, Object>> messageMaps = new ArrayList<>(
+                Optional.ofNullable((List<Map<String, Object>>) snapshotMap.get(MESSAGE_LIST)).orElseGet(List::of));
+        messageMaps.addAll(journalReplay.get().messageMaps());
+        snapshotMap.remove("type");
+        snapshotMap.put(MESSAGE_LIST, messageMaps);
+        snapshotMap.put(COMPACTED_JOURNAL_ID, journalReplay.get().journalId());
+        snapshotMap.put(COMPACTED_JOURNAL_SIZE, journalReplay.get().size());
+        Path tempPath = this.saveDir.resolve("." + conversationId + JSON_EXTENSION + ".tmp");
+        OBJECT_MAPPER.writeValue(tempPath.toFile(), snapshotMap);
+        Files.move(tempPath, getSnapshotPath(conversationId), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.chatHistoryJournal.delete(conversationId);
+        logger.info("Compacted chat history journal: conversationId={}, messageCount={}", conversationId,
+                messageMaps.size());
+        return true;
+    }
+
+    @Override
+    public void delete(ChatHistory chatHistory) {
+        String conversationId = chatHistory.conversationId();
+        runOnJournalThread(() -> {
+            Files.deleteIfExists(getSnapshotPath(conversationId));
+            this.chatHistoryJournal.delete(conversationId);
+            return null;
+        });
     }
 
     private Message convertToMessage(Map<String, Object> saveObjectMap) {
@@ -101,12 +355,32 @@ public class ChatHistoryPersistenceService implements PersistenceServiceInterfac
 
     @Override
     public void onStart() throws IOException {
-        this.loads().forEach(chatHistoryService::putIfAbsentChatHistory);
+        this.loadIndex().forEach(chatHistoryService::putIndexedChatHistory);
+        this.journaling = true;
+        if (this.journalCompactionIntervalMillis > 0)
+            this.journalExecutor.scheduleWithFixedDelay(this::compactJournals, this.journalCompactionIntervalMillis,
+                    this.journalCompactionIntervalMillis, TimeUnit.MILLISECONDS);
     }
 
     @Override
-    public void onShutdown() throws IOException {
-        for (ChatHistory chatHistory : chatHistoryService.getChatHistoryList())
-            save(chatHistory);
+    public void onShutdown() {
+        // every completed turn is already journaled, only appends still queued are waited for
+        boolean started = this.journaling;
+        this.journaling = false;
+        this.journalExecutor.shutdown();
+        try {
+            if (!this.journalExecutor.awaitTermination(5, TimeUnit.SECONDS))
+                logger.warn("Chat history journal writes did not finish before shutdown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // a current index lets the next start skip every journal written before it
+        if (!started)
+            return;
+        try {
+            saveIndex(this.chatHistoryService.getChatHistoryList());
+        } catch (IOException e) {
+            logger.error("Failed to save chat history index on shutdown", e);
+        }
     }
 }
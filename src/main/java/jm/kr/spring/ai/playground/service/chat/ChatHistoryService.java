@@ -16,6 +16,11 @@
 package jm.kr.spring.ai.playground.service.chat;
 
 
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Chat;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.History;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.MessageType;
@@ -25,6 +30,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,27 +41,96 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class ChatHistoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatHistoryService.class);
+
     private final ChatMemory chatMemory;
     private final ChatHistoryPersistenceService chatHistoryPersistenceService;
 
     private final Map<String, ChatHistory> conversationIdHistoryMap;
+    private final int maxLoadedConversations;
+    // conversations whose messages are in the chat memory, least recently used first; guards the order only
+    private final LinkedHashSet<String> loadedConversations;
+    // loads and unloads of one conversation are serialized, different conversations load in parallel
+    private final Map<String, Object> conversationLocks;
+    // with memories other than the token budget one, the last message of each conversation that is already
+    // journaled; later messages belong to the next turn
+    private final Map<String, Message> lastJournaledMessages;
+    // the last memory summary of each conversation that is already journaled
+    private final Map<String, TokenBudgetChatMemory.Summary> journaledSummaries;
 
-    public ChatHistoryService(ChatMemory chatMemory, ChatHistoryPersistenceService chatHistoryPersistenceService) {
+    public ChatHistoryService(ChatMemory chatMemory, ChatHistoryPersistenceService chatHistoryPersistenceService,
+            SpringAiPlaygroundOptions playgroundOptions) {
         this.chatMemory = chatMemory;
         this.chatHistoryPersistenceService = chatHistoryPersistenceService;
         this.conversationIdHistoryMap = new ConcurrentHashMap<>();
+        this.maxLoadedConversations = Math.max(1, Optional.ofNullable(playgroundOptions.chat()).map(Chat::history)
+                .map(History::maxLoadedConversations).orElse(20));
+        this.loadedConversations = new LinkedHashSet<>();
+        this.conversationLocks = new ConcurrentHashMap<>();
+        this.lastJournaledMessages = new ConcurrentHashMap<>();
+        this.journaledSummaries = new ConcurrentHashMap<>();
     }
 
     public ChatHistory updateChatHistory(ChatHistory chatHistory) {
         String conversationId = chatHistory.conversationId();
-        ChatHistory updatedChatHistory = changeChatHistory(chatHistory);
+        List<Message> turnMessages = takeUnjournaledMessages(conversationId);
+        ChatHistory updatedChatHistory = changeChatHistory(chatHistory, turnMessages);
         this.conversationIdHistoryMap.put(conversationId, updatedChatHistory);
+        turnMessages.forEach(message -> message.getMetadata().putIfAbsent(ChatHistory.TIMESTAMP,
+                updatedChatHistory.updateTimestamp()));
+        TokenBudgetChatMemory.Summary summary = getUnjournaledSummary(conversationId);
+        this.chatHistoryPersistenceService.appendTurn(updatedChatHistory, turnMessages, summary);
+        if (Objects.nonNull(summary))
+            this.journaledSummaries.put(conversationId, summary);
         return updatedChatHistory;
     }
 
-    private ChatHistory changeChatHistory(ChatHistory chatHistory) {
-        if (Objects.isNull(chatHistory.title()) || chatHistory.title().isBlank())
-            return chatHistory.mutate(extractTitle(chatHistory.messagesSupplier().get()), System.currentTimeMillis());
+    private TokenBudgetChatMemory.Summary getUnjournaledSummary(String conversationId) {
+        if (!(this.chatMemory instanceof TokenBudgetChatMemory tokenBudgetChatMemory))
+            return null;
+        return tokenBudgetChatMemory.getSummary(conversationId)
+                .filter(summary -> !summary.equals(this.journaledSummaries.get(conversationId))).orElse(null);
+    }
+
+    /**
+     * The messages of the turn that is not journaled yet. The token budget memory reports every message added since
+     * the last turn, even one its window evicted right away; other memories are diffed against the last journaled
+     * message of their window.
+     */
+    private List<Message> takeUnjournaledMessages(String conversationId) {
+        List<Message> messages = getMessages(conversationId);
+        if (this.chatMemory instanceof TokenBudgetChatMemory tokenBudgetChatMemory)
+            return tokenBudgetChatMemory.takeAddedMessages(conversationId);
+        List<Message> unjournaledMessages = getUnjournaledMessages(conversationId, messages);
+        markJournaled(conversationId, messages);
+        return unjournaledMessages;
+    }
+
+    private List<Message> getUnjournaledMessages(String conversationId, List<Message> messages) {
+        if (this.chatMemory instanceof TokenBudgetChatMemory tokenBudgetChatMemory)
+            return tokenBudgetChatMemory.getAddedMessages(conversationId);
+        Message lastJournaledMessage = this.lastJournaledMessages.get(conversationId);
+        // compared by identity, equal messages can repeat; when the marker left the memory window all are new
+        for (int i = messages.size() - 1; i >= 0 && Objects.nonNull(lastJournaledMessage); i--)
+            if (messages.get(i) == lastJournaledMessage)
+                return List.copyOf(messages.subList(i + 1, messages.size()));
+        return List.copyOf(messages);
+    }
+
+    private void markJournaled(String conversationId, List<Message> messages) {
+        if (messages.isEmpty())
+            this.lastJournaledMessages.remove(conversationId);
+        else
+            this.lastJournaledMessages.put(conversationId, messages.getLast());
+    }
+
+    private ChatHistory changeChatHistory(ChatHistory chatHistory, List<Message> turnMessages) {
+        if (Objects.isNull(chatHistory.title()) || chatHistory.title().isBlank()) {
+            // the turn's own prompt may have left the memory window already
+            List<Message> messages = new ArrayList<>(chatHistory.messagesSupplier().get());
+            messages.addAll(turnMessages);
+            return chatHistory.mutate(extractTitle(messages), System.currentTimeMillis());
+        }
         return this.conversationIdHistoryMap.get(chatHistory.conversationId())
                 .mutate(chatHistory.title(), System.currentTimeMillis());
     }
@@ -76,12 +151,123 @@ public class ChatHistoryService {
     }
 
     private List<Message> getMessages(String conversationId) {
-        return Optional.ofNullable(this.chatMemory.get(conversationId)).orElseGet(ArrayList::new);
+        loadMessagesIfAbsent(conversationId);
+        // the memory summary is context for the model, not part of the conversation
+        return Optional.ofNullable(this.chatMemory.get(conversationId)).map(messages -> messages.stream()
+                .filter(message -> !TokenBudgetChatMemory.isSummary(message)).toList()).orElseGet(ArrayList::new);
+    }
+
+    /**
+     * The whole conversation for display: the saved messages, which reach further back than the chat memory, followed
+     * by the messages of the turn that is not journaled yet.
+     */
+    public List<Message> getConversationMessages(String conversationId) {
+        List<Message> unjournaledMessages = getOpenTurnMessages(conversationId);
+        List<Message> messages = new ArrayList<>(this.chatHistoryPersistenceService.loadMessages(conversationId));
+        messages.addAll(unjournaledMessages);
+        return messages;
+    }
+
+    /**
+     * The messages of the turn that is not journaled yet, read from memory only.
+     */
+    public List<Message> getOpenTurnMessages(String conversationId) {
+        return getUnjournaledMessages(conversationId, getMessages(conversationId));
+    }
+
+    private void loadMessagesIfAbsent(String conversationId) {
+        if (touchLoaded(conversationId))
+            return;
+        synchronized (getConversationLock(conversationId)) {
+            if (touchLoaded(conversationId))
+                return;
+            ChatHistoryPersistenceService.SavedMessages savedMessages =
+                    this.chatHistoryPersistenceService.loadSavedMessages(conversationId);
+            if (!savedMessages.messages().isEmpty())
+                restoreMessages(conversationId, savedMessages);
+            synchronized (this.loadedConversations) {
+                this.loadedConversations.add(conversationId);
+            }
+        }
+        unloadEldestConversations();
+    }
+
+    /**
+     * Puts the saved messages in front of the chat memory. With a saved summary only the messages it does not replace
+     * are added, so reopening a long conversation neither loses its summary nor summarizes it all over again.
+     */
+    private void restoreMessages(String conversationId, ChatHistoryPersistenceService.SavedMessages savedMessages) {
+        List<Message> messages = savedMessages.messages();
+        TokenBudgetChatMemory.Summary summary = savedMessages.summary();
+        if (this.chatMemory instanceof TokenBudgetChatMemory tokenBudgetChatMemory) {
+            if (Objects.nonNull(summary)) {
+                messages = messages.subList(Math.min(summary.summarizedMessages(), messages.size()), messages.size());
+                this.journaledSummaries.put(conversationId, summary);
+            }
+            tokenBudgetChatMemory.restore(conversationId, summary, messages);
+            return;
+        }
+        List<Message> memoryMessages = new ArrayList<>(messages);
+        memoryMessages.addAll(this.chatMemory.get(conversationId));
+        this.chatMemory.clear(conversationId);
+        this.chatMemory.add(conversationId, memoryMessages);
+        markJournaled(conversationId, messages);
+    }
+
+    private Object getConversationLock(String conversationId) {
+        return this.conversationLocks.computeIfAbsent(conversationId, key -> new Object());
+    }
+
+    private boolean touchLoaded(String conversationId) {
+        synchronized (this.loadedConversations) {
+            if (!this.loadedConversations.remove(conversationId))
+                return false;
+            this.loadedConversations.add(conversationId);
+            return true;
+        }
+    }
+
+    /**
+     * Every completed turn is journaled already, so the eldest conversations are dropped without saving. Each one is
+     * unloaded under its own lock, and only if it is still the eldest once the lock is held.
+     */
+    private void unloadEldestConversations() {
+        while (true) {
+            String eldestConversationId;
+            synchronized (this.loadedConversations) {
+                if (this.loadedConversations.size() <= this.maxLoadedConversations)
+                    return;
+                eldestConversationId = this.loadedConversations.getFirst();
+            }
+            synchronized (getConversationLock(eldestConversationId)) {
+                synchronized (this.loadedConversations) {
+                    if (!eldestConversationId.equals(this.loadedConversations.getFirst()) ||
+                            this.loadedConversations.size() <= this.maxLoadedConversations)
+                        continue;
+                    this.loadedConversations.removeFirst();
+                }
+                unloadMessages(eldestConversationId);
+            }
+        }
+    }
+
+    private void unloadMessages(String conversationId) {
+        logger.debug("Unloading chat history messages: conversationId={}", conversationId);
+        this.lastJournaledMessages.remove(conversationId);
+        this.journaledSummaries.remove(conversationId);
+        this.chatMemory.clear(conversationId);
     }
 
     public void deleteChatHistory(ChatHistory chatHistory) {
-        this.chatMemory.clear(chatHistory.conversationId());
-        this.conversationIdHistoryMap.remove(chatHistory.conversationId());
+        String conversationId = chatHistory.conversationId();
+        synchronized (getConversationLock(conversationId)) {
+            synchronized (this.loadedConversations) {
+                this.loadedConversations.remove(conversationId);
+            }
+            unloadMessages(conversationId);
+        }
+        this.conversationLocks.remove(conversationId);
+        this.conversationIdHistoryMap.remove(conversationId);
         this.chatHistoryPersistenceService.delete(chatHistory);
     }
 
@@ -98,11 +284,12 @@ public class ChatHistoryService {
                 () -> getMessages(conversationId));
     }
 
-    public void putIfAbsentChatHistory(ChatHistory chatHistory) {
-        this.conversationIdHistoryMap.computeIfAbsent(chatHistory.conversationId(), conversationId -> {
-            this.chatMemory.add(conversationId, chatHistory.messagesSupplier().get());
-            return chatHistory.mutate(() -> getMessages(conversationId));
-        });
+    /**
+     * Registers a history read from the index. Its messages are loaded from disk when they are first needed.
+     */
+    public void putIndexedChatHistory(ChatHistory chatHistory) {
+        this.conversationIdHistoryMap.putIfAbsent(chatHistory.conversationId(),
+                chatHistory.mutate(() -> getMessages(chatHistory.conversationId())));
     }
 
     public ChatHistory getChatHistory(String conversationId) {
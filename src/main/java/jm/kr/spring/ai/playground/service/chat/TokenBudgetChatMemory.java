@@ -0,0 +1,365 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.chat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Chat memory that keeps each conversation within a token budget. When a conversation grows over the budget its
+ * oldest messages leave the memory right away and are folded into a running summary on a background thread, so
+ * adding messages never waits for the model. Evicted messages are summarized in chunks that fit the budget, so no
+ * summary prompt outgrows the model's context however much is evicted at once. The summary is returned as the first
+ * message of the conversation, and can be saved with {@link #getSummary} and restored with {@link #restore}. The
+ * messages added since the last {@link #takeAddedMessages} are kept apart from the window, so a turn can be saved
+ * whole even when its own messages were evicted right away.
+ */
+public class TokenBudgetChatMemory implements ChatMemory, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBudgetChatMemory.class);
+
+    public static final String SUMMARY = "chatMemorySummary";
+    // role, separators and end of message of the chat template
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    private static final String SUMMARY_INSTRUCTION = """
+            Summarize the earlier part of a conversation so that the summary can replace it as context for \
+            continuing the conversation. Merge the previous summary with the new messages. Keep facts, decisions, \
+            names, numbers, tool results that matter and open questions. Answer with the summary only, in at most \
+            %d tokens.""";
+
+    /**
+     * A summary text and the number of messages from the start of the conversation it replaces.
+     */
+    public record Summary(String text, int summarizedMessages) {}
+
+    public record TokenBudgetChatMemoryStats(int conversations, int summarizing, long evictedMessages,
+                                             long summarizations, long failedSummarizations) {}
+
+    private static class ConversationState {
+        private final Map<Message, Integer> tokenCounts = new IdentityHashMap<>();
+        private final List<Message> evictedMessages = new ArrayList<>();
+        private final List<Message> addedMessages = new ArrayList<>();
+        private volatile SystemMessage summary;
+        private String summaryText;
+        private int summaryTokens;
+        private int summarizedMessages;
+        private volatile boolean summarizing;
+    }
+
+    private final ChatMemoryRepository chatMemoryRepository;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxTokens;
+    private final int summaryMaxTokens;
+    private final BiFunction<String, List<Message>, String> summarizer;
+    private final ExecutorService summaryExecutor;
+    private final Map<String, ConversationState> conversationStates;
+    private final AtomicLong evictedMessageCount;
+    private final AtomicLong summarizations;
+    private final AtomicLong failedSummarizations;
+
+    /**
+     * @param summarizer answers the summary prompt of a conversation, or {@code null} to drop evicted messages
+     *                   without a summary
+     */
+    public TokenBudgetChatMemory(ChatMemoryRepository chatMemoryRepository, TokenCountEstimator tokenCountEstimator,
+            int maxTokens, int summaryMaxTokens, BiFunction<String, List<Message>, String> summarizer) {
+        if (maxTokens <= summaryMaxTokens || summaryMaxTokens < 0)
+            throw new IllegalArgumentException("Invalid chat memory token budget: maxTokens=" + maxTokens +
+                    ", summaryMaxTokens=" + summaryMaxTokens);
+        this.chatMemoryRepository = chatMemoryRepository;
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.maxTokens = maxTokens;
+        this.summaryMaxTokens = summaryMaxTokens;
+        this.summarizer = summarizer;
+        this.summaryExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("chat-memory-summary-", 0).factory());
+        this.conversationStates = new ConcurrentHashMap<>();
+        this.evictedMessageCount = new AtomicLong();
+        this.summarizations = new AtomicLong();
+        this.failedSummarizations = new AtomicLong();
+    }
+
+    public static boolean isSummary(Message message) {
+        return Boolean.TRUE.equals(message.getMetadata().get(SUMMARY));
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        ConversationState state = this.conversationStates.computeIfAbsent(conversationId,
+                id -> new ConversationState());
+        synchronized (state) {
+            List<Message> addedMessages = messages.stream().filter(message -> !isSummary(message)).toList();
+            state.addedMessages.addAll(addedMessages);
+            append(conversationId, state, addedMessages);
+        }
+    }
+
+    private void append(String conversationId, ConversationState state, List<Message> messages) {
+        List<Message> memoryMessages = new ArrayList<>(this.chatMemoryRepository.findByConversationId(conversationId));
+        memoryMessages.addAll(messages);
+        int totalTokens = state.summaryTokens;
+        for (Message message : memoryMessages)
+            totalTokens += state.tokenCounts.computeIfAbsent(message, this::estimateTokens);
+        int evictCount = 0;
+        if (totalTokens > this.maxTokens) {
+            // evicting below the budget leaves room for a few turns before the next summary, and whole turns
+            // are evicted so the memory never starts with an answer or a tool result without its question
+            int targetTokens = (this.maxTokens - this.summaryMaxTokens) * 3 / 4;
+            int liveTokens = totalTokens - state.summaryTokens;
+            while (evictCount < memoryMessages.size() - 1 && (liveTokens > targetTokens ||
+                    !MessageType.USER.equals(memoryMessages.get(evictCount).getMessageType())))
+                liveTokens -= state.tokenCounts.get(memoryMessages.get(evictCount++));
+        }
+        List<Message> evictedMessages = List.copyOf(memoryMessages.subList(0, evictCount));
+        evictedMessages.forEach(state.tokenCounts::remove);
+        this.chatMemoryRepository.saveAll(conversationId,
+                List.copyOf(memoryMessages.subList(evictCount, memoryMessages.size())));
+        if (!evictedMessages.isEmpty())
+            evict(conversationId, state, evictedMessages);
+    }
+
+    /**
+     * The messages added to the conversation since the last call, in order, including those already evicted.
+     */
+    public List<Message> takeAddedMessages(String conversationId) {
+        ConversationState state = this.conversationStates.get(conversationId);
+        if (Objects.isNull(state))
+            return List.of();
+        synchronized (state) {
+            List<Message> addedMessages = List.copyOf(state.addedMessages);
+            state.addedMessages.clear();
+            return addedMessages;
+        }
+    }
+
+    public List<Message> getAddedMessages(String conversationId) {
+        ConversationState state = this.conversationStates.get(conversationId);
+        if (Objects.isNull(state))
+            return List.of();
+        synchronized (state) {
+            return List.copyOf(state.addedMessages);
+        }
+    }
+
+    private void evict(String conversationId, ConversationState state, List<Message> evictedMessages) {
+        this.evictedMessageCount.addAndGet(evictedMessages.size());
+        logger.debug("Evicting chat memory messages: conversationId={}, count={}", conversationId,
+                evictedMessages.size());
+        if (Objects.isNull(this.summarizer))
+            return;
+        state.evictedMessages.addAll(evictedMessages);
+        if (state.summarizing)
+            return;
+        state.summarizing = true;
+        try {
+            this.summaryExecutor.execute(() -> summarize(conversationId, state));
+        } catch (RejectedExecutionException e) {
+            state.summarizing = false;
+            state.evictedMessages.clear();
+        }
+    }
+
+    private void summarize(String conversationId, ConversationState state) {
+        List<Message> evictedMessages;
+        synchronized (state) {
+            evictedMessages = List.copyOf(state.evictedMessages);
+            state.evictedMessages.clear();
+        }
+        for (List<Message> chunk : toChunks(evictedMessages)) {
+            String summaryText = null;
+            try {
+                summaryText = this.summarizer.apply(conversationId, buildSummaryPrompt(state.summary, chunk));
+                this.summarizations.incrementAndGet();
+            } catch (Exception e) {
+                this.failedSummarizations.incrementAndGet();
+                logger.warn("Keeping the previous chat memory summary, summarizing failed: conversationId={}, " +
+                        "error={}", conversationId, e.getMessage());
+            }
+            synchronized (state) {
+                // the conversation was cleared meanwhile
+                if (this.conversationStates.get(conversationId) != state)
+                    return;
+                if (Objects.nonNull(summaryText) && !summaryText.isBlank())
+                    setSummary(state, summaryText);
+                state.summarizedMessages += chunk.size();
+            }
+        }
+        synchronized (state) {
+            if (this.conversationStates.get(conversationId) != state)
+                return;
+            if (state.evictedMessages.isEmpty() || this.summaryExecutor.isShutdown())
+                state.summarizing = false;
+            else
+                this.summaryExecutor.execute(() -> summarize(conversationId, state));
+        }
+    }
+
+    /**
+     * Splits the evicted messages so that the previous summary and one chunk stay within {@code maxTokens}. A
+     * message larger than that is a chunk of its own.
+     */
+    private List<List<Message>> toChunks(List<Message> messages) {
+        int chunkMaxTokens = this.maxTokens - this.summaryMaxTokens;
+        List<List<Message>> chunks = new ArrayList<>();
+        List<Message> chunk = new ArrayList<>();
+        int chunkTokens = 0;
+        for (Message message : messages) {
+            int tokens = estimateTokens(message);
+            if (!chunk.isEmpty() && chunkTokens + tokens > chunkMaxTokens) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkTokens = 0;
+            }
+            chunk.add(message);
+            chunkTokens += tokens;
+        }
+        if (!chunk.isEmpty())
+            chunks.add(chunk);
+        return chunks;
+    }
+
+    private void setSummary(ConversationState state, String summaryText) {
+        state.summaryText = summaryText.strip();
+        state.summary = SystemMessage.builder().text("Summary of the earlier conversation:\n" + state.summaryText)
+                .metadata(Map.of(SUMMARY, true)).build();
+        state.summaryTokens = estimateTokens(state.summary);
+    }
+
+    public Optional<Summary> getSummary(String conversationId) {
+        ConversationState state = this.conversationStates.get(conversationId);
+        if (Objects.isNull(state))
+            return Optional.empty();
+        synchronized (state) {
+            return Optional.ofNullable(state.summaryText)
+                    .map(summaryText -> new Summary(summaryText, state.summarizedMessages));
+        }
+    }
+
+    /**
+     * Starts the conversation over from its saved messages, and from the saved summary of the messages before them
+     * if there is one. Messages already in the memory follow the saved ones and stay added, the saved ones are not
+     * added again.
+     */
+    public void restore(String conversationId, Summary summary, List<Message> savedMessages) {
+        ConversationState state = new ConversationState();
+        synchronized (state) {
+            ConversationState previousState = this.conversationStates.put(conversationId, state);
+            List<Message> memoryMessages;
+            if (Objects.isNull(previousState)) {
+                memoryMessages = this.chatMemoryRepository.findByConversationId(conversationId);
+            } else {
+                synchronized (previousState) {
+                    memoryMessages = this.chatMemoryRepository.findByConversationId(conversationId);
+                    state.addedMessages.addAll(previousState.addedMessages);
+                }
+            }
+            this.chatMemoryRepository.deleteByConversationId(conversationId);
+            if (Objects.nonNull(summary)) {
+                setSummary(state, summary.text());
+                state.summarizedMessages = summary.summarizedMessages();
+            }
+            List<Message> messages = new ArrayList<>(savedMessages);
+            memoryMessages.stream().filter(message -> !isSummary(message)).forEach(messages::add);
+            append(conversationId, state, messages);
+        }
+    }
+
+    private List<Message> buildSummaryPrompt(SystemMessage previousSummary, List<Message> evictedMessages) {
+        String transcript = evictedMessages.stream()
+                .map(message -> message.getMessageType().getValue() + ": " + toText(message))
+                .collect(Collectors.joining("\n\n"));
+        return List.of(new SystemMessage(SUMMARY_INSTRUCTION.formatted(this.summaryMaxTokens)), new UserMessage(
+                "Previous summary:\n" + Optional.ofNullable(previousSummary).map(SystemMessage::getText)
+                        .orElse("(none)") + "\n\nNew messages:\n" + transcript));
+    }
+
+    private static String toText(Message message) {
+        StringBuilder text = new StringBuilder(Optional.ofNullable(message.getText()).orElse(""));
+        if (message instanceof AssistantMessage assistantMessage)
+            assistantMessage.getToolCalls().forEach(toolCall -> text.append("\n[tool call ").append(toolCall.name())
+                    .append("] ").append(toolCall.arguments()));
+        if (message instanceof ToolResponseMessage toolResponseMessage)
+            toolResponseMessage.getResponses().forEach(response -> text.append("\n[tool result ")
+                    .append(response.name()).append("] ").append(response.responseData()));
+        return text.toString();
+    }
+
+    private int estimateTokens(Message message) {
+        // user messages are counted with their media, the other messages with their tool calls or results
+        return MESSAGE_OVERHEAD_TOKENS + (message instanceof UserMessage userMessage ?
+                this.tokenCountEstimator.estimate(userMessage) :
+                this.tokenCountEstimator.estimate(toText(message)));
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        List<Message> messages = this.chatMemoryRepository.findByConversationId(conversationId);
+        ConversationState state = this.conversationStates.get(conversationId);
+        SystemMessage summary = Objects.isNull(state) ? null : state.summary;
+        if (Objects.isNull(summary))
+            return messages;
+        List<Message> messagesWithSummary = new ArrayList<>(messages.size() + 1);
+        messagesWithSummary.add(summary);
+        messagesWithSummary.addAll(messages);
+        return messagesWithSummary;
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        ConversationState state = this.conversationStates.remove(conversationId);
+        if (Objects.isNull(state)) {
+            this.chatMemoryRepository.deleteByConversationId(conversationId);
+            return;
+        }
+        synchronized (state) {
+            this.chatMemoryRepository.deleteByConversationId(conversationId);
+        }
+    }
+
+    public TokenBudgetChatMemoryStats getStats() {
+        return new TokenBudgetChatMemoryStats(this.conversationStates.size(),
+                (int) this.conversationStates.values().stream().filter(state -> state.summarizing).count(),
+                this.evictedMessageCount.get(), this.summarizations.get(), this.failedSummarizations.get());
+    }
+
+    @Override
+    public void close() {
+        this.summaryExecutor.shutdownNow();
+    }
+}
@@ -15,11 +15,20 @@
  */
 package jm.kr.spring.ai.playground.service.mcp;
 
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Chat;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ToolCalling;
+import jm.kr.spring.ai.playground.service.mcp.client.McpToolProgressRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.model.tool.ToolCallingChatOptions;
 import org.springframework.ai.model.tool.ToolCallingManager;
@@ -27,18 +36,40 @@ import org.springframework.ai.model.tool.ToolExecutionResult;
 import org.springframework.ai.tool.definition.ToolDefinition;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 @Component
 public class McpToolCallingManager implements ToolCallingManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(McpToolCallingManager.class);
+
     public static final String MCP_PROCESS_MESSAGE_CONSUMER = "mcpProcessMessageConsumer";
     private final ToolCallingManager toolCallingManager;
+    private final McpToolProgressRouter mcpToolProgressRouter;
+    private final boolean parallel;
+    private final long timeoutSeconds;
+    private final ExecutorService toolCallExecutor;
 
-    public McpToolCallingManager() {
+    public McpToolCallingManager(McpToolProgressRouter mcpToolProgressRouter,
+            SpringAiPlaygroundOptions playgroundOptions) {
         this.toolCallingManager = ToolCallingManager.builder().build();
+        this.mcpToolProgressRouter = mcpToolProgressRouter;
+        Optional<ToolCalling> toolCallingAsOpt =
+                Optional.ofNullable(playgroundOptions).map(SpringAiPlaygroundOptions::chat).map(Chat::toolCalling);
+        this.parallel = toolCallingAsOpt.map(ToolCalling::parallel).orElse(false);
+        this.timeoutSeconds = toolCallingAsOpt.map(ToolCalling::timeoutSeconds).orElse(60L);
+        this.toolCallExecutor =
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mcp-tool-call-", 0).factory());
     }
 
     @Override
@@ -61,12 +92,114 @@ public class McpToolCallingManager implements ToolCallingManager {
                     .flatMap(result -> result.getOutput().getToolCalls().stream())
                     .forEach(toolCall -> mcpProcessMessageConsumer.accept(formatToolCallForMcp(toolCall)));
         }
-        ToolExecutionResult result = toolCallingManager.executeToolCalls(prompt, chatResponse);
+        Optional<AssistantMessage> toolCallsMessageAsOpt = chatResponse.getResults().stream()
+                .map(Generation::getOutput).filter(AssistantMessage::hasToolCalls).findFirst();
+        ToolExecutionResult result;
+        try {
+            result = toolCallsMessageAsOpt.isPresent() ?
+                    executeToolCalls(prompt, toolCallsMessageAsOpt.get(),
+                            mcpProcessMessageConsumerAsOpt.orElse(null)) :
+                    toolCallingManager.executeToolCalls(prompt, chatResponse);
+        } finally {
+            mcpProcessMessageConsumerAsOpt.ifPresent(this.mcpToolProgressRouter::unregister);
+        }
         mcpProcessMessageConsumerAsOpt.ifPresent(
-                consumer -> consumer.accept(formatToolResultForMcp(result.conversationHistory().getLast())));
+                consumer -> formatToolResultsForMcp(result.conversationHistory().getLast()).forEach(consumer));
         return result;
     }
 
+    /**
+     * Runs every tool call of the assistant message on its own virtual thread through the delegate manager. With
+     * {@code parallel} enabled all calls start at once and share one deadline, so a turn takes as long as its slowest
+     * tool instead of the sum of all of them; otherwise they run one after another, each with its own deadline.
+     * Responses keep the order of the tool calls, and a call that fails or does not finish within the timeout is
+     * answered with an error message instead of failing the turn.
+     */
+    private ToolExecutionResult executeToolCalls(Prompt prompt, AssistantMessage assistantMessage,
+            Consumer<Object> mcpProcessMessageConsumer) {
+        List<ToolCall> toolCalls = assistantMessage.getToolCalls();
+        boolean inParallel = this.parallel && toolCalls.size() > 1;
+        logger.debug("Executing {} tool calls {}", toolCalls.size(), inParallel ? "in parallel" : "sequentially");
+        List<Future<ToolExecutionResult>> futures = new ArrayList<>(toolCalls.size());
+        if (inParallel)
+            toolCalls.forEach(toolCall -> futures.add(
+                    submitToolCall(prompt, assistantMessage, toolCall, mcpProcessMessageConsumer)));
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.timeoutSeconds);
+        List<ToolResponse> toolResponses = new ArrayList<>(toolCalls.size());
+        boolean returnDirect = true;
+        try {
+            for (int i = 0; i < toolCalls.size(); i++) {
+                ToolCall toolCall = toolCalls.get(i);
+                if (!inParallel) {
+                    futures.add(submitToolCall(prompt, assistantMessage, toolCall, mcpProcessMessageConsumer));
+                    deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.timeoutSeconds);
+                }
+                try {
+                    ToolExecutionResult toolExecutionResult = futures.get(i)
+                            .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    toolResponses.add(((ToolResponseMessage) toolExecutionResult.conversationHistory().getLast())
+                            .getResponses().getFirst());
+                    returnDirect &= toolExecutionResult.returnDirect();
+                } catch (TimeoutException e) {
+                    futures.get(i).cancel(true);
+                    String message = "Tool call timed out after " + this.timeoutSeconds + " seconds";
+                    logger.warn("{}: name={}, id={}", message, toolCall.name(), toolCall.id());
+                    reportToolCallStatus(mcpProcessMessageConsumer, toolCall, "timed out",
+                            TimeUnit.SECONDS.toMillis(this.timeoutSeconds));
+                    toolResponses.add(new ToolResponse(toolCall.id(), toolCall.name(), message));
+                    returnDirect = false;
+                } catch (ExecutionException e) {
+                    String message = "Tool call failed: " + e.getCause().getMessage();
+                    logger.warn("Tool call failed: name={}, id={}", toolCall.name(), toolCall.id(), e.getCause());
+                    toolResponses.add(new ToolResponse(toolCall.id(), toolCall.name(), message));
+                    returnDirect = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tool calls", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        List<Message> conversationHistory = new ArrayList<>(prompt.copy().getInstructions());
+        conversationHistory.add(assistantMessage);
+        conversationHistory.add(ToolResponseMessage.builder().responses(toolResponses).build());
+        return ToolExecutionResult.builder().conversationHistory(conversationHistory).returnDirect(returnDirect)
+                .build();
+    }
+
+    private Future<ToolExecutionResult> submitToolCall(Prompt prompt, AssistantMessage assistantMessage,
+            ToolCall toolCall, Consumer<Object> mcpProcessMessageConsumer) {
+        return this.toolCallExecutor.submit(
+                () -> executeToolCall(prompt, assistantMessage, toolCall, mcpProcessMessageConsumer));
+    }
+
+    private ToolExecutionResult executeToolCall(Prompt prompt, AssistantMessage assistantMessage, ToolCall toolCall,
+            Consumer<Object> mcpProcessMessageConsumer) {
+        reportToolCallStatus(mcpProcessMessageConsumer, toolCall, "started", null);
+        long startMillis = System.currentTimeMillis();
+        String status = "failed";
+        try {
+            ToolExecutionResult toolExecutionResult = this.toolCallingManager.executeToolCalls(prompt,
+                    new ChatResponse(List.of(new Generation(AssistantMessage.builder()
+                            .content(assistantMessage.getText()).properties(assistantMessage.getMetadata())
+                            .toolCalls(List.of(toolCall)).build()))));
+            status = "finished";
+            return toolExecutionResult;
+        } finally {
+            if (!Thread.currentThread().isInterrupted())
+                reportToolCallStatus(mcpProcessMessageConsumer, toolCall, status,
+                        System.currentTimeMillis() - startMillis);
+        }
+    }
+
+    private void reportToolCallStatus(Consumer<Object> mcpProcessMessageConsumer, ToolCall toolCall, String status,
+            Long elapsedMillis) {
+        if (Objects.nonNull(mcpProcessMessageConsumer))
+            mcpProcessMessageConsumer.accept(
+                    new McpToolCallStatus("tool", toolCall.name(), toolCall.id(), status, elapsedMillis));
+    }
+
     private Object formatUserMessageForMcp(UserMessage msg) {
         return new McpUserMessage("user", msg.getText());
     }
@@ -77,14 +210,15 @@ public class McpToolCallingManager implements ToolCallingManager {
         );
     }
 
-    private Object formatToolResultForMcp(Message lastMessage) {
+    private List<Object> formatToolResultsForMcp(Message lastMessage) {
         if (lastMessage instanceof ToolResponseMessage toolResponseMessage) {
-            ToolResponseMessage.ToolResponse toolResponse = toolResponseMessage.getResponses().getLast();
-            return new McpToolResult("tool", toolResponse.name(), toolResponse.id(), toolResponse.responseData()
-            );
+            return toolResponseMessage.getResponses().stream().<Object>map(
+                    toolResponse -> new McpToolResult("tool", toolResponse.name(), toolResponse.id(),
+                            toolResponse.responseData())).toList();
         } else {
-            return "MCP processing error: conversationHistory last message is not ToolResponseMessage. Actual type: " +
-                    (lastMessage != null ? lastMessage.getClass().getName() : "null");
+            return List.of(
+                    "MCP processing error: conversationHistory last message is not ToolResponseMessage. Actual type: " +
+                            (lastMessage != null ? lastMessage.getClass().getName() : "null"));
         }
     }
 
@@ -96,4 +230,8 @@ public class McpToolCallingManager implements ToolCallingManager {
 
     public record McpToolResult(String role, String name, String id, Object responseData) {}
 
-}
\ No newline at end of file
+    public record McpToolProgress(String role, Double progress, Double total, String message) {}
+
+    public record McpToolCallStatus(String role, String name, String id, String status, Long elapsedMillis) {}
+
+}
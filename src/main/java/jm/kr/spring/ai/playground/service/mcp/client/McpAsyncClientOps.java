@@ -19,8 +19,15 @@ import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import org.springframework.ai.mcp.AsyncMcpToolCallback;
 import org.springframework.ai.mcp.AsyncMcpToolCallbackProvider;
+import org.springframework.ai.mcp.DefaultMcpToolNamePrefixGenerator;
+import org.springframework.ai.mcp.McpConnectionInfo;
+import org.springframework.ai.mcp.McpToolNamePrefixGenerator;
+import org.springframework.ai.mcp.ToolContextToMcpMetaConverter;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
@@ -28,13 +35,28 @@ import java.util.Map;
 public class McpAsyncClientOps implements McpClientOps {
 
     private final McpAsyncClient mcpAsyncClient;
+    private final ToolContextToMcpMetaConverter toolContextToMcpMetaConverter;
+    private final McpToolNamePrefixGenerator toolNamePrefixGenerator;
 
     public McpAsyncClientOps(McpAsyncClient mcpAsyncClient) {
+        this(mcpAsyncClient, ToolContextToMcpMetaConverter.defaultConverter());
+    }
+
+    public McpAsyncClientOps(McpAsyncClient mcpAsyncClient,
+            ToolContextToMcpMetaConverter toolContextToMcpMetaConverter) {
         this.mcpAsyncClient = mcpAsyncClient;
+        this.toolContextToMcpMetaConverter = toolContextToMcpMetaConverter;
+        this.toolNamePrefixGenerator = new DefaultMcpToolNamePrefixGenerator();
     }
 
     @Override
-    public Object ping() {return mcpAsyncClient.ping();}
+    public Mono<Void> initializeAsync() {return mcpAsyncClient.initialize().then();}
+
+    @Override
+    public Object ping() {return pingAsync().block();}
+
+    @Override
+    public Mono<Object> pingAsync() {return mcpAsyncClient.ping();}
 
     @Override
     public void close() {mcpAsyncClient.close();}
@@ -43,16 +65,40 @@ public class McpAsyncClientOps implements McpClientOps {
     public ServerCapabilities capabilities() {return mcpAsyncClient.getServerCapabilities();}
 
     @Override
-    public List<McpSchema.Tool> listTools() {return mcpAsyncClient.listTools().block().tools();}
+    public List<McpSchema.Tool> listTools() {return listToolsAsync().block();}
+
+    @Override
+    public Mono<List<McpSchema.Tool>> listToolsAsync() {
+        return mcpAsyncClient.listTools().map(McpSchema.ListToolsResult::tools);
+    }
 
     @Override
     public CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta) {
+        return callToolAsync(name, args, meta).block();
+    }
+
+    @Override
+    public Mono<CallToolResult> callToolAsync(String name, Map<String, Object> args, Map<String, Object> meta) {
         return mcpAsyncClient.callTool(
-                McpSchema.CallToolRequest.builder().name(name).arguments(args).meta(meta).build()).block();
+                McpSchema.CallToolRequest.builder().name(name).arguments(args).meta(meta).build());
     }
 
     @Override
     public ToolCallbackProvider toolCallbackProvider() {
-        return new AsyncMcpToolCallbackProvider(mcpAsyncClient);
+        return AsyncMcpToolCallbackProvider.builder().mcpClients(mcpAsyncClient)
+                .toolContextToMcpMetaConverter(toolContextToMcpMetaConverter).build();
+    }
+
+    @Override
+    public Mono<List<ToolCallback>> toolCallbacksAsync() {
+        return listToolsAsync().map(tools -> {
+            McpConnectionInfo connectionInfo = McpConnectionInfo.builder()
+                    .clientCapabilities(mcpAsyncClient.getClientCapabilities())
+                    .clientInfo(mcpAsyncClient.getClientInfo())
+                    .initializeResult(mcpAsyncClient.getCurrentInitializationResult()).build();
+            return tools.stream().<ToolCallback>map(tool -> AsyncMcpToolCallback.builder().mcpClient(mcpAsyncClient)
+                    .tool(tool).prefixedToolName(toolNamePrefixGenerator.prefixedToolName(connectionInfo, tool))
+                    .toolContextToMcpMetaConverter(toolContextToMcpMetaConverter).build()).toList();
+        });
     }
-}
\ No newline at end of file
+}
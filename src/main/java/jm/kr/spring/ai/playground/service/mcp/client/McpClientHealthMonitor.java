@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Pings every connected MCP client on a fixed delay and records the latency. A server that fails
+ * {@code failureThreshold} pings in a row is marked unhealthy and reconnected with exponential backoff until it
+ * answers again, so callers can skip it instead of waiting for the request timeout. Pings and reconnects each have
+ * their own timeout, so a server that never answers cannot hold up the scheduled cycle of the others.
+ */
+public class McpClientHealthMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpClientHealthMonitor.class);
+
+    public static final List<Long> LATENCY_BUCKET_BOUNDS_MILLIS = List.of(5L, 10L, 25L, 50L, 100L, 250L, 500L,
+            1000L, 2500L, 5000L, Long.MAX_VALUE);
+
+    public record McpClientHealthStats(String serverName, boolean healthy, int consecutiveFailures, long pings,
+                                       long failures, long reconnects, long lastLatencyMillis,
+                                       List<Long> latencyBucketCounts, long nextReconnectInMillis) {}
+
+    private static class HealthState {
+        private final String serverName;
+        private final long[] latencyBucketCounts = new long[LATENCY_BUCKET_BOUNDS_MILLIS.size()];
+        private boolean healthy = true;
+        private int consecutiveFailures;
+        private long pings;
+        private long failures;
+        private long reconnects;
+        private long lastLatencyMillis;
+        private long backoffMillis;
+        private long nextReconnectAtMillis;
+
+        private HealthState(String serverName) {
+            this.serverName = serverName;
+        }
+
+        private synchronized McpClientHealthStats toStats(long nowMillis) {
+            return new McpClientHealthStats(this.serverName, this.healthy, this.consecutiveFailures, this.pings,
+                    this.failures, this.reconnects, this.lastLatencyMillis,
+                    Arrays.stream(this.latencyBucketCounts).boxed().toList(),
+                    this.healthy ? 0 : Math.max(0, this.nextReconnectAtMillis - nowMillis));
+        }
+    }
+
+    private final Duration pingTimeout;
+    private final Duration reconnectTimeout;
+    private final int failureThreshold;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Supplier<Map<McpServerInfo, McpClientOps>> mcpClientOpsSupplier;
+    private final Function<McpServerInfo, Mono<Void>> reconnectFunction;
+    private final Map<McpServerInfo, HealthState> healthStates;
+    private final ScheduledExecutorService scheduler;
+
+    public McpClientHealthMonitor(long intervalMillis, long pingTimeoutMillis, long reconnectTimeoutMillis,
+            int failureThreshold, long initialBackoffMillis, long maxBackoffMillis,
+            Supplier<Map<McpServerInfo, McpClientOps>> mcpClientOpsSupplier,
+            Function<McpServerInfo, Mono<Void>> reconnectFunction) {
+        this.pingTimeout = Duration.ofMillis(pingTimeoutMillis);
+        this.reconnectTimeout = Duration.ofMillis(reconnectTimeoutMillis);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+        this.mcpClientOpsSupplier = mcpClientOpsSupplier;
+        this.reconnectFunction = reconnectFunction;
+        this.healthStates = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("mcp-client-health-monitor").factory());
+        if (intervalMillis > 0)
+            this.scheduler.scheduleWithFixedDelay(this::checkAllSafely, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+    }
+
+    private void checkAllSafely() {
+        try {
+            // every ping and reconnect times out on its own; this only guards against a check that ignores it
+            checkAll().block(this.pingTimeout.plus(this.reconnectTimeout));
+        } catch (Exception e) {
+            logger.warn("MCP client health check failed: {}", e.getMessage());
+        }
+    }
+
+    public Mono<Void> checkAll() {
+        Map<McpServerInfo, McpClientOps> mcpClientOpsMap = this.mcpClientOpsSupplier.get();
+        this.healthStates.keySet().retainAll(mcpClientOpsMap.keySet());
+        return Flux.fromIterable(mcpClientOpsMap.entrySet())
+                .flatMap(entry -> check(entry.getKey(), entry.getValue())).then();
+    }
+
+    private Mono<Void> check(McpServerInfo mcpServerInfo, McpClientOps mcpClientOps) {
+        HealthState healthState =
+                this.healthStates.computeIfAbsent(mcpServerInfo, info -> new HealthState(info.serverName()));
+        synchronized (healthState) {
+            if (!healthState.healthy)
+                return System.currentTimeMillis() < healthState.nextReconnectAtMillis ? Mono.empty() :
+                        reconnect(mcpServerInfo, healthState);
+        }
+        long startNanos = System.nanoTime();
+        return mcpClientOps.pingAsync().timeout(this.pingTimeout)
+                .doOnSuccess(ignored -> recordSuccess(healthState,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)))
+                .doOnError(throwable -> recordFailure(healthState, throwable)).then().onErrorComplete();
+    }
+
+    private Mono<Void> reconnect(McpServerInfo mcpServerInfo, HealthState healthState) {
+        logger.info("Reconnecting unhealthy MCP client: serverName={}, backoffMillis={}",
+                mcpServerInfo.serverName(), healthState.backoffMillis);
+        healthState.reconnects++;
+        return this.reconnectFunction.apply(mcpServerInfo).timeout(this.reconnectTimeout).doOnSuccess(ignored -> {
+            synchronized (healthState) {
+                logger.info("MCP client reconnected: serverName={}", mcpServerInfo.serverName());
+                healthState.healthy = true;
+                healthState.consecutiveFailures = 0;
+                healthState.backoffMillis = 0;
+            }
+        }).doOnError(throwable -> {
+            synchronized (healthState) {
+                healthState.backoffMillis = Math.min(this.maxBackoffMillis, healthState.backoffMillis * 2);
+                healthState.nextReconnectAtMillis = System.currentTimeMillis() + healthState.backoffMillis;
+                logger.warn("MCP client reconnect failed: serverName={}, nextBackoffMillis={}, error={}",
+                        mcpServerInfo.serverName(), healthState.backoffMillis, throwable.getMessage());
+            }
+        }).onErrorComplete();
+    }
+
+    private void recordSuccess(HealthState healthState, long latencyMillis) {
+        synchronized (healthState) {
+            healthState.pings++;
+            healthState.consecutiveFailures = 0;
+            healthState.lastLatencyMillis = latencyMillis;
+            for (int i = 0; i < LATENCY_BUCKET_BOUNDS_MILLIS.size(); i++)
+                if (latencyMillis <= LATENCY_BUCKET_BOUNDS_MILLIS.get(i)) {
+                    healthState.latencyBucketCounts[i]++;
+                    break;
+                }
+        }
+    }
+
+    private void recordFailure(HealthState healthState, Throwable throwable) {
+        synchronized (healthState) {
+            healthState.pings++;
+            healthState.failures++;
+            if (++healthState.consecutiveFailures < this.failureThreshold || !healthState.healthy)
+                return;
+            healthState.healthy = false;
+            healthState.backoffMillis = Math.max(1, this.initialBackoffMillis);
+            healthState.nextReconnectAtMillis = System.currentTimeMillis() + this.initialBackoffMillis;
+            logger.warn("MCP client marked unhealthy: serverName={}, consecutiveFailures={}, error={}",
+                    healthState.serverName, healthState.consecutiveFailures, throwable.getMessage());
+        }
+    }
+
+    public boolean isHealthy(McpServerInfo mcpServerInfo) {
+        HealthState healthState = this.healthStates.get(mcpServerInfo);
+        if (Objects.isNull(healthState))
+            return true;
+        synchronized (healthState) {
+            return healthState.healthy;
+        }
+    }
+
+    public List<McpClientHealthStats> getStats() {
+        long nowMillis = System.currentTimeMillis();
+        return this.healthStates.values().stream().map(healthState -> healthState.toStats(nowMillis))
+                .sorted(Comparator.comparing(McpClientHealthStats::serverName)).toList();
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+}
@@ -18,22 +18,34 @@ package jm.kr.spring.ai.playground.service.mcp.client;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
 
 public interface McpClientOps {
 
+    Mono<Void> initializeAsync();
+
     Object ping();
 
+    Mono<Object> pingAsync();
+
     void close();
 
     ServerCapabilities capabilities();
 
     List<McpSchema.Tool> listTools();
 
+    Mono<List<McpSchema.Tool>> listToolsAsync();
+
     CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta);
 
+    Mono<CallToolResult> callToolAsync(String name, Map<String, Object> args, Map<String, Object> meta);
+
     ToolCallbackProvider toolCallbackProvider();
-}
\ No newline at end of file
+
+    Mono<List<ToolCallback>> toolCallbacksAsync();
+}
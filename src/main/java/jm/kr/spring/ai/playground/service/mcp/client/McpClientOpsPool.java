@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.AsyncMcpToolCallback;
+import org.springframework.ai.mcp.SyncMcpToolCallback;
+import org.springframework.ai.mcp.ToolContextToMcpMetaConverter;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Several client connections to one MCP server. Every request goes to the connection with the fewest outstanding
+ * requests, so servers that handle the requests of one connection serially can serve concurrent chats and
+ * inspector calls in parallel.
+ */
+public class McpClientOpsPool implements McpClientOps {
+
+    public record McpClientPoolStats(String serverName, int size, int outstanding, int maxOutstanding,
+                                     long requests, List<Integer> outstandingPerClient, double utilization) {}
+
+    private static class PoolMember {
+        private final McpClientOps mcpClientOps;
+        private final AtomicInteger outstanding;
+        private final AtomicLong requests;
+
+        private PoolMember(McpClientOps mcpClientOps) {
+            this.mcpClientOps = mcpClientOps;
+            this.outstanding = new AtomicInteger();
+            this.requests = new AtomicLong();
+        }
+    }
+
+    private final String serverName;
+    private final List<PoolMember> members;
+    private final AtomicInteger nextIndex;
+    private final AtomicInteger maxOutstanding;
+    private final ToolContextToMcpMetaConverter toolContextToMcpMetaConverter;
+
+    public McpClientOpsPool(String serverName, List<? extends McpClientOps> mcpClientOpsList) {
+        this(serverName, mcpClientOpsList, ToolContextToMcpMetaConverter.defaultConverter());
+    }
+
+    public McpClientOpsPool(String serverName, List<? extends McpClientOps> mcpClientOpsList,
+            ToolContextToMcpMetaConverter toolContextToMcpMetaConverter) {
+        if (mcpClientOpsList.isEmpty())
+            throw new IllegalArgumentException("MCP client pool needs at least one client: " + serverName);
+        this.serverName = serverName;
+        this.members = mcpClientOpsList.stream().map(PoolMember::new).toList();
+        this.nextIndex = new AtomicInteger();
+        this.maxOutstanding = new AtomicInteger();
+        this.toolContextToMcpMetaConverter = toolContextToMcpMetaConverter;
+    }
+
+    public int size() {
+        return this.members.size();
+    }
+
+    private int acquire() {
+        // start the scan at a rotating offset so ties are spread over the pool
+        int start = Math.floorMod(this.nextIndex.getAndIncrement(), this.members.size());
+        int selected = start;
+        for (int i = 1; i < this.members.size(); i++) {
+            int index = (start + i) % this.members.size();
+            if (this.members.get(index).outstanding.get() < this.members.get(selected).outstanding.get())
+                selected = index;
+        }
+        PoolMember member = this.members.get(selected);
+        member.outstanding.incrementAndGet();
+        member.requests.incrementAndGet();
+        this.maxOutstanding.accumulateAndGet(
+                this.members.stream().mapToInt(poolMember -> poolMember.outstanding.get()).sum(), Math::max);
+        return selected;
+    }
+
+    private void release(int index) {
+        this.members.get(index).outstanding.decrementAndGet();
+    }
+
+    private <T> T dispatch(Function<McpClientOps, T> request) {
+        int index = acquire();
+        try {
+            return request.apply(this.members.get(index).mcpClientOps);
+        } finally {
+            release(index);
+        }
+    }
+
+    private <T> Mono<T> dispatchAsync(Function<McpClientOps, Mono<T>> request) {
+        return Mono.defer(() -> {
+            int index = acquire();
+            return request.apply(this.members.get(index).mcpClientOps).doFinally(signalType -> release(index));
+        });
+    }
+
+    private Flux<McpClientOps> eachClient() {
+        return Flux.fromIterable(this.members).map(poolMember -> poolMember.mcpClientOps);
+    }
+
+    @Override
+    public Mono<Void> initializeAsync() {
+        return eachClient().flatMap(McpClientOps::initializeAsync).then();
+    }
+
+    @Override
+    public Object ping() {
+        return pingAsync().block();
+    }
+
+    @Override
+    public Mono<Object> pingAsync() {
+        return eachClient().flatMapSequential(McpClientOps::pingAsync).last();
+    }
+
+    @Override
+    public void close() {
+        this.members.forEach(poolMember -> poolMember.mcpClientOps.close());
+    }
+
+    @Override
+    public ServerCapabilities capabilities() {
+        return this.members.getFirst().mcpClientOps.capabilities();
+    }
+
+    @Override
+    public List<McpSchema.Tool> listTools() {
+        return dispatch(McpClientOps::listTools);
+    }
+
+    @Override
+    public Mono<List<McpSchema.Tool>> listToolsAsync() {
+        return dispatchAsync(McpClientOps::listToolsAsync);
+    }
+
+    @Override
+    public CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta) {
+        return dispatch(mcpClientOps -> mcpClientOps.callTool(name, args, meta));
+    }
+
+    @Override
+    public Mono<CallToolResult> callToolAsync(String name, Map<String, Object> args, Map<String, Object> meta) {
+        return dispatchAsync(mcpClientOps -> mcpClientOps.callToolAsync(name, args, meta));
+    }
+
+    @Override
+    public ToolCallbackProvider toolCallbackProvider() {
+        return ToolCallbackProvider.from(Objects.requireNonNull(toolCallbacksAsync().block()));
+    }
+
+    @Override
+    public Mono<List<ToolCallback>> toolCallbacksAsync() {
+        // every member serves the same tools, so one tools/list is enough and calls are spread when they run
+        return dispatchAsync(McpClientOps::toolCallbacksAsync).map(toolCallbacks -> toolCallbacks.stream()
+                .<ToolCallback>map(PooledToolCallback::new).toList());
+    }
+
+    public McpClientPoolStats getStats() {
+        List<Integer> outstandingPerClient =
+                this.members.stream().map(poolMember -> poolMember.outstanding.get()).toList();
+        return new McpClientPoolStats(this.serverName, this.members.size(),
+                outstandingPerClient.stream().mapToInt(Integer::intValue).sum(), this.maxOutstanding.get(),
+                this.members.stream().mapToLong(poolMember -> poolMember.requests.get()).sum(),
+                outstandingPerClient,
+                (double) outstandingPerClient.stream().filter(outstanding -> outstanding > 0).count() /
+                        this.members.size());
+    }
+
+    private class PooledToolCallback implements ToolCallback {
+
+        private final ToolCallback toolCallback;
+        private final String toolName;
+
+        private PooledToolCallback(ToolCallback toolCallback) {
+            this.toolCallback = toolCallback;
+            this.toolName = switch (toolCallback) {
+                case AsyncMcpToolCallback asyncMcpToolCallback -> asyncMcpToolCallback.getOriginalToolName();
+                case SyncMcpToolCallback syncMcpToolCallback -> syncMcpToolCallback.getOriginalToolName();
+                default -> toolCallback.getToolDefinition().name();
+            };
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return this.toolCallback.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return this.toolCallback.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            Map<String, Object> arguments = ModelOptionsUtils.jsonToMap(toolInput);
+            Map<String, Object> meta = Objects.isNull(toolContext) ? null :
+                    toolContextToMcpMetaConverter.convert(toolContext);
+            return dispatchAsync(mcpClientOps -> mcpClientOps.callToolAsync(this.toolName, arguments, meta))
+                    .onErrorMap(throwable -> !(throwable instanceof ToolExecutionException),
+                            throwable -> new ToolExecutionException(getToolDefinition(), throwable))
+                    .map(callToolResult -> {
+                        if (Boolean.TRUE.equals(callToolResult.isError()))
+                            throw new ToolExecutionException(getToolDefinition(),
+                                    new IllegalStateException("Error calling tool: " + callToolResult.content()));
+                        return ModelOptionsUtils.toJsonString(callToolResult.content());
+                    }).block();
+        }
+    }
+}
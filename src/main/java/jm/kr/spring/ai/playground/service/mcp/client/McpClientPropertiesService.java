@@ -15,7 +15,10 @@
  */
 package jm.kr.spring.ai.playground.service.mcp.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
 import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
 import io.modelcontextprotocol.client.transport.StdioClientTransport;
@@ -30,12 +33,27 @@ import java.util.Map;
 
 public interface McpClientPropertiesService<P> {
 
+    String POOL_SIZE = "poolSize";
+
     McpTransportType getTransportType();
 
     Map<String, P> getDefaultConnections();
 
-    default McpClientTransport buildClientTransport(ObjectMapper objectMapper, String parametersAsJson) {
+    static int getPoolSize(ObjectMapper objectMapper, String parametersAsJson) {
+        try {
+            return Math.max(1, objectMapper.readTree(parametersAsJson).path(POOL_SIZE).asInt(1));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    default McpClientTransport buildClientTransport(ObjectMapper objectMapper, String connectionAsJson) {
         try {
+            // the pool size is a playground setting, not part of the Spring AI connection parameters
+            JsonNode connectionNode = objectMapper.readTree(connectionAsJson);
+            if (connectionNode instanceof ObjectNode objectNode)
+                objectNode.remove(POOL_SIZE);
+            String parametersAsJson = objectMapper.writeValueAsString(connectionNode);
             return switch (getTransportType()) {
                 case SSE -> {
                     SseParameters sseParameters = objectMapper.readValue(parametersAsJson, SseParameters.class);
@@ -24,7 +24,12 @@ import io.modelcontextprotocol.spec.McpSchema.Implementation;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.HealthCheck;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.McpClientOptions;
 import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
+import jm.kr.spring.ai.playground.service.mcp.client.McpClientHealthMonitor.McpClientHealthStats;
+import jm.kr.spring.ai.playground.service.mcp.client.McpClientOpsPool.McpClientPoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.mcp.client.common.autoconfigure.NamedClientMcpTransport;
@@ -32,18 +37,25 @@ import org.springframework.ai.mcp.client.common.autoconfigure.configurer.McpAsyn
 import org.springframework.ai.mcp.client.common.autoconfigure.configurer.McpSyncClientConfigurer;
 import org.springframework.ai.mcp.client.common.autoconfigure.properties.McpClientCommonProperties;
 import org.springframework.ai.mcp.client.common.autoconfigure.properties.McpClientCommonProperties.ClientType;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class McpClientService {
@@ -54,25 +66,47 @@ public class McpClientService {
     private final McpAsyncClientConfigurer mcpAsyncClientConfigurer;
     private final McpClientCommonProperties mcpClientCommonProperties;
     private final ObjectMapper objectMapper;
+    private final McpToolProgressRouter mcpToolProgressRouter;
 
     private final Map<McpTransportType, McpClientPropertiesService<?>> typeMcpClientPropertiesServiceMap;
     private final BiFunction<NamedClientMcpTransport, Implementation, McpClientOps> mcpClientOpsBiFunction;
     private final Map<McpServerInfo, McpClientOps> connectingMcpClientOpsMap;
+    private final McpToolCallbacksCache toolCallbacksCache;
+    private final McpClientHealthMonitor mcpClientHealthMonitor;
 
     public McpClientService(@Nullable McpSyncClientConfigurer mcpSyncClientConfigurer,
             @Nullable McpAsyncClientConfigurer mcpAsyncClientConfigurer,
             McpClientCommonProperties mcpClientCommonProperties, ObjectMapper objectMapper,
-            McpClientPropertiesService<?>[] mcpClientPropertiesServices) {
+            McpClientPropertiesService<?>[] mcpClientPropertiesServices, McpToolProgressRouter mcpToolProgressRouter,
+            SpringAiPlaygroundOptions playgroundOptions) {
         this.mcpSyncClientConfigurer = mcpSyncClientConfigurer;
         this.mcpAsyncClientConfigurer = mcpAsyncClientConfigurer;
         this.mcpClientCommonProperties = mcpClientCommonProperties;
         this.objectMapper = objectMapper;
+        this.mcpToolProgressRouter = mcpToolProgressRouter;
         this.typeMcpClientPropertiesServiceMap = Arrays.stream(mcpClientPropertiesServices)
                 .collect(Collectors.toMap(McpClientPropertiesService::getTransportType, Function.identity()));
         this.mcpClientOpsBiFunction = (namedClientMcpTransport, info) ->
                 mcpClientCommonProperties.getType() == ClientType.SYNC ? newSync(namedClientMcpTransport,
                         info) : newAsync(namedClientMcpTransport, info);
         this.connectingMcpClientOpsMap = new ConcurrentHashMap<>();
+        this.toolCallbacksCache = new McpToolCallbacksCache(TimeUnit.SECONDS.toMillis(
+                Optional.ofNullable(playgroundOptions.mcpClient()).map(McpClientOptions::toolCacheTtlSeconds)
+                        .orElse(300L)));
+        HealthCheck healthCheck = Optional.ofNullable(playgroundOptions.mcpClient())
+                .map(McpClientOptions::healthCheck).orElse(null);
+        this.mcpClientHealthMonitor = new McpClientHealthMonitor(
+                Objects.nonNull(healthCheck) && healthCheck.enabled() ? TimeUnit.SECONDS.toMillis(
+                        Optional.ofNullable(healthCheck.intervalSeconds()).orElse(15L)) : 0L,
+                Optional.ofNullable(healthCheck).map(HealthCheck::pingTimeoutMillis).orElse(5000L),
+                TimeUnit.SECONDS.toMillis(
+                        Optional.ofNullable(healthCheck).map(HealthCheck::reconnectTimeoutSeconds).orElse(30L)),
+                Optional.ofNullable(healthCheck).map(HealthCheck::failureThreshold).orElse(2),
+                TimeUnit.SECONDS.toMillis(
+                        Optional.ofNullable(healthCheck).map(HealthCheck::initialBackoffSeconds).orElse(1L)),
+                TimeUnit.SECONDS.toMillis(
+                        Optional.ofNullable(healthCheck).map(HealthCheck::maxBackoffSeconds).orElse(60L)),
+                () -> Map.copyOf(this.connectingMcpClientOpsMap), this::startMcpClientAsync);
     }
 
     private McpSyncClientOps newSync(NamedClientMcpTransport namedClientMcpTransport, Implementation info) {
@@ -82,10 +116,10 @@ public class McpClientService {
                 .clientInfo(info)
                 .requestTimeout(mcpClientCommonProperties.getRequestTimeout());
         syncSpec = mcpSyncClientConfigurer.configure(namedClientMcpTransport.name(), syncSpec);
-        McpSyncClient mcpSyncClient =
-                syncSpec.requestTimeout(this.mcpClientCommonProperties.getRequestTimeout()).build();
-        mcpSyncClient.initialize();
-        return new McpSyncClientOps(mcpSyncClient);
+        McpSyncClient mcpSyncClient = syncSpec.requestTimeout(this.mcpClientCommonProperties.getRequestTimeout())
+                .progressConsumer(this.mcpToolProgressRouter::onProgress)
+                .toolsChangeConsumer(tools -> invalidateToolCallbacks(namedClientMcpTransport.name())).build();
+        return new McpSyncClientOps(mcpSyncClient, this.mcpToolProgressRouter.getToolContextToMcpMetaConverter());
     }
 
     private McpAsyncClientOps newAsync(NamedClientMcpTransport namedClientMcpTransport, Implementation implementation) {
@@ -94,20 +128,38 @@ public class McpClientService {
         McpClient.AsyncSpec asyncSpec = McpClient.async(namedClientMcpTransport.transport())
                 .clientInfo(implementation).requestTimeout(mcpClientCommonProperties.getRequestTimeout());
         asyncSpec = mcpAsyncClientConfigurer.configure(namedClientMcpTransport.name(), asyncSpec);
-        McpAsyncClient mcpAsyncClient =
-                asyncSpec.requestTimeout(this.mcpClientCommonProperties.getRequestTimeout()).build();
-        mcpAsyncClient.initialize().block();
-        return new McpAsyncClientOps(mcpAsyncClient);
+        McpAsyncClient mcpAsyncClient = asyncSpec.requestTimeout(this.mcpClientCommonProperties.getRequestTimeout())
+                .progressConsumer(progressNotification -> Mono.fromRunnable(
+                        () -> this.mcpToolProgressRouter.onProgress(progressNotification)))
+                .toolsChangeConsumer(tools -> Mono.fromRunnable(
+                        () -> invalidateToolCallbacks(namedClientMcpTransport.name()))).build();
+        return new McpAsyncClientOps(mcpAsyncClient, this.mcpToolProgressRouter.getToolContextToMcpMetaConverter());
     }
 
     public void startMcpClient(McpServerInfo mcpServerInfo) {
-        logger.info("Starting MCP client connection: serverName={}, transportType={}", mcpServerInfo.serverName(),
-                mcpServerInfo.mcpTransportType());
-        Implementation info =
-                new Implementation(mcpClientCommonProperties.getName() + " - " + mcpServerInfo.serverName(),
-                        mcpClientCommonProperties.getVersion());
-        McpClientOps mcpClientOps = mcpClientOpsBiFunction.apply(buildMcpClientTransport(mcpServerInfo), info);
-        connectingMcpClientOpsMap.put(mcpServerInfo, mcpClientOps);
+        startMcpClientAsync(mcpServerInfo).block();
+    }
+
+    public Mono<Void> startMcpClientAsync(McpServerInfo mcpServerInfo) {
+        return Mono.defer(() -> {
+            logger.info("Starting MCP client connection: serverName={}, transportType={}",
+                    mcpServerInfo.serverName(), mcpServerInfo.mcpTransportType());
+            Implementation info =
+                    new Implementation(mcpClientCommonProperties.getName() + " - " + mcpServerInfo.serverName(),
+                            mcpClientCommonProperties.getVersion());
+            int poolSize = McpClientPropertiesService.getPoolSize(this.objectMapper, mcpServerInfo.connectionAsJson());
+            McpClientOps mcpClientOps = new McpClientOpsPool(mcpServerInfo.serverName(),
+                    IntStream.range(0, poolSize).mapToObj(
+                            i -> mcpClientOpsBiFunction.apply(buildMcpClientTransport(mcpServerInfo), info)).toList(),
+                    this.mcpToolProgressRouter.getToolContextToMcpMetaConverter());
+            return mcpClientOps.initializeAsync().doOnError(throwable -> mcpClientOps.close())
+                    .doOnCancel(mcpClientOps::close)
+                    .doOnSuccess(ignored -> Optional.ofNullable(connectingMcpClientOpsMap.put(mcpServerInfo,
+                            mcpClientOps)).ifPresent(previous -> {
+                        logger.info("Closing replaced MCP client: serverName={}", mcpServerInfo.serverName());
+                        previous.close();
+                    }));
+        });
     }
 
     public Object pingMcpClient(McpServerInfo mcpServerInfo) {
@@ -115,8 +167,13 @@ public class McpClientService {
         return Optional.ofNullable(connectingMcpClientOpsMap.get(mcpServerInfo)).map(McpClientOps::ping).orElseThrow();
     }
 
+    public Mono<Object> pingMcpClientAsync(McpServerInfo mcpServerInfo) {
+        return Mono.justOrEmpty(connectingMcpClientOpsMap.get(mcpServerInfo)).flatMap(McpClientOps::pingAsync);
+    }
+
     public void stopMcpClient(McpServerInfo mcpServerInfo) {
-        McpClientOps mcpClientOps = connectingMcpClientOpsMap.get(mcpServerInfo);
+        // a stopped client leaves the map so the health monitor does not reconnect it
+        McpClientOps mcpClientOps = connectingMcpClientOpsMap.remove(mcpServerInfo);
         logger.info("Stopping MCP client: serverName={}, mcpClientOps={}", mcpServerInfo.serverName(), mcpClientOps);
         if (Objects.nonNull(mcpClientOps))
             mcpClientOps.close();
@@ -130,6 +187,10 @@ public class McpClientService {
         return Optional.ofNullable(connectingMcpClientOpsMap.get(mcpServerInfo)).map(McpClientOps::listTools);
     }
 
+    public Mono<List<McpSchema.Tool>> getToolListAsync(McpServerInfo mcpServerInfo) {
+        return Mono.justOrEmpty(connectingMcpClientOpsMap.get(mcpServerInfo)).flatMap(McpClientOps::listToolsAsync);
+    }
+
     public Optional<McpSchema.CallToolResult> callTool(McpServerInfo mcpServerInfo, String toolName,
             Map<String, Object> args, Map<String, Object> meta) {
         logger.info("Calling MCP tool: serverName={}, toolName={}", mcpServerInfo.serverName(), toolName);
@@ -137,15 +198,71 @@ public class McpClientService {
                 .map(mcpClientOps -> mcpClientOps.callTool(toolName, args, meta));
     }
 
+    public Mono<McpSchema.CallToolResult> callToolAsync(McpServerInfo mcpServerInfo, String toolName,
+            Map<String, Object> args, Map<String, Object> meta) {
+        return Mono.justOrEmpty(connectingMcpClientOpsMap.get(mcpServerInfo)).flatMap(mcpClientOps -> {
+            logger.info("Calling MCP tool: serverName={}, toolName={}", mcpServerInfo.serverName(), toolName);
+            return mcpClientOps.callToolAsync(toolName, args, meta);
+        });
+    }
+
     public List<ToolCallbackProvider> buildToolCallbackProviders(McpServerInfo... mcpServerInfos) {
-        return Arrays.stream(mcpServerInfos).map(connectingMcpClientOpsMap::get).filter(Objects::nonNull)
-                .map(McpClientOps::toolCallbackProvider).toList();
+        return Arrays.stream(mcpServerInfos).filter(connectingMcpClientOpsMap::containsKey).filter(this::isHealthy)
+                .map(mcpServerInfo -> ToolCallbackProvider.from(getToolCallbacks(mcpServerInfo))).toList();
+    }
+
+    /**
+     * Tool callbacks of a connected server, reused across chat messages until the server sends
+     * {@code notifications/tools/list_changed}, its client is replaced or the TTL passes.
+     */
+    public List<ToolCallback> getToolCallbacks(McpServerInfo mcpServerInfo) {
+        return Optional.ofNullable(getToolCallbacksAsync(mcpServerInfo).block()).orElseGet(List::of);
+    }
+
+    public Mono<List<ToolCallback>> getToolCallbacksAsync(McpServerInfo mcpServerInfo) {
+        McpClientOps mcpClientOps = connectingMcpClientOpsMap.get(mcpServerInfo);
+        if (Objects.isNull(mcpClientOps))
+            return Mono.just(List.of());
+        return this.toolCallbacksCache.get(mcpServerInfo, mcpClientOps);
+    }
+
+    public Mono<List<ToolCallback>> getToolCallbacksAsync(Collection<McpServerInfo> mcpServerInfos) {
+        return Flux.fromIterable(mcpServerInfos).filter(this::isHealthy)
+                .flatMapSequential(this::getToolCallbacksAsync)
+                .flatMapIterable(Function.identity()).collectList();
+    }
+
+    private void invalidateToolCallbacks(String serverName) {
+        logger.info("MCP tool list changed: serverName={}", serverName);
+        this.toolCallbacksCache.invalidate(serverName);
     }
 
     public void deleteConnectingMcpServer(McpServerInfo mcpServerInfo) {
         logger.info("Deleting MCP client connection: serverName={}", mcpServerInfo.serverName());
         stopMcpClient(mcpServerInfo);
         this.connectingMcpClientOpsMap.remove(mcpServerInfo);
+        this.toolCallbacksCache.remove(mcpServerInfo);
+    }
+
+    /**
+     * Whether the health monitor still gets answers from the server. Unhealthy servers are left out of chat tool
+     * selection until they reconnect.
+     */
+    public boolean isHealthy(McpServerInfo mcpServerInfo) {
+        boolean healthy = this.mcpClientHealthMonitor.isHealthy(mcpServerInfo);
+        if (!healthy)
+            logger.warn("Skipping unhealthy MCP server: serverName={}", mcpServerInfo.serverName());
+        return healthy;
+    }
+
+    public List<McpClientHealthStats> getMcpClientHealthStats() {
+        return this.mcpClientHealthMonitor.getStats();
+    }
+
+    public List<McpClientPoolStats> getMcpClientPoolStats() {
+        return this.connectingMcpClientOpsMap.values().stream().filter(McpClientOpsPool.class::isInstance)
+                .map(mcpClientOps -> ((McpClientOpsPool) mcpClientOps).getStats())
+                .sorted(Comparator.comparing(McpClientPoolStats::serverName)).toList();
     }
 
     public boolean isConnecting(McpServerInfo mcpServerInfo) {
@@ -161,6 +278,7 @@ public class McpClientService {
     @PreDestroy
     private void shutdownAllMcpClients() {
         logger.info("Shutting down all MCP clients. currentActiveClientCount={}", connectingMcpClientOpsMap.size());
+        this.mcpClientHealthMonitor.close();
         this.connectingMcpClientOpsMap.values().parallelStream().forEach(McpClientOps::close);
     }
 
@@ -19,22 +19,46 @@ import io.modelcontextprotocol.client.McpSyncClient;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
 import org.springframework.ai.mcp.SyncMcpToolCallbackProvider;
+import org.springframework.ai.mcp.ToolContextToMcpMetaConverter;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * The reactive variants of the SYNC client run its blocking calls on the bounded elastic scheduler, so callers
+ * are never blocked, but every call in flight still holds a thread.
+ */
 public class McpSyncClientOps implements McpClientOps {
 
     private final McpSyncClient mcpSyncClient;
+    private final ToolContextToMcpMetaConverter toolContextToMcpMetaConverter;
 
     public McpSyncClientOps(McpSyncClient mcpSyncClient) {
+        this(mcpSyncClient, ToolContextToMcpMetaConverter.defaultConverter());
+    }
+
+    public McpSyncClientOps(McpSyncClient mcpSyncClient, ToolContextToMcpMetaConverter toolContextToMcpMetaConverter) {
         this.mcpSyncClient = mcpSyncClient;
+        this.toolContextToMcpMetaConverter = toolContextToMcpMetaConverter;
+    }
+
+    @Override
+    public Mono<Void> initializeAsync() {
+        return Mono.fromRunnable(mcpSyncClient::initialize).subscribeOn(Schedulers.boundedElastic()).then();
     }
 
     @Override
     public Object ping() {return mcpSyncClient.ping();}
 
+    @Override
+    public Mono<Object> pingAsync() {
+        return Mono.fromCallable(mcpSyncClient::ping).subscribeOn(Schedulers.boundedElastic());
+    }
+
     @Override
     public void close() {mcpSyncClient.close();}
 
@@ -44,14 +68,32 @@ public class McpSyncClientOps implements McpClientOps {
     @Override
     public List<McpSchema.Tool> listTools() {return mcpSyncClient.listTools().tools();}
 
+    @Override
+    public Mono<List<McpSchema.Tool>> listToolsAsync() {
+        return Mono.fromCallable(this::listTools).subscribeOn(Schedulers.boundedElastic());
+    }
+
     @Override
     public McpSchema.CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta) {
         return mcpSyncClient.callTool(
                 McpSchema.CallToolRequest.builder().name(name).arguments(args).meta(meta).build());
     }
 
+    @Override
+    public Mono<McpSchema.CallToolResult> callToolAsync(String name, Map<String, Object> args,
+            Map<String, Object> meta) {
+        return Mono.fromCallable(() -> callTool(name, args, meta)).subscribeOn(Schedulers.boundedElastic());
+    }
+
     @Override
     public ToolCallbackProvider toolCallbackProvider() {
-        return new SyncMcpToolCallbackProvider(mcpSyncClient);
+        return SyncMcpToolCallbackProvider.builder().mcpClients(mcpSyncClient)
+                .toolContextToMcpMetaConverter(toolContextToMcpMetaConverter).build();
+    }
+
+    @Override
+    public Mono<List<ToolCallback>> toolCallbacksAsync() {
+        return Mono.fromCallable(() -> List.of(toolCallbackProvider().getToolCallbacks()))
+                .subscribeOn(Schedulers.boundedElastic());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
+import org.springframework.ai.tool.ToolCallback;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Tool callbacks per connected server, reused until the server sends {@code notifications/tools/list_changed}, its
+ * client is replaced or the TTL passes. Every server has its own generation, so a list change on one server only
+ * discards loads that are in progress for that server.
+ */
+public class McpToolCallbacksCache {
+
+    private record CacheEntry(McpClientOps mcpClientOps, List<ToolCallback> toolCallbacks, long expiresAtMillis) {}
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<McpServerInfo, CacheEntry> entries;
+    private final Map<McpServerInfo, AtomicLong> generations;
+
+    public McpToolCallbacksCache(long ttlMillis) {
+        this(ttlMillis, System::currentTimeMillis);
+    }
+
+    McpToolCallbacksCache(long ttlMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new ConcurrentHashMap<>();
+        this.generations = new ConcurrentHashMap<>();
+    }
+
+    public Mono<List<ToolCallback>> get(McpServerInfo mcpServerInfo, McpClientOps mcpClientOps) {
+        CacheEntry cacheEntry = this.entries.get(mcpServerInfo);
+        if (Objects.nonNull(cacheEntry) && cacheEntry.mcpClientOps() == mcpClientOps &&
+                cacheEntry.expiresAtMillis() > this.clock.getAsLong())
+            return Mono.just(cacheEntry.toolCallbacks());
+        AtomicLong generationCounter = this.generations.computeIfAbsent(mcpServerInfo, key -> new AtomicLong());
+        long generation = generationCounter.get();
+        return mcpClientOps.toolCallbacksAsync().doOnNext(toolCallbacks -> {
+            // a tools/list_changed or removal that happened while loading leaves the list uncached
+            if (this.generations.get(mcpServerInfo) == generationCounter && generationCounter.get() == generation)
+                this.entries.put(mcpServerInfo, new CacheEntry(mcpClientOps, toolCallbacks,
+                        this.clock.getAsLong() + this.ttlMillis));
+        });
+    }
+
+    public void invalidate(String serverName) {
+        this.generations.forEach((mcpServerInfo, generationCounter) -> {
+            if (mcpServerInfo.serverName().equals(serverName))
+                generationCounter.incrementAndGet();
+        });
+        this.entries.keySet().removeIf(mcpServerInfo -> mcpServerInfo.serverName().equals(serverName));
+    }
+
+    public void remove(McpServerInfo mcpServerInfo) {
+        this.generations.remove(mcpServerInfo);
+        this.entries.remove(mcpServerInfo);
+    }
+}
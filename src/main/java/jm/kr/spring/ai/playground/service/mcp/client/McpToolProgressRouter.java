@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import jm.kr.spring.ai.playground.service.mcp.McpToolCallingManager.McpToolProgress;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.ToolContextToMcpMetaConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static jm.kr.spring.ai.playground.service.mcp.McpToolCallingManager.MCP_PROCESS_MESSAGE_CONSUMER;
+
+/**
+ * Routes MCP progress notifications of tool calls made by the chat back to the MCP process message consumer of the
+ * chat that made the call. Every tool call with a consumer in its tool context gets its own progress token.
+ */
+@Component
+public class McpToolProgressRouter {
+
+    private static final String PROGRESS_TOKEN = "progressToken";
+
+    private final Map<String, Consumer<Object>> progressTokenConsumers;
+
+    public McpToolProgressRouter() {
+        this.progressTokenConsumers = new ConcurrentHashMap<>();
+    }
+
+    public ToolContextToMcpMetaConverter getToolContextToMcpMetaConverter() {
+        return this::toMcpMeta;
+    }
+
+    private Map<String, Object> toMcpMeta(ToolContext toolContext) {
+        if (Objects.isNull(toolContext) || Objects.isNull(toolContext.getContext()))
+            return Map.of();
+        Map<String, Object> context = new HashMap<>(toolContext.getContext());
+        Object mcpProcessMessageConsumer = context.remove(MCP_PROCESS_MESSAGE_CONSUMER);
+        Map<String, Object> meta =
+                new HashMap<>(ToolContextToMcpMetaConverter.defaultConverter().convert(new ToolContext(context)));
+        if (mcpProcessMessageConsumer instanceof Consumer<?> consumer) {
+            String progressToken = UUID.randomUUID().toString();
+            this.progressTokenConsumers.put(progressToken, (Consumer<Object>) consumer);
+            meta.put(PROGRESS_TOKEN, progressToken);
+        }
+        return meta;
+    }
+
+    public void onProgress(McpSchema.ProgressNotification progressNotification) {
+        Optional.ofNullable(progressNotification.progressToken()).map(Object::toString)
+                .map(this.progressTokenConsumers::get)
+                .ifPresent(consumer -> consumer.accept(new McpToolProgress("tool", progressNotification.progress(),
+                        progressNotification.total(), progressNotification.message())));
+    }
+
+    public void unregister(Consumer<Object> mcpProcessMessageConsumer) {
+        this.progressTokenConsumers.values().removeIf(consumer -> consumer == mcpProcessMessageConsumer);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of warm JS contexts created from a shared engine.
+ * <p>
+ * A context is reset before it goes back to the pool: every global binding is removed and the statement limit is
+ * reset. Changes to built-in objects (e.g. patching {@code Array.prototype}) cannot be undone and survive a reset,
+ * so contexts that fail with a cancel, exit, resource exhaustion or internal error are discarded instead.
+ */
+public class JsContextPool implements AutoCloseable {
+
+    public record JsContextPoolStats(int idle, int active, int maxSize, long created, long reused, long evicted,
+                                     long discarded) {}
+
+    private record IdleContext(Context context, long idleSince) {}
+
+    private static final Logger logger = LoggerFactory.getLogger(JsContextPool.class);
+
+    private final Supplier<Context> contextFactory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final LinkedBlockingDeque<IdleContext> idleContexts;
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictionScheduler;
+    private final AtomicLong created;
+    private final AtomicLong reused;
+    private final AtomicLong evicted;
+    private final AtomicLong discarded;
+    private volatile boolean closed;
+
+    public JsContextPool(Supplier<Context> contextFactory, int minSize, int maxSize, long idleTimeoutSeconds) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize)
+            throw new IllegalArgumentException(
+                    "Invalid JS context pool size: minSize=" + minSize + ", maxSize=" + maxSize);
+        this.contextFactory = contextFactory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        this.idleContexts = new LinkedBlockingDeque<>();
+        this.permits = new Semaphore(maxSize, true);
+        this.created = new AtomicLong();
+        this.reused = new AtomicLong();
+        this.evicted = new AtomicLong();
+        this.discarded = new AtomicLong();
+        for (int i = 0; i < minSize; i++)
+            this.idleContexts.offerLast(new IdleContext(newContext(), System.currentTimeMillis()));
+        this.evictionScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("js-context-pool-evictor").factory());
+        if (this.idleTimeoutMillis > 0) {
+            long period = Math.max(1000L, this.idleTimeoutMillis / 2);
+            this.evictionScheduler.scheduleWithFixedDelay(this::evictIdleContexts, period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+        logger.info("JS context pool initialized: minSize={}, maxSize={}, idleTimeoutSeconds={}", minSize, maxSize,
+                idleTimeoutSeconds);
+    }
+
+    public Context acquire(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        if (this.closed)
+            throw new IllegalStateException("JS context pool is closed");
+        if (!this.permits.tryAcquire(timeout, unit))
+            throw new TimeoutException("No JS context available within " + unit.toMillis(timeout) + " ms");
+        try {
+            IdleContext idleContext = this.idleContexts.pollFirst();
+            if (idleContext != null) {
+                this.reused.incrementAndGet();
+                return idleContext.context();
+            }
+            return newContext();
+        } catch (RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Context context, boolean reusable) {
+        try {
+            if (reusable && !this.closed && reset(context)) {
+                this.idleContexts.offerFirst(new IdleContext(context, System.currentTimeMillis()));
+                return;
+            }
+            this.discarded.incrementAndGet();
+            closeQuietly(context, true);
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    public JsContextPoolStats getStats() {
+        int idle = this.idleContexts.size();
+        return new JsContextPoolStats(idle, this.maxSize - this.permits.availablePermits(), this.maxSize,
+                this.created.get(), this.reused.get(), this.evicted.get(), this.discarded.get());
+    }
+
+    private Context newContext() {
+        Context context = this.contextFactory.get();
+        context.initialize("js");
+        this.created.incrementAndGet();
+        return context;
+    }
+
+    static boolean reset(Context context) {
+        try {
+            Value bindings = context.getBindings("js");
+            for (String key : List.copyOf(bindings.getMemberKeys()))
+                bindings.removeMember(key);
+            context.resetLimits();
+            return true;
+        } catch (Exception e) {
+            logger.debug("Failed to reset JS context, discarding it", e);
+            return false;
+        }
+    }
+
+    private void evictIdleContexts() {
+        long threshold = System.currentTimeMillis() - this.idleTimeoutMillis;
+        // the deque is ordered most recently used first, so the oldest contexts are at the tail
+        Iterator<IdleContext> iterator = this.idleContexts.descendingIterator();
+        while (iterator.hasNext() && this.idleContexts.size() > this.minSize) {
+            IdleContext idleContext = iterator.next();
+            if (idleContext.idleSince() > threshold)
+                break;
+            if (this.idleContexts.removeLastOccurrence(idleContext)) {
+                this.evicted.incrementAndGet();
+                closeQuietly(idleContext.context(), false);
+            }
+        }
+    }
+
+    private void closeQuietly(Context context, boolean cancelIfActive) {
+        try {
+            context.close(cancelIfActive);
+        } catch (Exception e) {
+            logger.debug("Failed to close JS context", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.evictionScheduler.shutdownNow();
+        IdleContext idleContext;
+        while ((idleContext = this.idleContexts.pollFirst()) != null)
+            closeQuietly(idleContext.context(), true);
+        logger.info("JS context pool closed: {}", getStats());
+    }
+}
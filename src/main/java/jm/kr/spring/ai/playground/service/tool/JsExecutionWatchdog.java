@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import org.graalvm.polyglot.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces execution deadlines for JS tools. When a deadline passes, the running context is closed with
+ * cancellation, which stops the guest code, and the worker thread is interrupted if it is still working on the
+ * execution. Workers call {@link JsExecution#releaseThread()} before they go back to their pool, so a late kill
+ * never interrupts an unrelated task.
+ */
+public class JsExecutionWatchdog implements AutoCloseable {
+
+    public record JsExecutionWatchdogStats(int running, long completed, long failed, long killed) {}
+
+    private static final Logger logger = LoggerFactory.getLogger(JsExecutionWatchdog.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Set<JsExecution> runningExecutions;
+    private final AtomicLong completed;
+    private final AtomicLong failed;
+    private final AtomicLong killed;
+
+    public JsExecutionWatchdog() {
+        // a platform thread, since busy guest code pins the carrier threads that virtual threads would need
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("js-execution-watchdog").daemon(true).factory());
+        this.runningExecutions = ConcurrentHashMap.newKeySet();
+        this.completed = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.killed = new AtomicLong();
+    }
+
+    public JsExecution register(Thread thread, long timeout, TimeUnit unit, Runnable onKill) {
+        JsExecution execution = new JsExecution(thread, onKill);
+        this.runningExecutions.add(execution);
+        execution.deadline = this.scheduler.schedule(execution::kill, timeout, unit);
+        return execution;
+    }
+
+    public JsExecutionWatchdogStats getStats() {
+        return new JsExecutionWatchdogStats(this.runningExecutions.size(), this.completed.get(), this.failed.get(),
+                this.killed.get());
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+        this.runningExecutions.forEach(JsExecution::kill);
+    }
+
+    public class JsExecution {
+
+        private enum State {RUNNING, FINISHED, KILLED}
+
+        private final Thread thread;
+        private final Runnable onKill;
+        private State state = State.RUNNING;
+        private boolean threadAttached = true;
+        private Context context;
+        private volatile ScheduledFuture<?> deadline;
+
+        private JsExecution(Thread thread, Runnable onKill) {
+            this.thread = thread;
+            this.onKill = onKill;
+        }
+
+        public synchronized boolean attach(Context context) {
+            if (this.state != State.RUNNING)
+                return false;
+            this.context = context;
+            return true;
+        }
+
+        public synchronized void detach() {
+            this.context = null;
+        }
+
+        /**
+         * Detaches the worker thread from this execution. Called by the worker under the same lock as
+         * {@link #kill()}, so once it returns the watchdog no longer interrupts that thread.
+         */
+        public synchronized void releaseThread() {
+            this.threadAttached = false;
+        }
+
+        public void finish(boolean isOk) {
+            synchronized (this) {
+                if (this.state != State.RUNNING)
+                    return;
+                this.state = State.FINISHED;
+            }
+            if (Objects.nonNull(this.deadline))
+                this.deadline.cancel(false);
+            runningExecutions.remove(this);
+            (isOk ? completed : failed).incrementAndGet();
+        }
+
+        public boolean isKilled() {
+            synchronized (this) {
+                return this.state == State.KILLED;
+            }
+        }
+
+        public void kill() {
+            Context runningContext;
+            synchronized (this) {
+                if (this.state != State.RUNNING)
+                    return;
+                this.state = State.KILLED;
+                runningContext = this.context;
+            }
+            if (Objects.nonNull(this.deadline))
+                this.deadline.cancel(false);
+            runningExecutions.remove(this);
+            killed.incrementAndGet();
+            logger.warn("Killing JS execution: thread={}, contextAttached={}", this.thread,
+                    Objects.nonNull(runningContext));
+            if (Objects.nonNull(runningContext)) {
+                try {
+                    runningContext.close(true);
+                } catch (Exception e) {
+                    logger.debug("Failed to cancel JS context", e);
+                }
+            }
+            synchronized (this) {
+                if (this.threadAttached)
+                    this.thread.interrupt();
+            }
+            // the script is cancelled first, so a failing callback cannot leave it running
+            try {
+                this.onKill.run();
+            } catch (Exception e) {
+                logger.warn("Failed to run the JS execution kill callback", e);
+            }
+        }
+    }
+}
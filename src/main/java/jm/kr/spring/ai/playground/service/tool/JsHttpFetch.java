@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
+import org.graalvm.polyglot.proxy.ProxyObject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code fetch}-style host binding for JS tools, backed by one shared keep-alive {@link HttpClient}.
+ * Requests are limited per host, and request counts, failures and latency are recorded per host.
+ */
+public class JsHttpFetch implements AutoCloseable {
+
+    public record JsHttpHostStats(String host, long requests, long failures, int inFlight,
+                                  double averageLatencyMillis) {}
+
+    private static final Source FETCH_FACTORY_SOURCE = Source.create("js", """
+            (function(hostFetch) {
+                return async function fetch(url, init) {
+                    const response = hostFetch(String(url), init);
+                    const body = response.body;
+                    return {
+                        url: response.url,
+                        status: response.status,
+                        ok: response.status >= 200 && response.status < 300,
+                        headers: response.headers,
+                        text: async () => body,
+                        json: async () => JSON.parse(body)
+                    };
+                };
+            })
+            """);
+
+    private static class HostMetrics {
+        private final Semaphore connections;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private HostMetrics(int maxConnections) {
+            this.connections = new Semaphore(maxConnections, true);
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxConnectionsPerHost;
+    private final Duration requestTimeout;
+    private final ExecutorService httpExecutor;
+    private final HttpClient httpClient;
+    private final Map<String, HostMetrics> hostMetrics;
+
+    public JsHttpFetch(boolean enabled, int maxConnectionsPerHost, long connectTimeoutMillis,
+            long requestTimeoutMillis) {
+        this.enabled = enabled;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(this.httpExecutor)
+                .build();
+        this.hostMetrics = new ConcurrentHashMap<>();
+    }
+
+    public void install(Context context, Value bindings) {
+        bindings.putMember("fetch",
+                context.eval(FETCH_FACTORY_SOURCE).execute((ProxyExecutable) args -> fetch(args[0].asString(),
+                        args.length > 1 ? args[1] : null)));
+    }
+
+    private ProxyObject fetch(String url, Value init) {
+        if (!this.enabled)
+            throw new IllegalStateException("fetch is not available: network IO is disabled by the JS sandbox");
+        HttpRequest httpRequest = buildRequest(URI.create(url), init);
+        HostMetrics metrics = this.hostMetrics.computeIfAbsent(
+                Objects.requireNonNullElse(httpRequest.uri().getHost(), "").toLowerCase(Locale.ROOT),
+                host -> new HostMetrics(this.maxConnectionsPerHost));
+        long startNanos = System.nanoTime();
+        metrics.requests.incrementAndGet();
+        try {
+            if (!metrics.connections.tryAcquire(this.requestTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                throw new IllegalStateException("fetch timed out waiting for a connection to " +
+                        httpRequest.uri().getHost());
+            metrics.inFlight.incrementAndGet();
+            try {
+                HttpResponse<String> response =
+                        this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+                return toResponseObject(response);
+            } finally {
+                metrics.inFlight.decrementAndGet();
+                metrics.connections.release();
+            }
+        } catch (InterruptedException e) {
+            metrics.failures.incrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("fetch interrupted: " + url, e);
+        } catch (Exception e) {
+            metrics.failures.incrementAndGet();
+            throw new IllegalStateException("fetch failed: " + url + ": " + e.getMessage(), e);
+        } finally {
+            metrics.totalLatencyNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+    }
+
+    private HttpRequest buildRequest(URI uri, Value init) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(this.requestTimeout);
+        String method = "GET";
+        HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.noBody();
+        if (Objects.nonNull(init) && init.hasMembers()) {
+            Value methodValue = init.getMember("method");
+            if (Objects.nonNull(methodValue) && !methodValue.isNull())
+                method = methodValue.asString().toUpperCase(Locale.ROOT);
+            Value headers = init.getMember("headers");
+            if (Objects.nonNull(headers) && headers.hasMembers())
+                for (String name : headers.getMemberKeys())
+                    builder.header(name, headers.getMember(name).toString());
+            Value body = init.getMember("body");
+            if (Objects.nonNull(body) && !body.isNull())
+                bodyPublisher = HttpRequest.BodyPublishers.ofString(body.isString() ? body.asString() : body.toString());
+        }
+        return builder.method(method, bodyPublisher).build();
+    }
+
+    private ProxyObject toResponseObject(HttpResponse<String> response) {
+        Map<String, Object> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> headers.put(name.toLowerCase(Locale.ROOT),
+                String.join(", ", values)));
+        Map<String, Object> responseObject = new LinkedHashMap<>();
+        responseObject.put("url", response.uri().toString());
+        responseObject.put("status", response.statusCode());
+        responseObject.put("headers", ProxyObject.fromMap(headers));
+        responseObject.put("body", response.body());
+        return ProxyObject.fromMap(responseObject);
+    }
+
+    public List<JsHttpHostStats> getStats() {
+        return this.hostMetrics.entrySet().stream().map(entry -> {
+            HostMetrics metrics = entry.getValue();
+            long requests = metrics.requests.get();
+            return new JsHttpHostStats(entry.getKey(), requests, metrics.failures.get(), metrics.inFlight.get(),
+                    requests == 0 ? 0 : metrics.totalLatencyNanos.get() / 1_000_000.0 / requests);
+        }).sorted(Comparator.comparing(JsHttpHostStats::host)).toList();
+    }
+
+    @Override
+    public void close() {
+        this.httpClient.shutdownNow();
+        this.httpExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import org.graalvm.polyglot.Source;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keeps one wrapped {@link Source} per distinct tool code, keyed by the SHA-256 fingerprint of the code.
+ * Reusing the same {@link Source} instance lets the shared engine reuse parsed and compiled code across calls.
+ */
+public class JsSourceCache {
+
+    public record JsSourceCacheStats(int size, long hits, long misses) {}
+
+    private final Function<String, Source> sourceBuilder;
+    private final Map<String, Source> fingerprintSources;
+    private final Map<String, String> toolIdFingerprints;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public JsSourceCache(Function<String, Source> sourceBuilder) {
+        this.sourceBuilder = sourceBuilder;
+        this.fingerprintSources = new ConcurrentHashMap<>();
+        this.toolIdFingerprints = new ConcurrentHashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    public static String fingerprint(String code) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized String put(String toolId, String code) {
+        String fingerprint = fingerprint(code);
+        this.fingerprintSources.computeIfAbsent(fingerprint, key -> this.sourceBuilder.apply(code));
+        String previousFingerprint = this.toolIdFingerprints.put(toolId, fingerprint);
+        if (Optional.ofNullable(previousFingerprint).filter(previous -> !previous.equals(fingerprint)).isPresent())
+            removeIfUnused(previousFingerprint);
+        return fingerprint;
+    }
+
+    public Optional<Source> get(String fingerprint) {
+        Optional<Source> sourceAsOpt = Optional.ofNullable(this.fingerprintSources.get(fingerprint));
+        (sourceAsOpt.isPresent() ? this.hits : this.misses).incrementAndGet();
+        return sourceAsOpt;
+    }
+
+    public synchronized void invalidate(String toolId) {
+        Optional.ofNullable(this.toolIdFingerprints.remove(toolId)).ifPresent(this::removeIfUnused);
+    }
+
+    private void removeIfUnused(String fingerprint) {
+        if (!this.toolIdFingerprints.containsValue(fingerprint))
+            this.fingerprintSources.remove(fingerprint);
+    }
+
+    public JsSourceCacheStats getStats() {
+        return new JsSourceCacheStats(this.fingerprintSources.size(), this.hits.get(), this.misses.get());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of the JS executor: a global concurrency cap, optional per-tool caps and a bounded
+ * wait queue. Callers that cannot be admitted within the queue timeout, or that find the queue full, are rejected
+ * with a {@link RejectedExecutionException}.
+ */
+public class JsToolAdmissionController {
+
+    public record JsToolAdmissionStats(int running, int queued, int maxConcurrency, int maxQueueSize, long admitted,
+                                       long rejected, long queueTimedOut, double averageWaitMillis,
+                                       long maxWaitMillis) {}
+
+    private final int maxConcurrency;
+    private final int maxQueueSize;
+    private final long queueTimeoutNanos;
+    private final Semaphore globalSemaphore;
+    private final Map<String, ToolSemaphore> toolLimiters;
+    private final AtomicInteger queued;
+    private final AtomicLong admitted;
+    private final AtomicLong rejected;
+    private final AtomicLong queueTimedOut;
+    private final AtomicLong totalWaitNanos;
+    private final AtomicLong maxWaitNanos;
+
+    public JsToolAdmissionController(int maxConcurrency, int maxQueueSize, long queueTimeoutMillis) {
+        if (maxConcurrency < 1 || maxQueueSize < 0)
+            throw new IllegalArgumentException(
+                    "Invalid JS tool admission: maxConcurrency=" + maxConcurrency + ", maxQueueSize=" + maxQueueSize);
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueSize = maxQueueSize;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.globalSemaphore = new Semaphore(maxConcurrency, true);
+        this.toolLimiters = new ConcurrentHashMap<>();
+        this.queued = new AtomicInteger();
+        this.admitted = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.queueTimedOut = new AtomicLong();
+        this.totalWaitNanos = new AtomicLong();
+        this.maxWaitNanos = new AtomicLong();
+    }
+
+    public Permit acquire(String toolKey, Integer toolMaxConcurrency) throws InterruptedException {
+        Semaphore toolSemaphore = resolveToolSemaphore(toolKey, toolMaxConcurrency);
+        long startNanos = System.nanoTime();
+        if (!tryAcquireNow(toolSemaphore))
+            awaitAdmission(toolKey, toolSemaphore, startNanos);
+        long waitNanos = System.nanoTime() - startNanos;
+        this.admitted.incrementAndGet();
+        this.totalWaitNanos.addAndGet(waitNanos);
+        this.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        return new Permit(toolSemaphore);
+    }
+
+    private Semaphore resolveToolSemaphore(String toolKey, Integer toolMaxConcurrency) {
+        if (Objects.isNull(toolKey))
+            return null;
+        if (Objects.isNull(toolMaxConcurrency) || toolMaxConcurrency < 1) {
+            this.toolLimiters.remove(toolKey);
+            return null;
+        }
+        return this.toolLimiters.compute(toolKey, (key, limiter) -> {
+            if (Objects.isNull(limiter))
+                return new ToolSemaphore(toolMaxConcurrency);
+            limiter.resize(toolMaxConcurrency);
+            return limiter;
+        });
+    }
+
+    private boolean tryAcquireNow(Semaphore toolSemaphore) {
+        if (Objects.nonNull(toolSemaphore) && !toolSemaphore.tryAcquire())
+            return false;
+        if (this.globalSemaphore.tryAcquire())
+            return true;
+        if (Objects.nonNull(toolSemaphore))
+            toolSemaphore.release();
+        return false;
+    }
+
+    private void awaitAdmission(String toolKey, Semaphore toolSemaphore, long startNanos) throws InterruptedException {
+        try {
+            if (this.queued.incrementAndGet() > this.maxQueueSize) {
+                this.rejected.incrementAndGet();
+                throw new RejectedExecutionException(
+                        "JS tool execution rejected: " + this.maxConcurrency + " executions running and " +
+                                this.maxQueueSize + " waiting");
+            }
+            long deadlineNanos = startNanos + this.queueTimeoutNanos;
+            if (Objects.nonNull(toolSemaphore) &&
+                    !toolSemaphore.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS))
+                throw queueTimedOut("tool '" + toolKey + "' is at its concurrency limit");
+            if (!this.globalSemaphore.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                if (Objects.nonNull(toolSemaphore))
+                    toolSemaphore.release();
+                throw queueTimedOut("global concurrency limit of " + this.maxConcurrency + " reached");
+            }
+        } catch (InterruptedException e) {
+            this.rejected.incrementAndGet();
+            throw e;
+        } finally {
+            this.queued.decrementAndGet();
+        }
+    }
+
+    private RejectedExecutionException queueTimedOut(String reason) {
+        this.rejected.incrementAndGet();
+        this.queueTimedOut.incrementAndGet();
+        return new RejectedExecutionException(
+                "JS tool execution rejected after waiting " + TimeUnit.NANOSECONDS.toMillis(this.queueTimeoutNanos) +
+                        " ms: " + reason);
+    }
+
+    public JsToolAdmissionStats getStats() {
+        long admittedCount = this.admitted.get();
+        return new JsToolAdmissionStats(this.maxConcurrency - this.globalSemaphore.availablePermits(),
+                this.queued.get(), this.maxConcurrency, this.maxQueueSize, admittedCount, this.rejected.get(),
+                this.queueTimedOut.get(),
+                admittedCount == 0 ? 0 : this.totalWaitNanos.get() / 1_000_000.0 / admittedCount,
+                TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos.get()));
+    }
+
+    /**
+     * Per-tool semaphore that is resized in place when the tool's limit changes, so permits held under the old
+     * limit keep counting against the new one until they are released.
+     */
+    private static class ToolSemaphore extends Semaphore {
+
+        private int maxConcurrency;
+
+        private ToolSemaphore(int maxConcurrency) {
+            super(maxConcurrency, true);
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        private void resize(int newMaxConcurrency) {
+            int delta = newMaxConcurrency - this.maxConcurrency;
+            if (delta > 0)
+                release(delta);
+            else if (delta < 0)
+                reducePermits(-delta);
+            this.maxConcurrency = newMaxConcurrency;
+        }
+    }
+
+    public class Permit implements AutoCloseable {
+
+        private final Semaphore toolSemaphore;
+        private final AtomicBoolean released;
+
+        private Permit(Semaphore toolSemaphore) {
+            this.toolSemaphore = toolSemaphore;
+            this.released = new AtomicBoolean();
+        }
+
+        @Override
+        public void close() {
+            if (!this.released.compareAndSet(false, true))
+                return;
+            globalSemaphore.release();
+            if (Objects.nonNull(this.toolSemaphore))
+                this.toolSemaphore.release();
+        }
+    }
+}
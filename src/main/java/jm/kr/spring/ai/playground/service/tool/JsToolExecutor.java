@@ -16,10 +16,25 @@
 package jm.kr.spring.ai.playground.service.tool;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.util.RawValue;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Admission;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ContextPool;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.HttpFetch;
 import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.JsSandbox;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ResultLimits;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ToolStudio;
+import jm.kr.spring.ai.playground.service.tool.JsContextPool.JsContextPoolStats;
+import jm.kr.spring.ai.playground.service.tool.JsExecutionWatchdog.JsExecution;
+import jm.kr.spring.ai.playground.service.tool.JsExecutionWatchdog.JsExecutionWatchdogStats;
+import jm.kr.spring.ai.playground.service.tool.JsHttpFetch.JsHttpHostStats;
+import jm.kr.spring.ai.playground.service.tool.JsSourceCache.JsSourceCacheStats;
+import jm.kr.spring.ai.playground.service.tool.JsToolAdmissionController.JsToolAdmissionStats;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.ResourceLimits;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.io.IOAccess;
 import org.graalvm.polyglot.proxy.ProxyExecutable;
@@ -29,6 +44,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -38,31 +54,106 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static jm.kr.spring.ai.playground.service.PersistenceServiceInterface.OBJECT_MAPPER;
+
 @ConfigurationProperties(prefix = "tool-studio.sandbox")
-public class JsToolExecutor {
+public class JsToolExecutor implements AutoCloseable {
 
     public record JsExecutionResult(boolean isOk, Object result, String error, @JsonIgnore String debugInfo) {}
 
-    public record JsExecutionParams(Map<String, Object> params, String code) {}
+    public enum ExecutionMode {
+        DEBUG, LEAN
+    }
+
+    public record JsExecutionParams(Map<String, Object> params, String code, String codeFingerprint,
+                                    ExecutionMode executionMode, BiConsumer<Double, String> progressConsumer) {
+        public JsExecutionParams(Map<String, Object> params, String code) {
+            this(params, code, null);
+        }
+
+        public JsExecutionParams(Map<String, Object> params, String code, String codeFingerprint) {
+            this(params, code, codeFingerprint, ExecutionMode.DEBUG);
+        }
+
+        public JsExecutionParams(Map<String, Object> params, String code, String codeFingerprint,
+                ExecutionMode executionMode) {
+            this(params, code, codeFingerprint, executionMode, null);
+        }
+    }
+
+    public record JsBatchExecutionParams(List<Map<String, Object>> paramsList, String code, String codeFingerprint,
+                                         ExecutionMode executionMode, Integer parallelism) {
+        public JsBatchExecutionParams(List<Map<String, Object>> paramsList, String code) {
+            this(paramsList, code, null, ExecutionMode.DEBUG, null);
+        }
+    }
+
+    private record ContextExecution(JsExecutionResult result, boolean reusable) {}
+
+    private static final String JS_CODE_TEMPLATE = """
+            (async function() {
+                %s
+            })();
+            """;
 
+    private static final int DEFAULT_BATCH_PARALLELISM =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final Set<String> HOST_BINDINGS = Set.of("console", "fetch", "progress");
     private static final Pattern ENV_VAR_PATTERN = Pattern.compile("^\\$\\{([A-Z_]+[A-Z0-9_]*)}$");
     private static final Pattern BLACKLIST_PATTERN =
             Pattern.compile("^(java\\.lang\\.(System|Runtime|ProcessBuilder|Process)|java\\.lang\\.invoke\\..*)$");
 
+    private final Engine engine;
     private final Context.Builder contextBuilder;
     private final long timeoutSeconds;
     private final ExecutorService executor;
+    private final ExecutorService admissionExecutor;
+    private final JsContextPool contextPool;
+    private final JsSourceCache sourceCache;
+    private final JsExecutionWatchdog watchdog;
+    private final JsToolAdmissionController admissionController;
+    private final JsValueJsonWriter jsonWriter;
+    private final JsHttpFetch httpFetch;
 
     public JsToolExecutor(Long timeoutSeconds, JsSandbox jsSandbox) {
+        this(timeoutSeconds, jsSandbox, null);
+    }
+
+    public JsToolExecutor(Long timeoutSeconds, JsSandbox jsSandbox, ContextPool contextPool) {
+        this(timeoutSeconds, jsSandbox, contextPool, null);
+    }
+
+    public JsToolExecutor(ToolStudio toolStudio) {
+        this(toolStudio.timeoutSeconds(), toolStudio.jsSandbox(), toolStudio.contextPool(), toolStudio.admission(),
+                toolStudio.resultLimits(), toolStudio.httpFetch());
+    }
+
+    public JsToolExecutor(Long timeoutSeconds, JsSandbox jsSandbox, ContextPool contextPool, Admission admission) {
+        this(timeoutSeconds, jsSandbox, contextPool, admission, null);
+    }
+
+    public JsToolExecutor(Long timeoutSeconds, JsSandbox jsSandbox, ContextPool contextPool, Admission admission,
+            ResultLimits resultLimits) {
+        this(timeoutSeconds, jsSandbox, contextPool, admission, resultLimits, null);
+    }
+
+    public JsToolExecutor(Long timeoutSeconds, JsSandbox jsSandbox, ContextPool contextPool, Admission admission,
+            ResultLimits resultLimits, HttpFetch httpFetch) {
+        this.engine = Engine.newBuilder("js").build();
         this.contextBuilder = Context.newBuilder("js")
+                .engine(this.engine)
                 .option("js.ecmascript-version", "2023")
                 .allowAllAccess(false);
         if (Objects.nonNull(jsSandbox)) {
@@ -92,58 +183,365 @@ public class JsToolExecutor {
                             ResourceLimits.newBuilder().statementLimit(jsSandbox.maxStatements(), null).build());
         }
         this.timeoutSeconds = Optional.ofNullable(timeoutSeconds).orElse(30L);
-        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        // platform threads, since CPU-bound guest code pins virtual thread carriers and starves queued executions
+        this.executor = Executors.newCachedThreadPool(
+                Thread.ofPlatform().name("js-tool-executor-", 0).daemon(true).factory());
+        this.admissionExecutor =
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("js-tool-admission-", 0).factory());
+        this.contextPool = Objects.nonNull(contextPool) && contextPool.enabled() ?
+                new JsContextPool(this.contextBuilder::build, Optional.ofNullable(contextPool.minSize()).orElse(1),
+                        Optional.ofNullable(contextPool.maxSize()).orElse(8),
+                        Optional.ofNullable(contextPool.idleTimeoutSeconds()).orElse(300L)) : null;
+        this.sourceCache = new JsSourceCache(JsToolExecutor::buildSource);
+        this.watchdog = new JsExecutionWatchdog();
+        Optional<Admission> admissionAsOpt = Optional.ofNullable(admission);
+        this.admissionController = new JsToolAdmissionController(
+                admissionAsOpt.map(Admission::maxConcurrency).orElse(32),
+                admissionAsOpt.map(Admission::maxQueueSize).orElse(256),
+                admissionAsOpt.map(Admission::queueTimeoutMillis).orElse(10_000L));
+        Optional<ResultLimits> resultLimitsAsOpt = Optional.ofNullable(resultLimits);
+        this.jsonWriter = new JsValueJsonWriter(OBJECT_MAPPER,
+                resultLimitsAsOpt.map(ResultLimits::maxDepth).orElse(64),
+                resultLimitsAsOpt.map(ResultLimits::maxChars).orElse(8 * 1024 * 1024));
+        Optional<HttpFetch> httpFetchAsOpt = Optional.ofNullable(httpFetch);
+        this.httpFetch = new JsHttpFetch(Objects.nonNull(jsSandbox) && jsSandbox.allowNetworkIo(),
+                httpFetchAsOpt.map(HttpFetch::maxConnectionsPerHost).orElse(8),
+                httpFetchAsOpt.map(HttpFetch::connectTimeoutMillis).orElse(10_000L),
+                httpFetchAsOpt.map(HttpFetch::requestTimeoutMillis).orElse(30_000L));
+    }
+
+    private static Source buildSource(String code) {
+        return Source.create("js", JS_CODE_TEMPLATE.formatted(code));
+    }
+
+    public String cacheSource(String toolId, String code) {
+        return this.sourceCache.put(toolId, code);
+    }
+
+    public void invalidateSource(String toolId) {
+        this.sourceCache.invalidate(toolId);
+    }
+
+    public JsSourceCacheStats getSourceCacheStats() {
+        return this.sourceCache.getStats();
+    }
+
+    private Source resolveSource(String codeFingerprint, String code) {
+        return Optional.ofNullable(codeFingerprint).flatMap(this.sourceCache::get).orElseGet(() -> buildSource(code));
     }
 
     public JsExecutionResult execute(JsExecutionParams jsExecutionParams) {
-        String jsCode = """
-                (async function() {
-                    %s
-                })();
-                """.formatted(jsExecutionParams.code());
-
-        List<String> logList = new ArrayList<>();
-        Future<JsExecutionResult> future = executor.submit(() -> {
-            try (Context context = contextBuilder.build()) {
-                Value bindings = context.getBindings("js");
-
-                Map<String, String> envBackedVariables = new HashMap<>();
-                if (jsExecutionParams.params() != null) {
-                    jsExecutionParams.params().forEach((name, rawValue) -> bindings.putMember(name,
-                            resolveParamValue(rawValue, name, envBackedVariables)));
+        return execute(null, null, jsExecutionParams);
+    }
+
+    public JsExecutionResult execute(String toolKey, Integer toolMaxConcurrency,
+            JsExecutionParams jsExecutionParams) {
+        CompletableFuture<JsExecutionResult> resultFuture =
+                executeAsync(toolKey, toolMaxConcurrency, jsExecutionParams);
+        try {
+            return resultFuture.get();
+        } catch (InterruptedException e) {
+            resultFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            return new JsExecutionResult(false, "", "Execution interrupted", "");
+        } catch (ExecutionException e) {
+            return new JsExecutionResult(false, "", e.getCause().getMessage(), "");
+        }
+    }
+
+    public CompletableFuture<JsExecutionResult> executeAsync(JsExecutionParams jsExecutionParams) {
+        return executeAsync(null, null, jsExecutionParams);
+    }
+
+    public CompletableFuture<JsExecutionResult> executeAsync(String toolKey, Integer toolMaxConcurrency,
+            JsExecutionParams jsExecutionParams) {
+        // synchronized, the watchdog builds the timed out result while the script may still be logging
+        List<String> logList = jsExecutionParams.executionMode() != ExecutionMode.LEAN ?
+                Collections.synchronizedList(new ArrayList<>()) : null;
+        CompletableFuture<JsExecutionResult> resultFuture = new CompletableFuture<>();
+        submitAdmitted(toolKey, toolMaxConcurrency, () -> {
+            if (resultFuture.isDone())
+                return;
+            JsExecution execution = this.watchdog.register(Thread.currentThread(), this.timeoutSeconds,
+                    TimeUnit.SECONDS, () -> resultFuture.complete(buildTimedOutResult(logList)));
+            try {
+                resultFuture.whenComplete((jsExecutionResult, throwable) -> {
+                    if (resultFuture.isCancelled())
+                        execution.kill();
+                });
+                resultFuture.complete(executeAdmitted(execution, jsExecutionParams, logList));
+            } finally {
+                execution.releaseThread();
+            }
+        }, error -> resultFuture.complete(new JsExecutionResult(false, "", error, "")));
+        return resultFuture;
+    }
+
+    /**
+     * Waits for admission on a virtual thread and only then hands the task to the platform worker pool, so queued
+     * executions do not each hold a parked platform thread. The worker's interrupt flag is cleared when the task
+     * returns it to the pool.
+     */
+    private void submitAdmitted(String toolKey, Integer toolMaxConcurrency, Runnable task,
+            Consumer<String> onRejected) {
+        try {
+            this.admissionExecutor.execute(() -> {
+                JsToolAdmissionController.Permit permit;
+                try {
+                    permit = this.admissionController.acquire(toolKey, toolMaxConcurrency);
+                } catch (RejectedExecutionException e) {
+                    onRejected.accept(e.getMessage());
+                    return;
+                } catch (InterruptedException e) {
+                    onRejected.accept("Execution interrupted");
+                    return;
                 }
+                try {
+                    this.executor.execute(() -> {
+                        try (permit) {
+                            task.run();
+                        } finally {
+                            Thread.interrupted();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permit.close();
+                    onRejected.accept("JS tool executor is closed");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            onRejected.accept("JS tool executor is closed");
+        }
+    }
 
-                Map<String, String> initialState = snapshotVariables(bindings);
+    private JsExecutionResult executeAdmitted(JsExecution execution, JsExecutionParams jsExecutionParams,
+            List<String> logList) {
+        Source jsSource = resolveSource(jsExecutionParams.codeFingerprint(), jsExecutionParams.code());
+        Context context;
+        try {
+            context = acquireContext();
+        } catch (Exception e) {
+            execution.finish(false);
+            return new JsExecutionResult(false, "", e.getMessage(), buildDebugInfo(logList));
+        }
+        ContextExecution contextExecution =
+                executeInContext(execution, context, jsSource, jsExecutionParams.params(),
+                        jsExecutionParams.progressConsumer(), logList);
+        releaseContext(context, contextExecution.reusable());
+        execution.finish(contextExecution.result().isOk());
+        return contextExecution.result();
+    }
 
+    private ContextExecution executeInContext(JsExecution execution, Context context, Source jsSource,
+            Map<String, Object> params, BiConsumer<Double, String> progressConsumer, List<String> logList) {
+        boolean isDebug = Objects.nonNull(logList);
+        boolean reusable = true;
+        JsExecutionResult jsExecutionResult;
+        try {
+            if (!execution.attach(context))
+                return new ContextExecution(buildTimedOutResult(logList), false);
+            Value bindings = context.getBindings("js");
+
+            Map<String, String> envBackedVariables = new HashMap<>();
+            if (params != null) {
+                params.forEach((name, rawValue) -> bindings.putMember(name,
+                        resolveParamValue(rawValue, name, envBackedVariables)));
+            }
+
+            Map<String, String> initialState = isDebug ? snapshotVariables(bindings) : null;
+
+            if (isDebug)
                 logList.add("=== Execution Log ===");
-                installConsoleLog(bindings, logList);
+            installConsoleLog(bindings, logList);
+            installProgress(bindings, progressConsumer, logList);
+            this.httpFetch.install(context, bindings);
 
-                Value jsResultValue = awaitPromise(context.eval("js", jsCode));
-                Object jsResult = jsResultValue.isNull() ? "undefined" :
-                        deepCopyPolyglot(jsResultValue.as(Object.class));
+            Value jsResultValue = awaitPromise(context.eval(jsSource));
+            Object jsResult = jsResultValue.isNull() ? "undefined" : isDebug ?
+                    deepCopyPolyglot(jsResultValue.as(Object.class)) :
+                    new RawValue(this.jsonWriter.write(jsResultValue));
 
+            if (isDebug) {
                 Map<String, String> finalState = snapshotVariables(bindings);
 
                 logList.add("\n=== Final State ===");
                 mergeStateLogs(logList, initialState, finalState, envBackedVariables);
-
-                return new JsExecutionResult(true, jsResult, null, buildDebugInfo(logList));
-            } catch (Exception e) {
-                return new JsExecutionResult(false, "", e.getMessage(), buildDebugInfo(logList));
             }
+
+            jsExecutionResult = new JsExecutionResult(true, jsResult, null, buildDebugInfo(logList));
+        } catch (PolyglotException e) {
+            reusable = !(e.isCancelled() || e.isExit() || e.isResourceExhausted() || e.isInternalError());
+            jsExecutionResult = new JsExecutionResult(false, "", e.getMessage(), buildDebugInfo(logList));
+        } catch (Exception e) {
+            jsExecutionResult = new JsExecutionResult(false, "", e.getMessage(), buildDebugInfo(logList));
+        } finally {
+            execution.detach();
+        }
+        return new ContextExecution(jsExecutionResult, reusable && !execution.isKilled());
+    }
+
+    public List<JsExecutionResult> executeBatch(JsBatchExecutionParams jsBatchExecutionParams) {
+        return executeBatch(null, null, jsBatchExecutionParams);
+    }
+
+    public List<JsExecutionResult> executeBatch(String toolKey, Integer toolMaxConcurrency,
+            JsBatchExecutionParams jsBatchExecutionParams) {
+        CompletableFuture<List<JsExecutionResult>> resultsFuture =
+                executeBatchAsync(toolKey, toolMaxConcurrency, jsBatchExecutionParams);
+        int size = jsBatchExecutionParams.paramsList().size();
+        try {
+            return resultsFuture.get();
+        } catch (InterruptedException e) {
+            resultsFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            return Collections.nCopies(size, new JsExecutionResult(false, "", "Execution interrupted", ""));
+        } catch (ExecutionException e) {
+            return Collections.nCopies(size, new JsExecutionResult(false, "", e.getCause().getMessage(), ""));
+        }
+    }
+
+    /**
+     * Runs one tool over a list of parameter maps. The list is split into a few contiguous slices, and each slice
+     * runs on one worker with one admission permit and one context that is reset between elements. Every element
+     * still gets its own deadline, and the results keep the order of the parameter maps.
+     */
+    public CompletableFuture<List<JsExecutionResult>> executeBatchAsync(String toolKey, Integer toolMaxConcurrency,
+            JsBatchExecutionParams jsBatchExecutionParams) {
+        int size = jsBatchExecutionParams.paramsList().size();
+        if (size == 0)
+            return CompletableFuture.completedFuture(List.of());
+        Source jsSource = resolveSource(jsBatchExecutionParams.codeFingerprint(), jsBatchExecutionParams.code());
+        JsExecutionResult[] results = new JsExecutionResult[size];
+        Set<JsExecution> runningExecutions = ConcurrentHashMap.newKeySet();
+        CompletableFuture<List<JsExecutionResult>> resultsFuture = new CompletableFuture<>();
+        resultsFuture.whenComplete((jsExecutionResults, throwable) -> {
+            if (resultsFuture.isCancelled())
+                runningExecutions.forEach(JsExecution::kill);
         });
+        int sliceSize = Math.ceilDiv(size,
+                resolveBatchParallelism(toolMaxConcurrency, jsBatchExecutionParams.parallelism(), size));
+        List<CompletableFuture<Void>> sliceFutures = new ArrayList<>();
+        for (int from = 0; from < size; from += sliceSize) {
+            int sliceFrom = from;
+            int sliceTo = Math.min(from + sliceSize, size);
+            CompletableFuture<Void> sliceFuture = new CompletableFuture<>();
+            submitAdmitted(toolKey, toolMaxConcurrency, () -> {
+                try {
+                    executeBatchSlice(jsSource, jsBatchExecutionParams, sliceFrom, sliceTo, results,
+                            runningExecutions, resultsFuture);
+                } finally {
+                    sliceFuture.complete(null);
+                }
+            }, error -> {
+                fillMissingResults(results, sliceFrom, sliceTo, error);
+                sliceFuture.complete(null);
+            });
+            sliceFutures.add(sliceFuture);
+        }
+        CompletableFuture.allOf(sliceFutures.toArray(CompletableFuture[]::new))
+                .thenRun(() -> resultsFuture.complete(Arrays.asList(results)));
+        return resultsFuture;
+    }
+
+    private int resolveBatchParallelism(Integer toolMaxConcurrency, Integer parallelism, int size) {
+        int resolved = Optional.ofNullable(parallelism).filter(value -> value > 0).orElse(DEFAULT_BATCH_PARALLELISM);
+        if (Objects.nonNull(toolMaxConcurrency) && toolMaxConcurrency > 0)
+            resolved = Math.min(resolved, toolMaxConcurrency);
+        if (Objects.nonNull(this.contextPool))
+            resolved = Math.min(resolved, this.contextPool.getStats().maxSize());
+        return Math.min(resolved, size);
+    }
 
+    private void executeBatchSlice(Source jsSource, JsBatchExecutionParams jsBatchExecutionParams, int from, int to,
+            JsExecutionResult[] results, Set<JsExecution> runningExecutions, CompletableFuture<?> resultsFuture) {
+        Context context = null;
         try {
-            return future.get(timeoutSeconds, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            future.cancel(true);
-            return new JsExecutionResult(false, "", "Execution timed out after " + timeoutSeconds + " seconds",
-                    buildDebugInfo(logList));
-        } catch (Exception e) {
-            return new JsExecutionResult(false, "", e.getMessage(), buildDebugInfo(logList));
+            for (int i = from; i < to && !resultsFuture.isDone(); i++) {
+                List<String> logList =
+                        jsBatchExecutionParams.executionMode() != ExecutionMode.LEAN ? new ArrayList<>() : null;
+                JsExecution execution = this.watchdog.register(Thread.currentThread(), this.timeoutSeconds,
+                        TimeUnit.SECONDS, () -> {});
+                runningExecutions.add(execution);
+                try {
+                    if (Objects.isNull(context))
+                        context = acquireContext();
+                    ContextExecution contextExecution = executeInContext(execution, context, jsSource,
+                            jsBatchExecutionParams.paramsList().get(i), null, logList);
+                    results[i] = contextExecution.result();
+                    if (!contextExecution.reusable() || !JsContextPool.reset(context)) {
+                        releaseContext(context, false);
+                        context = null;
+                    }
+                } catch (Exception e) {
+                    results[i] = new JsExecutionResult(false, "", e.getMessage(), buildDebugInfo(logList));
+                } finally {
+                    runningExecutions.remove(execution);
+                    execution.releaseThread();
+                }
+                if (execution.isKilled()) {
+                    results[i] = buildTimedOutResult(logList);
+                    // clear the interrupt of the kill so the next element can still acquire a context
+                    Thread.interrupted();
+                } else {
+                    execution.finish(results[i].isOk());
+                }
+            }
+        } finally {
+            if (Objects.nonNull(context))
+                releaseContext(context, true);
         }
     }
 
+    private void fillMissingResults(JsExecutionResult[] results, int from, int to, String error) {
+        for (int i = from; i < to; i++)
+            if (Objects.isNull(results[i]))
+                results[i] = new JsExecutionResult(false, "", error, "");
+    }
+
+    private JsExecutionResult buildTimedOutResult(List<String> logList) {
+        return new JsExecutionResult(false, "", "Execution timed out after " + this.timeoutSeconds + " seconds",
+                buildDebugInfo(logList));
+    }
+
+    private Context acquireContext() throws InterruptedException, TimeoutException {
+        return Objects.isNull(this.contextPool) ? this.contextBuilder.build() :
+                this.contextPool.acquire(this.timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    private void releaseContext(Context context, boolean reusable) {
+        if (Objects.isNull(this.contextPool))
+            context.close(!reusable);
+        else
+            this.contextPool.release(context, reusable);
+    }
+
+    public JsToolAdmissionStats getAdmissionStats() {
+        return this.admissionController.getStats();
+    }
+
+    public JsExecutionWatchdogStats getExecutionStats() {
+        return this.watchdog.getStats();
+    }
+
+    public List<JsHttpHostStats> getHttpFetchStats() {
+        return this.httpFetch.getStats();
+    }
+
+    public Optional<JsContextPoolStats> getContextPoolStats() {
+        return Optional.ofNullable(this.contextPool).map(JsContextPool::getStats);
+    }
+
+    @Override
+    public void close() {
+        this.watchdog.close();
+        this.admissionExecutor.shutdownNow();
+        this.executor.shutdownNow();
+        if (Objects.nonNull(this.contextPool))
+            this.contextPool.close();
+        this.httpFetch.close();
+        this.engine.close(true);
+    }
+
     private Object resolveParamValue(Object rawValue, String paramName,
             Map<String, String> envBackedVariables) {
         if (!(rawValue instanceof String str)) {
@@ -202,7 +600,11 @@ public class JsToolExecutor {
     }
 
     private String buildDebugInfo(List<String> logList) {
-        return String.join("\n", logList);
+        if (Objects.isNull(logList))
+            return null;
+        synchronized (logList) {
+            return String.join("\n", logList);
+        }
     }
 
     private Value awaitPromise(Value promise) throws Exception {
@@ -217,7 +619,7 @@ public class JsToolExecutor {
     private void installConsoleLog(Value bindings, List<String> logList) {
         bindings.putMember("console", ProxyObject.fromMap(
                 Map.of("log", (ProxyExecutable) args -> {
-                    if (logList.size() > 1000)
+                    if (Objects.isNull(logList) || logList.size() > 1000)
                         return null;
                     String msg = Arrays.stream(args).map(v -> v == null ? "null" : v.toString())
                             .reduce((a, b) -> a + " " + b).orElse("");
@@ -227,8 +629,36 @@ public class JsToolExecutor {
         ));
     }
 
+    /**
+     * {@code progress(pct, msg)} reports the progress of a long-running tool in percent. Values that do not increase
+     * are dropped, as MCP progress notifications must increase monotonically.
+     */
+    private void installProgress(Value bindings, BiConsumer<Double, String> progressConsumer, List<String> logList) {
+        double[] lastProgress = {-1};
+        bindings.putMember("progress", (ProxyExecutable) args -> {
+            if (args.length < 1 || !args[0].isNumber())
+                return null;
+            double progress = Math.min(100, Math.max(0, args[0].asDouble()));
+            if (progress <= lastProgress[0])
+                return null;
+            lastProgress[0] = progress;
+            String message = args.length > 1 && !args[1].isNull() ? args[1].toString() : null;
+            if (Objects.nonNull(logList) && logList.size() <= 1000)
+                logList.add("[PROGRESS] " + progress + "%" + (Objects.nonNull(message) ? " " + message : ""));
+            if (Objects.nonNull(progressConsumer)) {
+                try {
+                    progressConsumer.accept(progress, message);
+                } catch (RuntimeException e) {
+                    if (Objects.nonNull(logList))
+                        logList.add("[PROGRESS] failed to report progress: " + e.getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
     private Map<String, String> snapshotVariables(Value bindings) {
-        return bindings.getMemberKeys().stream().filter(key -> !key.equals("console")).collect(LinkedHashMap::new,
+        return bindings.getMemberKeys().stream().filter(key -> !HOST_BINDINGS.contains(key)).collect(LinkedHashMap::new,
                 (m, key) -> {
                     Value v = bindings.getMember(key);
                     String s = (v == null) ? "null" : v.toString();
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.graalvm.polyglot.Value;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Writes a polyglot {@link Value} straight to JSON in one pass, without copying it into Java collections first.
+ * Follows {@code JSON.stringify} for functions (skipped in objects, {@code null} in arrays) and non-finite numbers.
+ */
+public class JsValueJsonWriter {
+
+    private final ObjectMapper objectMapper;
+    private final int maxDepth;
+    private final int maxChars;
+
+    public JsValueJsonWriter(ObjectMapper objectMapper, int maxDepth, int maxChars) {
+        this.objectMapper = objectMapper;
+        this.maxDepth = maxDepth;
+        this.maxChars = maxChars;
+    }
+
+    public String write(Value value) throws IOException {
+        BoundedStringWriter writer = new BoundedStringWriter(this.maxChars);
+        try (JsonGenerator generator = this.objectMapper.createGenerator(writer)) {
+            write(generator, value, 0);
+        }
+        return writer.toString();
+    }
+
+    private void write(JsonGenerator generator, Value value, int depth) throws IOException {
+        if (depth > this.maxDepth)
+            throw new IllegalStateException("JS result exceeds the maximum depth of " + this.maxDepth);
+        if (value.isNull() || value.canExecute()) {
+            generator.writeNull();
+        } else if (value.isBoolean()) {
+            generator.writeBoolean(value.asBoolean());
+        } else if (value.isNumber()) {
+            writeNumber(generator, value);
+        } else if (value.isString()) {
+            generator.writeString(value.asString());
+        } else if (value.isInstant()) {
+            generator.writeString(value.asInstant().toString());
+        } else if (value.isHostObject()) {
+            generator.writeObject(value.asHostObject());
+        } else if (value.hasArrayElements()) {
+            generator.writeStartArray();
+            for (long i = 0, size = value.getArraySize(); i < size; i++)
+                write(generator, value.getArrayElement(i), depth + 1);
+            generator.writeEndArray();
+        } else if (value.hasMembers()) {
+            generator.writeStartObject();
+            for (String key : value.getMemberKeys()) {
+                Value member = value.getMember(key);
+                if (member.canExecute())
+                    continue;
+                generator.writeFieldName(key);
+                write(generator, member, depth + 1);
+            }
+            generator.writeEndObject();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private void writeNumber(JsonGenerator generator, Value value) throws IOException {
+        if (value.fitsInInt())
+            generator.writeNumber(value.asInt());
+        else if (value.fitsInLong())
+            generator.writeNumber(value.asLong());
+        else if (value.fitsInDouble() && Double.isFinite(value.asDouble()))
+            generator.writeNumber(value.asDouble());
+        else
+            generator.writeNull();
+    }
+
+    private static class BoundedStringWriter extends StringWriter {
+
+        private final int maxChars;
+
+        private BoundedStringWriter(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            checkLimit(len);
+            super.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            checkLimit(len);
+            super.write(str, off, len);
+        }
+
+        @Override
+        public void write(int c) {
+            checkLimit(1);
+            super.write(c);
+        }
+
+        private void checkLimit(int len) {
+            if (getBuffer().length() + len > this.maxChars)
+                throw new IllegalStateException("JS result exceeds the maximum size of " + this.maxChars + " chars");
+        }
+    }
+}
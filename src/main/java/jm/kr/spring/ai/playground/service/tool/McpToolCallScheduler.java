@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrency quotas for tool calls on the exposed MCP server: a global limit, a limit per client session and a
+ * limit per tool. Calls over quota wait in a weighted-fair queue, where every session advances a virtual finish time
+ * by {@code 1 / weight} per queued call, so one busy session cannot starve the others. Calls are rejected with a
+ * {@link RejectedExecutionException} when the queue is full or the queue timeout passes.
+ * <p>
+ * This is the outer of two layers. Admitted calls still go through the {@link JsToolAdmissionController} of the
+ * {@link JsToolExecutor}, which every caller shares (chat, Tool Studio and the MCP server) and which queues in
+ * arrival order. {@link ToolSpecService} therefore caps the global limit here at the executor's admission limit, so
+ * MCP calls are ordered by this fair queue and do not pile up again in the admission queue.
+ */
+public class McpToolCallScheduler {
+
+    public record McpToolCallSchedulerStats(int running, int queued, int activeSessions, long admitted,
+                                            long enqueued, long rejected, long queueTimedOut, long cancelled) {}
+
+    public record McpToolCallSessionStats(String sessionId, String clientName, int running, int queued,
+                                          long admitted, long rejected) {}
+
+    private static class SessionState {
+        private final String sessionId;
+        private final String clientName;
+        private final double weight;
+        private int running;
+        private int queued;
+        private long admitted;
+        private long rejected;
+        private double lastFinishTag;
+
+        private SessionState(String sessionId, String clientName, double weight) {
+            this.sessionId = sessionId;
+            this.clientName = clientName;
+            this.weight = weight;
+        }
+    }
+
+    private record Waiter(long sequence, double finishTag, SessionState session, String toolName,
+                          CompletableFuture<Permit> future) {}
+
+    private final int maxConcurrency;
+    private final int maxConcurrencyPerSession;
+    private final int maxConcurrencyPerTool;
+    private final int maxQueueSize;
+    private final long queueTimeoutMillis;
+    private final Map<String, Integer> clientWeights;
+    private final Map<String, SessionState> sessions;
+    private final Map<String, Integer> runningByTool;
+    private final TreeSet<Waiter> waiters;
+    private int running;
+    private long sequence;
+    private double virtualTime;
+    private long admitted;
+    private long enqueued;
+    private long rejected;
+    private long queueTimedOut;
+    private long cancelled;
+
+    public McpToolCallScheduler(int maxConcurrency, int maxConcurrencyPerSession, int maxConcurrencyPerTool,
+            int maxQueueSize, long queueTimeoutMillis, Map<String, Integer> clientWeights) {
+        if (maxConcurrency < 1 || maxConcurrencyPerSession < 1 || maxConcurrencyPerTool < 1 || maxQueueSize < 0)
+            throw new IllegalArgumentException(
+                    "Invalid MCP tool call quota: maxConcurrency=" + maxConcurrency + ", maxConcurrencyPerSession=" +
+                            maxConcurrencyPerSession + ", maxConcurrencyPerTool=" + maxConcurrencyPerTool +
+                            ", maxQueueSize=" + maxQueueSize);
+        this.maxConcurrency = maxConcurrency;
+        this.maxConcurrencyPerSession = maxConcurrencyPerSession;
+        this.maxConcurrencyPerTool = maxConcurrencyPerTool;
+        this.maxQueueSize = maxQueueSize;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.clientWeights = Optional.ofNullable(clientWeights).map(Map::copyOf).orElseGet(Map::of);
+        this.sessions = new HashMap<>();
+        this.runningByTool = new HashMap<>();
+        this.waiters = new TreeSet<>(
+                Comparator.comparingDouble(Waiter::finishTag).thenComparingLong(Waiter::sequence));
+    }
+
+    public CompletableFuture<Permit> acquire(String sessionId, String clientName, String toolName) {
+        Waiter waiter;
+        synchronized (this) {
+            SessionState session = this.sessions.computeIfAbsent(sessionId, id -> new SessionState(id, clientName,
+                    Math.max(1, this.clientWeights.getOrDefault(clientName, 1))));
+            if (canRun(session, toolName))
+                return CompletableFuture.completedFuture(start(session, toolName));
+            if (this.waiters.size() >= this.maxQueueSize) {
+                this.rejected++;
+                session.rejected++;
+                removeIfIdle(session);
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "MCP tool call rejected: tool '" + toolName + "' for session " + sessionId +
+                                " is over quota and the queue of " + this.maxQueueSize + " calls is full"));
+            }
+            double finishTag = Math.max(this.virtualTime, session.lastFinishTag) + 1.0 / session.weight;
+            session.lastFinishTag = finishTag;
+            session.queued++;
+            this.enqueued++;
+            waiter = new Waiter(this.sequence++, finishTag, session, toolName, new CompletableFuture<>());
+            this.waiters.add(waiter);
+        }
+        waiter.future().whenComplete((permit, throwable) -> {
+            if (Objects.nonNull(throwable))
+                abandon(waiter, throwable instanceof CancellationException);
+        });
+        CompletableFuture.delayedExecutor(this.queueTimeoutMillis, TimeUnit.MILLISECONDS).execute(
+                () -> waiter.future().completeExceptionally(new RejectedExecutionException(
+                        "MCP tool call rejected after waiting " + this.queueTimeoutMillis + " ms: tool '" +
+                                toolName + "' for session " + sessionId + " is over its concurrency quota " +
+                                describeQuota())));
+        return waiter.future();
+    }
+
+    private String describeQuota() {
+        return "(global " + this.maxConcurrency + ", per session " + this.maxConcurrencyPerSession + ", per tool " +
+                this.maxConcurrencyPerTool + ")";
+    }
+
+    private boolean canRun(SessionState session, String toolName) {
+        return this.running < this.maxConcurrency && session.running < this.maxConcurrencyPerSession &&
+                this.runningByTool.getOrDefault(toolName, 0) < this.maxConcurrencyPerTool;
+    }
+
+    private Permit start(SessionState session, String toolName) {
+        this.running++;
+        session.running++;
+        session.admitted++;
+        this.admitted++;
+        this.runningByTool.merge(toolName, 1, Integer::sum);
+        return new Permit(session, toolName);
+    }
+
+    private void abandon(Waiter waiter, boolean isCancelled) {
+        synchronized (this) {
+            if (!this.waiters.remove(waiter))
+                return;
+            waiter.session().queued--;
+            if (isCancelled) {
+                this.cancelled++;
+            } else {
+                waiter.session().rejected++;
+                this.rejected++;
+                this.queueTimedOut++;
+            }
+            removeIfIdle(waiter.session());
+        }
+    }
+
+    private void release(SessionState session, String toolName) {
+        List<Map.Entry<Waiter, Permit>> granted = new ArrayList<>();
+        synchronized (this) {
+            this.running--;
+            session.running--;
+            this.runningByTool.computeIfPresent(toolName, (name, count) -> count > 1 ? count - 1 : null);
+            var iterator = this.waiters.iterator();
+            while (this.running < this.maxConcurrency && iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                if (!canRun(waiter.session(), waiter.toolName()))
+                    continue;
+                iterator.remove();
+                waiter.session().queued--;
+                this.virtualTime = Math.max(this.virtualTime, waiter.finishTag());
+                granted.add(Map.entry(waiter, start(waiter.session(), waiter.toolName())));
+            }
+            removeIfIdle(session);
+        }
+        // a waiter that timed out or was cancelled meanwhile gives its slot straight back
+        granted.forEach(entry -> {
+            if (!entry.getKey().future().complete(entry.getValue()))
+                entry.getValue().close();
+        });
+    }
+
+    private void removeIfIdle(SessionState session) {
+        if (session.running == 0 && session.queued == 0)
+            this.sessions.remove(session.sessionId, session);
+    }
+
+    public synchronized McpToolCallSchedulerStats getStats() {
+        return new McpToolCallSchedulerStats(this.running, this.waiters.size(), this.sessions.size(), this.admitted,
+                this.enqueued, this.rejected, this.queueTimedOut, this.cancelled);
+    }
+
+    public synchronized List<McpToolCallSessionStats> getSessionStats() {
+        return this.sessions.values().stream().map(session -> new McpToolCallSessionStats(session.sessionId,
+                        session.clientName, session.running, session.queued, session.admitted, session.rejected))
+                .sorted(Comparator.comparing(McpToolCallSessionStats::sessionId)).toList();
+    }
+
+    public class Permit implements AutoCloseable {
+
+        private final SessionState session;
+        private final String toolName;
+        private final AtomicBoolean released;
+
+        private Permit(SessionState session, String toolName) {
+            this.session = session;
+            this.toolName = toolName;
+            this.released = new AtomicBoolean();
+        }
+
+        @Override
+        public void close() {
+            if (this.released.compareAndSet(false, true))
+                release(this.session, this.toolName);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsExecutionResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of successful tool results, keyed by tool id and a canonical hash of the merged parameters.
+ * Entries expire after the TTL of the tool that produced them.
+ */
+public class ToolResultCache {
+
+    public record ToolResultCacheStats(int size, int maxSize, long hits, long misses, long evictions,
+                                       double hitRate) {}
+
+    private record CacheKey(String toolId, String paramsHash) {}
+
+    private record CacheEntry(JsExecutionResult result, long expiresAtMillis) {}
+
+    private static final ObjectMapper CANONICAL_MAPPER =
+            new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final int maxSize;
+    private final LinkedHashMap<CacheKey, CacheEntry> entries;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    public ToolResultCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    public static String hashParams(Map<String, Object> params) {
+        try {
+            return JsSourceCache.fingerprint(CANONICAL_MAPPER.writeValueAsString(params));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Tool params are not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized Optional<JsExecutionResult> get(String toolId, String paramsHash) {
+        CacheKey cacheKey = new CacheKey(toolId, paramsHash);
+        CacheEntry cacheEntry = this.entries.get(cacheKey);
+        if (cacheEntry != null && cacheEntry.expiresAtMillis() <= System.currentTimeMillis()) {
+            this.entries.remove(cacheKey);
+            this.evictions.incrementAndGet();
+            cacheEntry = null;
+        }
+        (cacheEntry == null ? this.misses : this.hits).incrementAndGet();
+        return Optional.ofNullable(cacheEntry).map(CacheEntry::result);
+    }
+
+    public synchronized void put(String toolId, String paramsHash, JsExecutionResult result, long ttlSeconds) {
+        if (this.maxSize < 1 || ttlSeconds < 1)
+            return;
+        this.entries.put(new CacheKey(toolId, paramsHash),
+                new CacheEntry(result, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds)));
+        var iterator = this.entries.entrySet().iterator();
+        while (this.entries.size() > this.maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidate(String toolId) {
+        this.entries.keySet().removeIf(cacheKey -> cacheKey.toolId().equals(toolId));
+    }
+
+    public synchronized ToolResultCacheStats getStats() {
+        long hitCount = this.hits.get();
+        long total = hitCount + this.misses.get();
+        return new ToolResultCacheStats(this.entries.size(), this.maxSize, hitCount, this.misses.get(),
+                this.evictions.get(), total == 0 ? 0 : (double) hitCount / total);
+    }
+}
@@ -17,8 +17,13 @@ package jm.kr.spring.ai.playground.service.tool;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.modelcontextprotocol.server.McpServerFeatures;
 import org.springframework.ai.tool.ToolCallback;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -56,6 +61,19 @@ public class ToolSpec {
         Javascript
     }
 
+    public record ToolExecutionPolicy(Integer maxConcurrency, boolean cacheable, Long cacheTtlSeconds) {}
+
+    /**
+     * Definition derived once per tool spec version: the input schema and the MCP tool specification. No serialized
+     * tools/list is kept with it: the MCP SDK builds that response itself on every request, and clients that poll it
+     * can wait for the server's tools/list_changed notification instead.
+     */
+    public record ToolDefinition(String inputSchema,
+                                 McpServerFeatures.SyncToolSpecification mcpToolSpecification) {}
+
+    private static final ObjectMapper CANONICAL_MAPPER =
+            new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
     private String toolId;
     private String name;
     private String description;
@@ -63,9 +81,14 @@ public class ToolSpec {
     private List<ToolParamSpec> params;
     private String code;
     private CodeType codeType;
+    private ToolExecutionPolicy executionPolicy;
 
     @JsonIgnore
     private ToolCallback toolCallback;
+    @JsonIgnore
+    private ToolDefinition toolDefinition;
+    @JsonIgnore
+    private String contentHash;
     private long createTimestamp;
     private long updateTimestamp;
 
@@ -74,6 +97,18 @@ public class ToolSpec {
 
     public ToolSpec(String toolId, String name, String description, List<Map.Entry<String, String>> staticVariables,
             List<ToolParamSpec> params, String code, CodeType codeType, ToolCallback toolCallback) {
+        this(toolId, name, description, staticVariables, params, code, codeType, null, toolCallback);
+    }
+
+    public ToolSpec(String toolId, String name, String description, List<Map.Entry<String, String>> staticVariables,
+            List<ToolParamSpec> params, String code, CodeType codeType, ToolExecutionPolicy executionPolicy,
+            ToolCallback toolCallback) {
+        this(toolId, name, description, staticVariables, params, code, codeType, executionPolicy, null, toolCallback);
+    }
+
+    public ToolSpec(String toolId, String name, String description, List<Map.Entry<String, String>> staticVariables,
+            List<ToolParamSpec> params, String code, CodeType codeType, ToolExecutionPolicy executionPolicy,
+            ToolDefinition toolDefinition, ToolCallback toolCallback) {
         this.toolId = toolId;
         this.name = name;
         this.description = description;
@@ -81,6 +116,8 @@ public class ToolSpec {
         this.params = params;
         this.code = code;
         this.codeType = codeType;
+        this.executionPolicy = executionPolicy;
+        this.toolDefinition = toolDefinition;
         this.toolCallback = toolCallback;
         this.createTimestamp = System.currentTimeMillis();
         this.updateTimestamp = this.createTimestamp;
@@ -114,6 +151,14 @@ public class ToolSpec {
         return codeType;
     }
 
+    public ToolExecutionPolicy executionPolicy() {
+        return executionPolicy;
+    }
+
+    public ToolDefinition toolDefinition() {
+        return toolDefinition;
+    }
+
     public ToolCallback toolCallback() {
         return toolCallback;
     }
@@ -126,4 +171,21 @@ public class ToolSpec {
         return updateTimestamp;
     }
 
+    public String contentHash() {
+        if (contentHash == null)
+            contentHash = contentHash(name, description, staticVariables, params, code, codeType, executionPolicy);
+        return contentHash;
+    }
+
+    public static String contentHash(String name, String description, List<Map.Entry<String, String>> staticVariables,
+            List<ToolParamSpec> params, String code, CodeType codeType, ToolExecutionPolicy executionPolicy) {
+        List<Object> content = Arrays.asList(name, description, staticVariables, params, code, codeType,
+                executionPolicy);
+        try {
+            return JsSourceCache.fingerprint(CANONICAL_MAPPER.writeValueAsString(content));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Tool spec is not serializable: " + e.getMessage(), e);
+        }
+    }
+
 }
\ No newline at end of file
@@ -97,9 +97,9 @@ public class ToolSpecPersistenceService implements
 
     @Override
     public void onApplicationEvent(WebServerInitializedEvent event) {
-        Stream.concat(defaultToolSpecs.stream(),
+        toolSpecService.updateAll(Stream.concat(defaultToolSpecs.stream(),
                         toolSpecsMcpServerSettings.stream().map(ToolSpecsMcpServerSetting::toolSpecs).flatMap(List::stream))
-                .forEach(toolSpecService::update);
+                .toList());
     }
 
     @Override
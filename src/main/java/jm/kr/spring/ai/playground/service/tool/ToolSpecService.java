@@ -18,24 +18,46 @@ package jm.kr.spring.ai.playground.service.tool;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpError;
 import io.modelcontextprotocol.spec.McpSchema;
 import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.McpServerQuota;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ResultCache;
 import jm.kr.spring.ai.playground.service.mcp.McpServerInfoService;
+import jm.kr.spring.ai.playground.service.tool.JsExecutionWatchdog.JsExecutionWatchdogStats;
+import jm.kr.spring.ai.playground.service.tool.JsHttpFetch.JsHttpHostStats;
+import jm.kr.spring.ai.playground.service.tool.JsSourceCache.JsSourceCacheStats;
+import jm.kr.spring.ai.playground.service.tool.JsToolAdmissionController.JsToolAdmissionStats;
+import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.ExecutionMode;
+import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsBatchExecutionParams;
 import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsExecutionParams;
 import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsExecutionResult;
+import jm.kr.spring.ai.playground.service.tool.McpToolCallScheduler.McpToolCallSchedulerStats;
+import jm.kr.spring.ai.playground.service.tool.McpToolCallScheduler.McpToolCallSessionStats;
+import jm.kr.spring.ai.playground.service.tool.ToolResultCache.ToolResultCacheStats;
+import jm.kr.spring.ai.playground.service.tool.ToolSpec.ToolDefinition;
+import jm.kr.spring.ai.playground.service.tool.ToolSpec.ToolExecutionPolicy;
 import jm.kr.spring.ai.playground.service.tool.ToolSpec.ToolParamSpec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
 import org.springframework.ai.tool.function.FunctionToolCallback;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.SmartLifecycle;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -44,8 +66,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -56,14 +84,28 @@ public class ToolSpecService implements SmartLifecycle {
     private static final Logger logger = LoggerFactory.getLogger(ToolSpecService.class);
     private static final ParameterizedTypeReference<Map<String, Object>>
             MAP_PARAMETERIZED_TYPE_REFERENCE = new ParameterizedTypeReference<>() {};
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 300L;
+    private static final int MCP_QUOTA_EXCEEDED_ERROR_CODE = -32000;
+    private static final ToolCallResultConverter DEFAULT_TOOL_CALL_RESULT_CONVERTER =
+            new DefaultToolCallResultConverter();
+    private static final ToolCallResultConverter TOOL_CALL_RESULT_CONVERTER =
+            (result, returnType) -> result instanceof RawValue rawValue ? rawValue.rawValue().toString() :
+                    DEFAULT_TOOL_CALL_RESULT_CONVERTER.convert(result, returnType);
 
     private final McpSyncServer mcpSyncServer;
     private final McpAsyncServer mcpAsyncServer;
     private final McpServerInfoService mcpServerInfoService;
     private final Map<String, ToolSpec> toolIdSpecs;
+    private final Map<String, ToolSpec> toolNameSpecs;
+    private final Set<String> mcpToolNames;
     private final JsToolExecutor jsToolExecutor;
+    private final ToolResultCache toolResultCache;
+    private final McpToolCallScheduler mcpToolCallScheduler;
+    private final Object mcpToolChangeLock;
 
     private ToolMcpServerSetting toolMcpServerSetting;
+    private int mcpToolChangeDepth;
+    private boolean mcpToolsChanged;
 
     public ToolSpecService(ObjectProvider<McpSyncServer> syncServerProvider,
             ObjectProvider<McpAsyncServer> asyncServerProvider, McpServerInfoService mcpServerInfoService,
@@ -73,74 +115,247 @@ public class ToolSpecService implements SmartLifecycle {
         this.mcpServerInfoService = mcpServerInfoService;
         this.toolMcpServerSetting = new ToolMcpServerSetting(true, Set.of());
         this.toolIdSpecs = new ConcurrentHashMap<>();
-        this.jsToolExecutor = new JsToolExecutor(playgroundOptions.toolStudio().timeoutSeconds(),
-                playgroundOptions.toolStudio().jsSandbox());
+        this.toolNameSpecs = new ConcurrentHashMap<>();
+        this.mcpToolNames = ConcurrentHashMap.newKeySet();
+        if (Objects.nonNull(this.mcpSyncServer) || Objects.nonNull(this.mcpAsyncServer))
+            getMcpToolList().stream().map(McpSchema.Tool::name).forEach(this.mcpToolNames::add);
+        this.jsToolExecutor = new JsToolExecutor(playgroundOptions.toolStudio());
+        this.toolResultCache = new ToolResultCache(
+                Optional.ofNullable(playgroundOptions.toolStudio().resultCache()).map(ResultCache::maxSize)
+                        .orElse(1000));
+        Optional<McpServerQuota> mcpServerQuotaAsOpt =
+                Optional.ofNullable(playgroundOptions.toolStudio().mcpServerQuota());
+        // the admission controller behind the scheduler bounds what can run, so the scheduler never admits more
+        int admissionMaxConcurrency = this.jsToolExecutor.getAdmissionStats().maxConcurrency();
+        this.mcpToolCallScheduler = new McpToolCallScheduler(
+                mcpServerQuotaAsOpt.map(McpServerQuota::maxConcurrency)
+                        .map(maxConcurrency -> Math.min(maxConcurrency, admissionMaxConcurrency))
+                        .orElse(admissionMaxConcurrency),
+                mcpServerQuotaAsOpt.map(McpServerQuota::maxConcurrencyPerSession).orElse(4),
+                mcpServerQuotaAsOpt.map(McpServerQuota::maxConcurrencyPerTool).orElse(8),
+                mcpServerQuotaAsOpt.map(McpServerQuota::maxQueueSize).orElse(64),
+                mcpServerQuotaAsOpt.map(McpServerQuota::queueTimeoutMillis).orElse(10_000L),
+                mcpServerQuotaAsOpt.map(McpServerQuota::clientWeights).orElse(null));
+        this.mcpToolChangeLock = new Object();
+    }
+
+    public List<ToolSpec> updateAll(List<ToolSpec> toolSpecs) {
+        return applyMcpToolChanges(() -> toolSpecs.stream().map(this::update).toList());
+    }
+
+    /**
+     * Applies MCP tool adds and removes as one change: nested changes only mark the tool list as changed, and the
+     * loopback MCP client is refreshed once when the outermost change completes.
+     */
+    public <T> T applyMcpToolChanges(Supplier<T> changes) {
+        synchronized (this.mcpToolChangeLock) {
+            this.mcpToolChangeDepth++;
+            try {
+                return changes.get();
+            } finally {
+                if (--this.mcpToolChangeDepth == 0 && this.mcpToolsChanged) {
+                    this.mcpToolsChanged = false;
+                    this.mcpServerInfoService.updateDefaultMcpTool();
+                }
+            }
+        }
+    }
+
+    private void applyMcpToolChange(Runnable change) {
+        applyMcpToolChanges(() -> {
+            change.run();
+            this.mcpToolsChanged = true;
+            return null;
+        });
     }
 
     public ToolSpec update(ToolSpec toolSpec) {
         return update(toolSpec.toolId(), toolSpec.name(), toolSpec.description(), toolSpec.staticVariables(),
-                toolSpec.params(), toolSpec.code(), toolSpec.codeType());
+                toolSpec.params(), toolSpec.code(), toolSpec.codeType(), toolSpec.executionPolicy());
     }
 
     public ToolSpec update(String toolId, String toolName, String toolDescription,
             List<Map.Entry<String, String>> staticVariables, List<ToolParamSpec> toolParamSpecs, String jsCode,
             ToolSpec.CodeType codeType) {
+        return update(toolId, toolName, toolDescription, staticVariables, toolParamSpecs, jsCode, codeType,
+                Optional.ofNullable(toolId).map(toolIdSpecs::get).map(ToolSpec::executionPolicy).orElse(null));
+    }
+
+    public ToolSpec update(String toolId, String toolName, String toolDescription,
+            List<Map.Entry<String, String>> staticVariables, List<ToolParamSpec> toolParamSpecs, String jsCode,
+            ToolSpec.CodeType codeType, ToolExecutionPolicy executionPolicy) {
         boolean isNew = Objects.isNull(toolId);
         ToolSpec toolSpec = isNew ? null : toolIdSpecs.get(toolId);
-        if (Objects.isNull(toolSpec) || !Objects.equals(toolSpec.name(), toolName) ||
-                !Objects.equals(toolSpec.description(), toolDescription) ||
-                !Objects.equals(toolSpec.staticVariables().toString(),
-                        staticVariables.toString()) || !Objects.equals(toolSpec.params().toString(),
-                toolParamSpecs.toString()) || !Objects.equals(toolSpec.code(), jsCode) ||
-                !Objects.equals(toolSpec.codeType(), codeType)) {
+        if (Objects.isNull(toolSpec) || !toolSpec.contentHash().equals(
+                ToolSpec.contentHash(toolName, toolDescription, staticVariables, toolParamSpecs, jsCode, codeType,
+                        executionPolicy))) {
             return update(toolId, toolName, toolDescription, staticVariables, toolParamSpecs, jsCode, codeType,
-                    toolSpec);
+                    executionPolicy, toolSpec);
         }
         return toolSpec;
     }
 
     private ToolSpec update(String toolId, String toolName, String toolDescription,
             List<Map.Entry<String, String>> staticVariables, List<ToolParamSpec> toolParamSpecs, String jsCode,
-            ToolSpec.CodeType codeType, ToolSpec toolSpec) {
-        Function<Map<String, Object>, Object> executor = toolParams -> executeTool(toolName, staticVariables,
-                jsCode, toolParams).result();
+            ToolSpec.CodeType codeType, ToolExecutionPolicy executionPolicy, ToolSpec toolSpec) {
+        String codeFingerprint = this.jsToolExecutor.cacheSource(toolId, jsCode);
+        this.toolResultCache.invalidate(toolId);
+        Function<Map<String, Object>, Object> executor = toolParams -> executeTool(toolId, executionPolicy, toolName,
+                staticVariables, jsCode, codeFingerprint, ExecutionMode.LEAN, toolParams).result();
+        ToolCallback toolCallback = FunctionToolCallback.builder(toolName, executor).description(toolDescription)
+                .inputSchema(toJsonSchema(toolParamSpecs).toString())
+                .toolCallResultConverter(TOOL_CALL_RESULT_CONVERTER)
+                .inputType(MAP_PARAMETERIZED_TYPE_REFERENCE).build();
         ToolSpec newToolSpec =
                 new ToolSpec(toolId, toolName, toolDescription, staticVariables, toolParamSpecs, jsCode, codeType,
-                        FunctionToolCallback.builder(toolName, executor).description(toolDescription)
-                                .inputSchema(toJsonSchema(toolParamSpecs).toPrettyString())
-                                .inputType(MAP_PARAMETERIZED_TYPE_REFERENCE).build());
-        toolIdSpecs.put(toolId, newToolSpec);
+                        executionPolicy, buildToolDefinition(toolCallback), toolCallback);
         logger.info("Update Tool spec: toolId={}, name={}", toolId, toolName);
-        if (Objects.nonNull(toolSpec))
-            getMcpToolList().stream().filter(tool -> tool.name().equals(toolSpec.name())).findFirst()
-                    .map(McpSchema.Tool::name).ifPresent(this::removeMcpTool);
-        if (this.toolMcpServerSetting.autoAdd() &&
-                getMcpToolList().stream().noneMatch(tool -> tool.name().equals(newToolSpec.name()))) {
-            addMcpTool(newToolSpec);
-            HashSet<String> exposedToolIds = new HashSet<>(this.toolMcpServerSetting.exposedToolIds());
-            exposedToolIds.add(newToolSpec.toolId());
-            this.toolMcpServerSetting = new ToolMcpServerSetting(true, exposedToolIds);
-        }
-        return newToolSpec;
+        return applyMcpToolChanges(() -> {
+            if (Objects.nonNull(toolSpec))
+                unregisterToolSpec(toolSpec);
+            registerToolSpec(newToolSpec);
+            if (Objects.nonNull(toolSpec) && this.mcpToolNames.contains(toolSpec.name()))
+                removeMcpTool(toolSpec.name());
+            if (this.toolMcpServerSetting.autoAdd() && !this.mcpToolNames.contains(newToolSpec.name())) {
+                addMcpTool(newToolSpec);
+                HashSet<String> exposedToolIds = new HashSet<>(this.toolMcpServerSetting.exposedToolIds());
+                exposedToolIds.add(newToolSpec.toolId());
+                this.toolMcpServerSetting = new ToolMcpServerSetting(true, exposedToolIds);
+            }
+            return newToolSpec;
+        });
+    }
+
+    private void registerToolSpec(ToolSpec toolSpec) {
+        this.toolIdSpecs.put(toolSpec.toolId(), toolSpec);
+        this.toolNameSpecs.put(toolSpec.name(), toolSpec);
+    }
+
+    private void unregisterToolSpec(ToolSpec toolSpec) {
+        this.toolIdSpecs.remove(toolSpec.toolId(), toolSpec);
+        this.toolNameSpecs.computeIfPresent(toolSpec.name(),
+                (name, namedToolSpec) -> Objects.equals(namedToolSpec.toolId(), toolSpec.toolId()) ? null :
+                        namedToolSpec);
+    }
+
+    private static ToolDefinition buildToolDefinition(ToolCallback toolCallback) {
+        McpServerFeatures.SyncToolSpecification mcpToolSpecification =
+                McpToolUtils.toSyncToolSpecification(toolCallback);
+        return new ToolDefinition(toolCallback.getToolDefinition().inputSchema(), mcpToolSpecification);
+    }
+
+    private static ToolDefinition resolveToolDefinition(ToolSpec toolSpec) {
+        return Optional.ofNullable(toolSpec.toolDefinition())
+                .orElseGet(() -> buildToolDefinition(toolSpec.toolCallback()));
     }
 
     public void addMcpTool(ToolSpec toolSpec) {
         logger.info("Adding MCP tool to server: name={}", toolSpec.name());
-        if (Objects.nonNull(this.mcpSyncServer)) {
-            this.mcpSyncServer.addTool(McpToolUtils.toSyncToolSpecification(toolSpec.toolCallback()));
-        } else {
-            this.mcpAsyncServer.addTool(McpToolUtils.toAsyncToolSpecification(toolSpec.toolCallback()));
+        ToolDefinition toolDefinition = resolveToolDefinition(toolSpec);
+        applyMcpToolChange(() -> {
+            if (Objects.nonNull(this.mcpSyncServer)) {
+                this.mcpSyncServer.addTool(toSyncToolSpecification(toolSpec, toolDefinition));
+            } else {
+                this.mcpAsyncServer.addTool(toAsyncToolSpecification(toolSpec, toolDefinition));
+            }
+            this.mcpToolNames.add(toolSpec.name());
+        });
+    }
+
+    private McpServerFeatures.AsyncToolSpecification toAsyncToolSpecification(ToolSpec toolSpec,
+            ToolDefinition toolDefinition) {
+        String codeFingerprint = JsSourceCache.fingerprint(toolSpec.code());
+        return McpServerFeatures.AsyncToolSpecification.builder()
+                .tool(toolDefinition.mcpToolSpecification().tool())
+                .callHandler((exchange, request) -> Mono.fromFuture(
+                                () -> this.mcpToolCallScheduler.acquire(exchange.sessionId(),
+                                        clientName(exchange.getClientInfo()), toolSpec.name()))
+                        .onErrorMap(RejectedExecutionException.class, ToolSpecService::toQuotaExceededError)
+                        .flatMap(permit -> Mono.fromFuture(
+                                        () -> executeToolAsync(toolSpec.toolId(), toolSpec.executionPolicy(),
+                                                toolSpec.name(), toolSpec.staticVariables(), toolSpec.code(),
+                                                codeFingerprint, ExecutionMode.LEAN,
+                                                Optional.ofNullable(request.arguments()).orElseGet(Map::of),
+                                                toProgressConsumer(toolSpec.name(), request,
+                                                        notification -> exchange.progressNotification(notification)
+                                                                .subscribe(null, throwable -> logger.debug(
+                                                                        "Failed to send MCP progress: tool={}",
+                                                                        toolSpec.name(), throwable)))))
+                                .doFinally(signalType -> permit.close()))
+                        .map(ToolSpecService::toCallToolResult))
+                .build();
+    }
+
+    private McpServerFeatures.SyncToolSpecification toSyncToolSpecification(ToolSpec toolSpec,
+            ToolDefinition toolDefinition) {
+        String codeFingerprint = JsSourceCache.fingerprint(toolSpec.code());
+        return McpServerFeatures.SyncToolSpecification.builder()
+                .tool(toolDefinition.mcpToolSpecification().tool())
+                .callHandler((exchange, request) -> {
+                    try (McpToolCallScheduler.Permit ignored = awaitMcpToolCallPermit(
+                            this.mcpToolCallScheduler.acquire(exchange.sessionId(),
+                                    clientName(exchange.getClientInfo()), toolSpec.name()))) {
+                        return toCallToolResult(executeToolAsync(toolSpec.toolId(), toolSpec.executionPolicy(),
+                                toolSpec.name(), toolSpec.staticVariables(), toolSpec.code(), codeFingerprint,
+                                ExecutionMode.LEAN, Optional.ofNullable(request.arguments()).orElseGet(Map::of),
+                                toProgressConsumer(toolSpec.name(), request, exchange::progressNotification))
+                                .join());
+                    }
+                }).build();
+    }
+
+    private static BiConsumer<Double, String> toProgressConsumer(String toolName, McpSchema.CallToolRequest request,
+            Consumer<McpSchema.ProgressNotification> progressNotificationConsumer) {
+        return Optional.ofNullable(request.progressToken()).<BiConsumer<Double, String>>map(
+                progressToken -> (progress, message) -> {
+                    logger.debug("Reporting MCP tool progress: tool={}, progress={}, message={}", toolName,
+                            progress, message);
+                    progressNotificationConsumer.accept(
+                            new McpSchema.ProgressNotification(progressToken, progress, 100.0, message));
+                }).orElse(null);
+    }
+
+    private static McpToolCallScheduler.Permit awaitMcpToolCallPermit(
+            CompletableFuture<McpToolCallScheduler.Permit> permitFuture) {
+        try {
+            return permitFuture.get();
+        } catch (InterruptedException e) {
+            permitFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an MCP tool call slot", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException rejectedExecutionException)
+                throw toQuotaExceededError(rejectedExecutionException);
+            throw new IllegalStateException(e.getCause());
         }
-        this.mcpServerInfoService.updateDefaultMcpTool();
+    }
+
+    private static String clientName(McpSchema.Implementation clientInfo) {
+        return Optional.ofNullable(clientInfo).map(McpSchema.Implementation::name).orElse("unknown");
+    }
+
+    private static McpError toQuotaExceededError(RejectedExecutionException e) {
+        return McpError.builder(MCP_QUOTA_EXCEEDED_ERROR_CODE).message(e.getMessage())
+                .data(Map.of("reason", "quota_exceeded")).build();
+    }
+
+    private static McpSchema.CallToolResult toCallToolResult(JsExecutionResult jsExecutionResult) {
+        return jsExecutionResult.isOk() ? McpSchema.CallToolResult.builder()
+                .addTextContent(TOOL_CALL_RESULT_CONVERTER.convert(jsExecutionResult.result(), Object.class))
+                .build() : McpSchema.CallToolResult.builder().addTextContent(jsExecutionResult.error()).isError(true)
+                .build();
     }
 
     public void removeMcpTool(String toolName) {
         logger.info("Removing MCP tool from server: name={}", toolName);
-        if (Objects.nonNull(this.mcpSyncServer)) {
-            this.mcpSyncServer.removeTool(toolName);
-        } else {
-            this.mcpAsyncServer.removeTool(toolName);
-        }
+        applyMcpToolChange(() -> {
+            if (Objects.nonNull(this.mcpSyncServer)) {
+                this.mcpSyncServer.removeTool(toolName);
+            } else {
+                this.mcpAsyncServer.removeTool(toolName);
+            }
+            this.mcpToolNames.remove(toolName);
+        });
     }
 
     public List<McpSchema.Tool> getMcpToolList() {
@@ -149,7 +364,7 @@ public class ToolSpecService implements SmartLifecycle {
     }
 
     public Optional<ToolSpec> getToolSpecAsOpt(String name) {
-        return toolIdSpecs.values().stream().filter(toolSpec -> toolSpec.name().equals(name)).findFirst();
+        return Optional.ofNullable(toolNameSpecs.get(name));
     }
 
     public ObjectNode toJsonSchema(List<ToolParamSpec> toolParamSpecs) {
@@ -173,14 +388,135 @@ public class ToolSpecService implements SmartLifecycle {
 
     public JsExecutionResult executeTool(String toolName, List<Map.Entry<String, String>> staticVariables,
             String jsCode, Map<String, Object> toolParams) {
+        return executeTool(null, null, toolName, staticVariables, jsCode, null, ExecutionMode.DEBUG, toolParams);
+    }
+
+    private JsExecutionResult executeTool(String toolId, ToolExecutionPolicy executionPolicy, String toolName,
+            List<Map.Entry<String, String>> staticVariables, String jsCode, String codeFingerprint,
+            ExecutionMode executionMode, Map<String, Object> toolParams) {
+        return executeToolAsync(toolId, executionPolicy, toolName, staticVariables, jsCode, codeFingerprint,
+                executionMode, toolParams, null).join();
+    }
+
+    private CompletableFuture<JsExecutionResult> executeToolAsync(String toolId, ToolExecutionPolicy executionPolicy,
+            String toolName, List<Map.Entry<String, String>> staticVariables, String jsCode, String codeFingerprint,
+            ExecutionMode executionMode, Map<String, Object> toolParams,
+            BiConsumer<Double, String> progressConsumer) {
         Map<String, Object> mergeParams = new HashMap<>(toolParams);
         staticVariables.forEach(entry -> mergeParams.put(entry.getKey(), entry.getValue()));
-        JsExecutionParams jsExecutionParams = new JsExecutionParams(mergeParams, jsCode);
-        JsExecutionResult jsExecutionResult = this.jsToolExecutor.execute(jsExecutionParams);
-        logger.info("Executing tool: {}, jsExecutionParams: {}, isOk: {}", toolName, jsExecutionParams.params(),
-                jsExecutionResult.isOk());
-        logger.debug("Executing tool Result: {}", jsExecutionResult);
-        return jsExecutionResult;
+        Optional<ToolExecutionPolicy> executionPolicyAsOpt = Optional.ofNullable(executionPolicy);
+        Optional<String> paramsHashAsOpt = executionPolicyAsOpt.filter(ToolExecutionPolicy::cacheable)
+                .filter(policy -> Objects.nonNull(toolId)).map(policy -> ToolResultCache.hashParams(mergeParams));
+        Optional<JsExecutionResult> cachedResultAsOpt =
+                paramsHashAsOpt.flatMap(paramsHash -> this.toolResultCache.get(toolId, paramsHash));
+        if (cachedResultAsOpt.isPresent()) {
+            logger.info("Executing tool: {}, executionMode: {}, cached: true", toolName, executionMode);
+            return CompletableFuture.completedFuture(cachedResultAsOpt.get());
+        }
+        JsExecutionParams jsExecutionParams =
+                new JsExecutionParams(mergeParams, jsCode, codeFingerprint, executionMode, progressConsumer);
+        return this.jsToolExecutor.executeAsync(toolId,
+                        executionPolicyAsOpt.map(ToolExecutionPolicy::maxConcurrency).orElse(null), jsExecutionParams)
+                .thenApply(jsExecutionResult -> {
+                    logger.info("Executing tool: {}, executionMode: {}, isOk: {}", toolName, executionMode,
+                            jsExecutionResult.isOk());
+                    logger.debug("Executing tool jsExecutionParams: {}, Result: {}", jsExecutionParams.params(),
+                            jsExecutionResult);
+                    if (jsExecutionResult.isOk())
+                        paramsHashAsOpt.ifPresent(paramsHash -> this.toolResultCache.put(toolId, paramsHash,
+                                jsExecutionResult, Optional.ofNullable(executionPolicy.cacheTtlSeconds())
+                                        .orElse(DEFAULT_CACHE_TTL_SECONDS)));
+                    return jsExecutionResult;
+                });
+    }
+
+    public List<JsExecutionResult> executeToolBatch(String toolName, List<Map.Entry<String, String>> staticVariables,
+            String jsCode, List<Map<String, Object>> toolParamsList) {
+        return executeToolBatchAsync(null, null, toolName, staticVariables, jsCode, null, ExecutionMode.DEBUG,
+                toolParamsList).join();
+    }
+
+    public List<JsExecutionResult> executeToolBatch(String toolId, List<Map<String, Object>> toolParamsList) {
+        ToolSpec toolSpec = Optional.ofNullable(toolIdSpecs.get(toolId))
+                .orElseThrow(() -> new IllegalArgumentException("Tool spec not found: toolId=" + toolId));
+        return executeToolBatchAsync(toolId, toolSpec.executionPolicy(), toolSpec.name(), toolSpec.staticVariables(),
+                toolSpec.code(), JsSourceCache.fingerprint(toolSpec.code()), ExecutionMode.LEAN, toolParamsList)
+                .join();
+    }
+
+    private CompletableFuture<List<JsExecutionResult>> executeToolBatchAsync(String toolId,
+            ToolExecutionPolicy executionPolicy, String toolName, List<Map.Entry<String, String>> staticVariables,
+            String jsCode, String codeFingerprint, ExecutionMode executionMode,
+            List<Map<String, Object>> toolParamsList) {
+        Optional<ToolExecutionPolicy> executionPolicyAsOpt = Optional.ofNullable(executionPolicy);
+        boolean cacheable = executionPolicyAsOpt.map(ToolExecutionPolicy::cacheable).orElse(false) &&
+                Objects.nonNull(toolId);
+        JsExecutionResult[] results = new JsExecutionResult[toolParamsList.size()];
+        String[] paramsHashes = new String[toolParamsList.size()];
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<Map<String, Object>> pendingParamsList = new ArrayList<>();
+        for (int i = 0; i < toolParamsList.size(); i++) {
+            Map<String, Object> mergeParams = new HashMap<>(toolParamsList.get(i));
+            staticVariables.forEach(entry -> mergeParams.put(entry.getKey(), entry.getValue()));
+            if (cacheable) {
+                paramsHashes[i] = ToolResultCache.hashParams(mergeParams);
+                Optional<JsExecutionResult> cachedResultAsOpt = this.toolResultCache.get(toolId, paramsHashes[i]);
+                if (cachedResultAsOpt.isPresent()) {
+                    results[i] = cachedResultAsOpt.get();
+                    continue;
+                }
+            }
+            pendingIndexes.add(i);
+            pendingParamsList.add(mergeParams);
+        }
+        JsBatchExecutionParams jsBatchExecutionParams =
+                new JsBatchExecutionParams(pendingParamsList, jsCode, codeFingerprint, executionMode, null);
+        return this.jsToolExecutor.executeBatchAsync(toolId,
+                        executionPolicyAsOpt.map(ToolExecutionPolicy::maxConcurrency).orElse(null),
+                        jsBatchExecutionParams)
+                .thenApply(jsExecutionResults -> {
+                    for (int i = 0; i < jsExecutionResults.size(); i++) {
+                        int index = pendingIndexes.get(i);
+                        JsExecutionResult jsExecutionResult = jsExecutionResults.get(i);
+                        results[index] = jsExecutionResult;
+                        if (cacheable && jsExecutionResult.isOk())
+                            this.toolResultCache.put(toolId, paramsHashes[index], jsExecutionResult,
+                                    Optional.ofNullable(executionPolicy.cacheTtlSeconds())
+                                            .orElse(DEFAULT_CACHE_TTL_SECONDS));
+                    }
+                    logger.info("Executing tool batch: {}, executionMode: {}, size: {}, cached: {}, failed: {}",
+                            toolName, executionMode, results.length, results.length - pendingIndexes.size(),
+                            Arrays.stream(results).filter(jsExecutionResult -> !jsExecutionResult.isOk()).count());
+                    return Arrays.asList(results);
+                });
+    }
+
+    public JsSourceCacheStats getSourceCacheStats() {
+        return this.jsToolExecutor.getSourceCacheStats();
+    }
+
+    public List<JsHttpHostStats> getHttpFetchStats() {
+        return this.jsToolExecutor.getHttpFetchStats();
+    }
+
+    public ToolResultCacheStats getResultCacheStats() {
+        return this.toolResultCache.getStats();
+    }
+
+    public JsExecutionWatchdogStats getExecutionStats() {
+        return this.jsToolExecutor.getExecutionStats();
+    }
+
+    public McpToolCallSchedulerStats getMcpToolCallStats() {
+        return this.mcpToolCallScheduler.getStats();
+    }
+
+    public List<McpToolCallSessionStats> getMcpToolCallSessionStats() {
+        return this.mcpToolCallScheduler.getSessionStats();
+    }
+
+    public JsToolAdmissionStats getAdmissionStats() {
+        return this.jsToolExecutor.getAdmissionStats();
     }
 
     public List<ToolSpec> getToolSpecList() {
@@ -190,7 +526,16 @@ public class ToolSpecService implements SmartLifecycle {
 
     public void deleteToolSpec(String toolId) {
         logger.info("Deleting tool spec: toolId={}", toolId);
-        Optional.ofNullable(toolIdSpecs.remove(toolId)).map(ToolSpec::name).ifPresent(this::removeMcpTool);
+        this.jsToolExecutor.invalidateSource(toolId);
+        this.toolResultCache.invalidate(toolId);
+        applyMcpToolChanges(() -> {
+            Optional.ofNullable(toolIdSpecs.get(toolId)).ifPresent(toolSpec -> {
+                unregisterToolSpec(toolSpec);
+                if (this.mcpToolNames.contains(toolSpec.name()))
+                    removeMcpTool(toolSpec.name());
+            });
+            return null;
+        });
     }
 
     public ToolMcpServerSetting getToolMcpServerSetting() {
@@ -206,14 +551,16 @@ public class ToolSpecService implements SmartLifecycle {
                 toolMcpServerSetting.autoAdd(), toolMcpServerSetting.exposedToolIds().size());
         setToolMcpServerSetting(toolMcpServerSetting);
         Set<String> toExposeToolNames =
-                toolMcpServerSetting.exposedToolIds().stream().map(toolIdSpecs::get).map(ToolSpec::name)
-                        .collect(Collectors.toSet());
-        Set<String> currentExposedToolNames =
-                getMcpToolList().stream().map(McpSchema.Tool::name).collect(Collectors.toSet());
-        currentExposedToolNames.stream().filter(name -> !toExposeToolNames.contains(name)).forEach(this::removeMcpTool);
-        toExposeToolNames.stream().filter(name -> !currentExposedToolNames.contains(name))
-                .map(name -> toolIdSpecs.values().stream().filter(spec -> name.equals(spec.name())).findFirst())
-                .flatMap(Optional::stream).forEach(this::addMcpTool);
+                toolMcpServerSetting.exposedToolIds().stream().map(toolIdSpecs::get).filter(Objects::nonNull)
+                        .map(ToolSpec::name).collect(Collectors.toSet());
+        applyMcpToolChanges(() -> {
+            Set<String> currentExposedToolNames = Set.copyOf(this.mcpToolNames);
+            currentExposedToolNames.stream().filter(name -> !toExposeToolNames.contains(name))
+                    .forEach(this::removeMcpTool);
+            toExposeToolNames.stream().filter(name -> !currentExposedToolNames.contains(name))
+                    .map(toolNameSpecs::get).filter(Objects::nonNull).forEach(this::addMcpTool);
+            return null;
+        });
         logger.info("Tool MCP server setting updated: exposedToolNames={}", toExposeToolNames);
     }
 
@@ -233,6 +580,8 @@ public class ToolSpecService implements SmartLifecycle {
             logger.info("Closing McpAsyncServer");
             this.mcpAsyncServer.close();
         }
+        logger.info("Closing JsToolExecutor");
+        this.jsToolExecutor.close();
     }
 
     @Override
@@ -38,6 +38,7 @@ import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.internal.Pair;
 import jm.kr.spring.ai.playground.service.chat.ChatHistory;
+import jm.kr.spring.ai.playground.service.chat.ChatHistoryService;
 import jm.kr.spring.ai.playground.service.chat.ChatService;
 import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
 import jm.kr.spring.ai.playground.service.mcp.client.McpClientService;
@@ -45,20 +46,20 @@ import jm.kr.spring.ai.playground.service.mcp.client.McpTransportType;
 import jm.kr.spring.ai.playground.service.vectorstore.VectorStoreDocumentInfo;
 import jm.kr.spring.ai.playground.webui.PersistentUiDataStorage;
 import jm.kr.spring.ai.playground.webui.VaadinUtils;
+import jm.kr.spring.ai.playground.webui.chat.ChatStreamCoalescer.ChunkKind;
+import jm.kr.spring.ai.playground.webui.chat.ChatStreamCoalescer.StreamChunk;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.MessageType;
 import org.springframework.ai.chat.prompt.ChatOptions;
-import org.springframework.ai.tool.ToolCallback;
-import org.springframework.ai.tool.ToolCallbackProvider;
 import org.vaadin.firitin.components.messagelist.MarkdownMessage;
 import reactor.core.Disposable;
+import reactor.core.publisher.SignalType;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -68,7 +69,6 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static jm.kr.spring.ai.playground.service.chat.ChatHistory.TIMESTAMP;
@@ -92,20 +92,26 @@ public class ChatContentView extends VerticalLayout {
     private final MultiSelectComboBox<VectorStoreDocumentInfo> documentsComboBox;
     private final MultiSelectComboBox<McpServerInfo> mcpToolProviderComboBox;
     private final ChatService chatService;
+    private final ChatHistoryService chatHistoryService;
     private final Consumer<ChatHistory> completeChatHistoryConsumer;
     private final PersistentUiDataStorage persistentUiDataStorage;
     private final ChatHistory chatHistory;
     private final McpClientService mcpClientService;
+    private final ChatStreamPushService chatStreamPushService;
+    private final ChatMessageWindow chatMessageWindow;
     private Disposable currentStream;
 
     public ChatContentView(PersistentUiDataStorage persistentUiDataStorage, ChatService chatService,
-            ChatHistory chatHistory, Consumer<ChatHistory> completeChatHistoryConsumer,
-            McpClientService mcpClientService) {
+            ChatHistoryService chatHistoryService, ChatHistory chatHistory,
+            Consumer<ChatHistory> completeChatHistoryConsumer, McpClientService mcpClientService,
+            ChatStreamPushService chatStreamPushService) {
         this.persistentUiDataStorage = persistentUiDataStorage;
         this.chatHistory = chatHistory;
         this.chatService = chatService;
+        this.chatHistoryService = chatHistoryService;
         this.completeChatHistoryConsumer = completeChatHistoryConsumer;
         this.mcpClientService = mcpClientService;
+        this.chatStreamPushService = chatStreamPushService;
 
         this.messageListLayout = new VerticalLayout();
         this.messageListLayout.setMargin(false);
@@ -226,15 +232,14 @@ public class ChatContentView extends VerticalLayout {
         getStyle().set("overflow", "hidden").set("display", "flex")
                 .set("flex-direction", "column").set("align-items", "stretch");
 
-        List<Message> messages = this.chatHistory.messagesSupplier().get();
-        if (messages.isEmpty())
-            return;
         ChatContentManager chatContentManager = new ChatContentManager(null, null, zoneIdFuture,
                 this.chatHistory);
-        messages.forEach(message -> chatContentManager.initMarkdownMessage(this.messageListLayout, message,
-                message.getMessageType()));
-
-        this.messageListLayout.getChildren().toList().getLast().scrollIntoView(DefaultScrollOptions);
+        this.chatMessageWindow = new ChatMessageWindow(this.messageListLayout, this.messageScroller,
+                () -> chatHistoryService.getConversationMessages(this.chatHistory.conversationId()),
+                message -> chatContentManager.buildMessageComponents(message, message.getMessageType()));
+        if (this.chatHistory.messagesSupplier().get().isEmpty())
+            return;
+        this.chatMessageWindow.showLatest();
         this.persistentUiDataStorage.loadData(LAST_SELECTED_RAG_DOC_INFO_IDS, new TypeReference<Set<String>>() {},
                 docInfoIds -> {
                     if (docInfoIds != null && !docInfoIds.isEmpty()) {
@@ -258,6 +263,7 @@ public class ChatContentView extends VerticalLayout {
     }
 
     private Disposable inputEvent(CompletableFuture<ZoneId> zoneIdFuture, String userPrompt) {
+        this.chatMessageWindow.startStreaming();
         ChatContentManager chatContentManager = new ChatContentManager(this.messageListLayout, userPrompt, zoneIdFuture,
                 this.chatHistory);
         this.messageListLayout.add(chatContentManager.botResponse);
@@ -266,27 +272,43 @@ public class ChatContentView extends VerticalLayout {
                 this.documentsComboBox.getSelectedItems().stream().map(VectorStoreDocumentInfo::docInfoId).toList();
         this.persistentUiDataStorage.saveData(LAST_SELECTED_RAG_DOC_INFO_IDS, selectedDocInfoIds);
         Set<McpServerInfo> selectedItems = this.mcpToolProviderComboBox.getSelectedItems();
-        List<ToolCallback> toolCallbacks = selectedItems.stream().map(this.mcpClientService::buildToolCallbackProviders)
-                .flatMap(List::stream).map(ToolCallbackProvider::getToolCallbacks).flatMap(Arrays::stream).toList();
         this.persistentUiDataStorage.saveData(LAST_SELECTED_MCP_CONNECTION_INFOS,
                 selectedItems.stream().collect(Collectors.groupingBy(McpServerInfo::mcpTransportType,
                         Collectors.mapping(McpServerInfo::serverName, Collectors.toList()))));
 
         UI ui = VaadinUtils.getUi(this);
-        return this.chatService.stream(this.chatHistory, userPrompt,
-                        this.chatService.buildFilterExpression(selectedDocInfoIds), this.completeChatHistoryConsumer,
-                        toolCallbacks, o -> ui.access(() -> chatContentManager.appendMcpToolProcessMessage(o)),
-                        o -> ui.access(() -> chatContentManager.appendBotThinkProcessMessage(o)))
-                .doFinally(signalType -> ui.access(() -> doFinally(chatContentManager)))
-                .doOnError(throwable -> ui.access(() -> {
-                    VaadinUtils.showErrorNotification(throwable.getMessage());
-                    doFinally(chatContentManager);
-                }))
-                .subscribe(content -> ui.access(() -> chatContentManager.append(content)));
+        ChatStreamCoalescer chatStreamCoalescer =
+                this.chatStreamPushService.newCoalescer(ui, chatContentManager::appendFrame);
+        return this.mcpClientService.getToolCallbacksAsync(selectedItems)
+                .flatMapMany(toolCallbacks -> this.chatService.stream(this.chatHistory, userPrompt,
+                        this.chatService.buildFilterExpression(selectedDocInfoIds), null, toolCallbacks,
+                        o -> chatStreamCoalescer.offer(ChunkKind.MCP_TOOL,
+                                chatContentManager.recordMcpToolProcess(o)),
+                        o -> chatStreamCoalescer.offer(ChunkKind.THINK, chatContentManager.recordThinkProcess(o))))
+                .doOnError(throwable -> ui.access(() -> VaadinUtils.showErrorNotification(throwable.getMessage())))
+                .doFinally(signalType -> {
+                    chatStreamCoalescer.close();
+                    // the turn is completed on the stream's thread, so it is journaled even if the UI is gone
+                    List<Message> turnMessages = List.of();
+                    try {
+                        turnMessages = this.chatHistoryService.getOpenTurnMessages(getConversationId());
+                        chatContentManager.completeTurn(turnMessages);
+                        if (SignalType.ON_COMPLETE.equals(signalType) || SignalType.CANCEL.equals(signalType))
+                            this.completeChatHistoryConsumer.accept(this.chatHistory);
+                    } finally {
+                        List<Message> finishedTurnMessages = turnMessages;
+                        ui.access(() -> doFinally(chatContentManager, finishedTurnMessages));
+                    }
+                })
+                .subscribe(content -> {
+                    chatContentManager.recordResponse();
+                    chatStreamCoalescer.offer(ChunkKind.CONTENT, content);
+                });
     }
 
-    private void doFinally(ChatContentManager chatContentManager) {
+    private void doFinally(ChatContentManager chatContentManager, List<Message> turnMessages) {
         chatContentManager.doFinally();
+        this.chatMessageWindow.finishStreaming(turnMessages);
         this.messageScroller.scrollToBottom();
         this.userPromptTextArea.setReadOnly(false);
         this.userPromptTextArea.setEnabled(true);
@@ -316,25 +338,24 @@ public class ChatContentView extends VerticalLayout {
                 DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
         private final CompletableFuture<ZoneId> zoneIdFuture;
-        private final Supplier<List<Message>> messagesSupplier;
         private VerticalLayout messageListLayout;
         private long startTimestamp;
         private long responseTimestamp;
         private MarkdownMessage botResponse;
         private boolean isFirstAssistantResponse;
         private MarkdownMessage botThinkResponse;
-        private long botThinkTimestamp;
         private Details thinkDetails;
-        private StringBuilder thinkProcessMessageBuilder;
         private MarkdownMessage mcpToolProcessMessage;
-        private long mcpToolProcessTimestamp;
         private Details mcpToolProcessDetails;
+        // recorded on the stream's thread as the turn runs, the turn's metadata does not wait for the UI
+        private long botThinkTimestamp;
+        private StringBuilder thinkProcessMessageBuilder;
+        private long mcpToolProcessTimestamp;
         private StringBuilder mcpToolProcessMessagesBuilder;
 
         private ChatContentManager(VerticalLayout messageListLayout, String userPrompt,
                 CompletableFuture<ZoneId> zoneIdFuture, ChatHistory chatHistory) {
             this.zoneIdFuture = zoneIdFuture;
-            this.messagesSupplier = chatHistory.messagesSupplier();
             if (Objects.isNull(messageListLayout))
                 return;
             this.messageListLayout = messageListLayout;
@@ -348,20 +369,51 @@ public class ChatContentView extends VerticalLayout {
             this.isFirstAssistantResponse = true;
         }
 
-        public void appendMcpToolProcessMessage(Object content) {
+        public void appendFrame(List<StreamChunk> frame) {
+            frame.forEach(streamChunk -> {
+                switch (streamChunk.kind()) {
+                    case CONTENT -> append(streamChunk.text(), streamChunk.offeredMillis());
+                    case THINK -> appendBotThinkProcessMessage(streamChunk.text(), streamChunk.offeredMillis());
+                    case MCP_TOOL -> appendMcpToolProcessMessage(streamChunk.text(), streamChunk.offeredMillis());
+                }
+            });
+        }
+
+        public synchronized String recordMcpToolProcess(Object content) {
             long timestamp = System.currentTimeMillis();
             String markdownSnippet = getLocalDateTime(timestamp) + " : " + content.toString() + "\n\n";
-            getMcpToolProcessMessage(this.messageListLayout, timestamp).appendMarkdown(markdownSnippet);
-            if (Objects.isNull(this.mcpToolProcessMessagesBuilder))
+            if (Objects.isNull(this.mcpToolProcessMessagesBuilder)) {
+                this.mcpToolProcessTimestamp = timestamp;
                 this.mcpToolProcessMessagesBuilder = new StringBuilder();
+            }
             this.mcpToolProcessMessagesBuilder.append(markdownSnippet);
+            return markdownSnippet;
+        }
+
+        public synchronized String recordThinkProcess(Object content) {
+            String markdownSnippet = content.toString();
+            if (Objects.isNull(this.thinkProcessMessageBuilder)) {
+                this.botThinkTimestamp = System.currentTimeMillis();
+                this.thinkProcessMessageBuilder = new StringBuilder();
+            }
+            this.thinkProcessMessageBuilder.append(markdownSnippet);
+            return markdownSnippet;
+        }
+
+        public synchronized void recordResponse() {
+            if (this.responseTimestamp == 0)
+                this.responseTimestamp = System.currentTimeMillis();
+        }
+
+        public void appendMcpToolProcessMessage(String markdownSnippet, long timestamp) {
+            getMcpToolProcessMessage(this.messageListLayout, timestamp)
+                    .appendMarkdown(markdownSnippet);
             this.mcpToolProcessMessage.scrollIntoView(DefaultScrollOptions);
         }
 
         private MarkdownMessage getMcpToolProcessMessage(VerticalLayout messageListLayout, long timestamp) {
             if (Objects.isNull(this.mcpToolProcessMessage)) {
-                this.mcpToolProcessTimestamp = timestamp;
-                this.mcpToolProcessMessage = buildMarkdownMessage(null, MCP_TOOL_PROCESS, this.mcpToolProcessTimestamp);
+                this.mcpToolProcessMessage = buildMarkdownMessage(null, MCP_TOOL_PROCESS, timestamp);
                 this.botResponse.removeFromParent();
                 messageListLayout.add(
                         buildProcessDetails(MCP_TOOL_PROCESS, getMcpToolProcessDetails(), this.mcpToolProcessMessage),
@@ -370,20 +422,15 @@ public class ChatContentView extends VerticalLayout {
             return this.mcpToolProcessMessage;
         }
 
-        public void appendBotThinkProcessMessage(Object content) {
-            long timestamp = System.currentTimeMillis();
+        public void appendBotThinkProcessMessage(Object content, long timestamp) {
             String markdownSnippet = content.toString();
             getBotThinkResponse(this.messageListLayout, timestamp).appendMarkdown(markdownSnippet);
-            if (Objects.isNull(this.thinkProcessMessageBuilder))
-                this.thinkProcessMessageBuilder = new StringBuilder();
-            this.thinkProcessMessageBuilder.append(markdownSnippet);
             this.botThinkResponse.scrollIntoView(DefaultScrollOptions);
         }
 
         private MarkdownMessage getBotThinkResponse(VerticalLayout messageListLayout, long timestamp) {
             if (Objects.isNull(this.botThinkResponse)) {
-                this.botThinkTimestamp = timestamp;
-                this.botThinkResponse = buildMarkdownMessage(null, THINK_PROCESS, this.botThinkTimestamp);
+                this.botThinkResponse = buildMarkdownMessage(null, THINK_PROCESS, timestamp);
                 this.botResponse.removeFromParent();
                 messageListLayout.add(
                         buildProcessDetails(THINK_PROCESS, getThinkDetails(), this.botThinkResponse),
@@ -412,7 +459,7 @@ public class ChatContentView extends VerticalLayout {
             return this.mcpToolProcessDetails;
         }
 
-        private void initMarkdownMessage(VerticalLayout messageListLayout, Message message, MessageType messageType) {
+        private List<Component> buildMessageComponents(Message message, MessageType messageType) {
             String text = message.getText();
             Map<String, Object> metadata = message.getMetadata();
 
@@ -435,10 +482,11 @@ public class ChatContentView extends VerticalLayout {
                 details.setOpened(false);
                 components.add(new Pair<>(mcpToolProcessTimestamp, details));
             }
-            components.stream().sorted(Comparator.comparing(Pair::getFirst)).map(Pair::getSecond)
-                    .forEach(messageListLayout::add);
-            messageListLayout.add(
+            List<Component> messageComponents = new ArrayList<>(
+                    components.stream().sorted(Comparator.comparing(Pair::getFirst)).map(Pair::getSecond).toList());
+            messageComponents.add(
                     buildMarkdownMessage(text, messageType, Long.parseLong(metadata.get(TIMESTAMP).toString())));
+            return messageComponents;
         }
 
         private MarkdownMessage buildMarkdownMessage(String message, MessageType messageType, long epochMillis) {
@@ -476,36 +524,36 @@ public class ChatContentView extends VerticalLayout {
                     this.zoneIdFuture.getNow(ZoneId.systemDefault()));
         }
 
-        public void append(String content) {
+        public void append(String content, long timestamp) {
             if (this.isFirstAssistantResponse)
-                initBotResponse(System.currentTimeMillis());
+                initBotResponse(timestamp);
             this.botResponse.removeClassName("blink");
             this.botResponse.appendMarkdown(content);
             this.botResponse.getElement().scrollIntoView(DefaultScrollOptions);
         }
 
         private void initBotResponse(long epochMillis) {
-            this.responseTimestamp = epochMillis;
-            this.botResponse.getElement().setProperty("time", getFormattedLocalDateTime(this.responseTimestamp));
+            this.botResponse.getElement().setProperty("time", getFormattedLocalDateTime(epochMillis));
             this.botResponse.removeClassName("blink");
             this.isFirstAssistantResponse = false;
         }
 
-        public void doFinally() {
-            Optional<List<Message>> messageList =
-                    Optional.of(this.messagesSupplier.get()).filter(Predicate.not(List::isEmpty))
-                            .map(list -> list.subList(Math.max(0, list.size() - 2), list.size()));
-            messageList.map(List::getFirst).filter(message -> USER.equals(message.getMessageType()))
+        /**
+         * Puts the turn's timestamps and its think and tool process on its messages. Runs on the stream's thread
+         * before the turn is handed over, whether the UI is still attached or not.
+         */
+        public synchronized void completeTurn(List<Message> turnMessages) {
+            turnMessages.stream().filter(message -> USER.equals(message.getMessageType())).findFirst()
                     .map(Message::getMetadata).ifPresent(metadata -> updateMetadata(metadata, this.startTimestamp));
-            Optional<Map<String, Object>> metadataAsOpt = messageList.map(List::getLast).map(Message::getMetadata);
+            Optional<Map<String, Object>> metadataAsOpt = Optional.of(turnMessages).filter(Predicate.not(List::isEmpty))
+                    .map(List::getLast).filter(message -> !USER.equals(message.getMessageType()))
+                    .map(Message::getMetadata);
 
             if (Objects.nonNull(this.thinkProcessMessageBuilder)) {
                 metadataAsOpt.ifPresent(metadata -> {
                     metadata.put(THINK_PROCESS_TIMESTAMP, this.botThinkTimestamp);
                     metadata.put(THINK_PROCESS_MESSAGES, this.thinkProcessMessageBuilder.toString());
                 });
-                this.thinkDetails = null;
-                this.botThinkResponse = null;
                 this.thinkProcessMessageBuilder = null;
             }
             if (Objects.nonNull(this.mcpToolProcessMessagesBuilder)) {
@@ -513,11 +561,16 @@ public class ChatContentView extends VerticalLayout {
                     metadata.put(MCP_TOOL_PROCESS_TIMESTAMP, this.mcpToolProcessTimestamp);
                     metadata.put(MCP_TOOL_PROCESS_MESSAGES, this.mcpToolProcessMessagesBuilder.toString());
                 });
-                this.mcpToolProcessDetails = null;
-                this.mcpToolProcessMessage = null;
                 this.mcpToolProcessMessagesBuilder = null;
             }
             metadataAsOpt.ifPresent(metadata -> updateMetadata(metadata, this.responseTimestamp));
+        }
+
+        public void doFinally() {
+            this.thinkDetails = null;
+            this.botThinkResponse = null;
+            this.mcpToolProcessDetails = null;
+            this.mcpToolProcessMessage = null;
             this.botResponse.removeClassName("blink");
             this.botResponse.scrollIntoView();
         }
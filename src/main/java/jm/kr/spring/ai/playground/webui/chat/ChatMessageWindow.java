@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.webui.chat;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ScrollOptions;
+import com.vaadin.flow.component.orderedlayout.Scroller;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps only a window of the conversation as live components. The latest page is rendered first; scrolling to the
+ * top renders the previous page and scrolling to the bottom the next one, and turns beyond
+ * {@link #MAX_LIVE_MESSAGES} on the other side of the window are removed again. The messages are read only when the
+ * latest page is shown; a finished stream appends its turn, so neither scrolling nor streaming goes back to the
+ * history service.
+ */
+public class ChatMessageWindow {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_LIVE_MESSAGES = 60;
+    private static final int SCROLL_EDGE_PX = 80;
+    private static final int SCROLL_THROTTLE_MILLIS = 300;
+
+    private static final ScrollOptions StartScrollOptions = new ScrollOptions();
+    private static final ScrollOptions EndScrollOptions = new ScrollOptions();
+    static {
+        StartScrollOptions.setBlock(ScrollOptions.Alignment.START);
+        EndScrollOptions.setBlock(ScrollOptions.Alignment.END);
+        EndScrollOptions.setInline(ScrollOptions.Alignment.NEAREST);
+    }
+
+    private record RenderedTurn(int fromIndex, int toIndex, List<Component> components) {
+        private int messageCount() {
+            return this.toIndex - this.fromIndex;
+        }
+    }
+
+    private final VerticalLayout messageListLayout;
+    private final Supplier<List<Message>> messagesSupplier;
+    private final Function<Message, List<Component>> messageRenderer;
+    private final Deque<RenderedTurn> renderedTurns;
+    private List<Message> messages;
+    private boolean streaming;
+
+    public ChatMessageWindow(VerticalLayout messageListLayout, Scroller messageScroller,
+            Supplier<List<Message>> messagesSupplier, Function<Message, List<Component>> messageRenderer) {
+        this.messageListLayout = messageListLayout;
+        this.messagesSupplier = messagesSupplier;
+        this.messageRenderer = messageRenderer;
+        this.renderedTurns = new ArrayDeque<>();
+        this.messages = List.of();
+        messageScroller.getElement().addEventListener("scroll", event -> loadEarlier())
+                .setFilter("element.scrollTop < " + SCROLL_EDGE_PX).throttle(SCROLL_THROTTLE_MILLIS);
+        messageScroller.getElement().addEventListener("scroll", event -> loadLater())
+                .setFilter("element.scrollHeight - element.scrollTop - element.clientHeight < " + SCROLL_EDGE_PX)
+                .throttle(SCROLL_THROTTLE_MILLIS);
+    }
+
+    public void showLatest() {
+        this.messageListLayout.removeAll();
+        this.renderedTurns.clear();
+        this.messages = this.messagesSupplier.get();
+        for (int i = Math.max(0, this.messages.size() - PAGE_SIZE); i < this.messages.size(); i++)
+            addLast(render(i));
+        if (!this.renderedTurns.isEmpty())
+            this.renderedTurns.getLast().components().getLast().scrollIntoView(EndScrollOptions);
+    }
+
+    public boolean isShowingLatest() {
+        return this.renderedTurns.isEmpty() ||
+                this.renderedTurns.getLast().toIndex() >= this.messages.size();
+    }
+
+    public void startStreaming() {
+        if (!isShowingLatest())
+            showLatest();
+        this.streaming = true;
+    }
+
+    /**
+     * Appends the finished turn's messages and tracks the components the stream added below the window as one turn.
+     * Messages of the turn that are already shown, left open by a stream that did not complete, are not repeated.
+     */
+    public void finishStreaming(List<Message> turnMessages) {
+        this.streaming = false;
+        Set<Message> shownMessages = Collections.newSetFromMap(new IdentityHashMap<>());
+        shownMessages.addAll(this.messages.subList(Math.max(0, this.messages.size() - PAGE_SIZE),
+                this.messages.size()));
+        List<Message> messages = new ArrayList<>(this.messages);
+        turnMessages.stream().filter(message -> !shownMessages.contains(message)).forEach(messages::add);
+        this.messages = messages;
+        Set<Component> trackedComponents = this.renderedTurns.stream()
+                .flatMap(renderedTurn -> renderedTurn.components().stream()).collect(Collectors.toSet());
+        List<Component> streamedComponents = this.messageListLayout.getChildren()
+                .filter(component -> !trackedComponents.contains(component)).toList();
+        if (streamedComponents.isEmpty())
+            return;
+        int fromIndex = this.renderedTurns.isEmpty() ? 0 : this.renderedTurns.getLast().toIndex();
+        this.renderedTurns.addLast(new RenderedTurn(fromIndex,
+                Math.max(fromIndex, this.messages.size()), streamedComponents));
+        while (liveMessageCount() > MAX_LIVE_MESSAGES && this.renderedTurns.size() > 1)
+            remove(this.renderedTurns.removeFirst());
+    }
+
+    void loadEarlier() {
+        if (this.renderedTurns.isEmpty() || this.renderedTurns.getFirst().fromIndex() == 0)
+            return;
+        Component anchor = this.renderedTurns.getFirst().components().getFirst();
+        int toIndex = this.renderedTurns.getFirst().fromIndex();
+        List<RenderedTurn> earlierTurns = new ArrayList<>();
+        int componentIndex = 0;
+        for (int i = Math.max(0, toIndex - PAGE_SIZE); i < toIndex; i++) {
+            RenderedTurn renderedTurn = render(i);
+            for (Component component : renderedTurn.components())
+                this.messageListLayout.addComponentAtIndex(componentIndex++, component);
+            earlierTurns.add(renderedTurn);
+        }
+        earlierTurns.reversed().forEach(this.renderedTurns::addFirst);
+        // the turns being streamed into stay until the stream finishes
+        while (!this.streaming && liveMessageCount() > MAX_LIVE_MESSAGES && this.renderedTurns.size() > 1)
+            remove(this.renderedTurns.removeLast());
+        anchor.scrollIntoView(StartScrollOptions);
+    }
+
+    void loadLater() {
+        if (this.streaming || isShowingLatest())
+            return;
+        int fromIndex = this.renderedTurns.getLast().toIndex();
+        for (int i = fromIndex; i < Math.min(this.messages.size(), fromIndex + PAGE_SIZE); i++)
+            addLast(render(i));
+        while (liveMessageCount() > MAX_LIVE_MESSAGES && this.renderedTurns.size() > 1)
+            remove(this.renderedTurns.removeFirst());
+    }
+
+    private RenderedTurn render(int index) {
+        return new RenderedTurn(index, index + 1, this.messageRenderer.apply(this.messages.get(index)));
+    }
+
+    private void addLast(RenderedTurn renderedTurn) {
+        renderedTurn.components().forEach(this.messageListLayout::add);
+        this.renderedTurns.addLast(renderedTurn);
+    }
+
+    private void remove(RenderedTurn renderedTurn) {
+        renderedTurn.components().forEach(this.messageListLayout::remove);
+    }
+
+    private int liveMessageCount() {
+        return this.renderedTurns.stream().mapToInt(RenderedTurn::messageCount).sum();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.webui.chat;
+
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Collects the streamed chat output into frames. Chunks are handed to the frame consumer together, once per
+ * {@code frameMillis} or as soon as {@code maxFrameChars} characters are pending, instead of one UI push per token.
+ * Consecutive chunks of the same kind are merged, and the order of the kinds is kept. A merged chunk carries the
+ * time its first part was offered, so the view can stamp it with when it arrived rather than when it was drawn.
+ */
+public class ChatStreamCoalescer implements AutoCloseable {
+
+    public enum ChunkKind {CONTENT, THINK, MCP_TOOL}
+
+    public record StreamChunk(ChunkKind kind, String text, int parts, long offeredMillis) {}
+
+    private static class PendingChunk {
+        private final ChunkKind kind;
+        private final StringBuilder text;
+        private final long offeredMillis;
+        private int parts;
+
+        private PendingChunk(ChunkKind kind, long offeredMillis) {
+            this.kind = kind;
+            this.text = new StringBuilder();
+            this.offeredMillis = offeredMillis;
+        }
+    }
+
+    private final long frameMillis;
+    private final int maxFrameChars;
+    private final Consumer<List<StreamChunk>> frameConsumer;
+    private final LongSupplier clock;
+    private final List<PendingChunk> pendingChunks;
+    private int pendingChars;
+    private Disposable scheduledFlush;
+    private boolean closed;
+
+    public ChatStreamCoalescer(long frameMillis, int maxFrameChars, Consumer<List<StreamChunk>> frameConsumer) {
+        this(frameMillis, maxFrameChars, frameConsumer, System::currentTimeMillis);
+    }
+
+    ChatStreamCoalescer(long frameMillis, int maxFrameChars, Consumer<List<StreamChunk>> frameConsumer,
+            LongSupplier clock) {
+        this.frameMillis = frameMillis;
+        this.maxFrameChars = maxFrameChars;
+        this.frameConsumer = frameConsumer;
+        this.clock = clock;
+        this.pendingChunks = new ArrayList<>();
+    }
+
+    public synchronized void offer(ChunkKind kind, String text) {
+        if (this.closed || Objects.isNull(text) || text.isEmpty())
+            return;
+        PendingChunk pendingChunk = this.pendingChunks.isEmpty() ? null : this.pendingChunks.getLast();
+        if (Objects.isNull(pendingChunk) || pendingChunk.kind != kind)
+            this.pendingChunks.add(pendingChunk = new PendingChunk(kind, this.clock.getAsLong()));
+        pendingChunk.text.append(text);
+        pendingChunk.parts++;
+        this.pendingChars += text.length();
+        if (this.frameMillis <= 0 || this.pendingChars >= this.maxFrameChars)
+            flush();
+        else if (Objects.isNull(this.scheduledFlush))
+            this.scheduledFlush = Schedulers.parallel().schedule(this::flush, this.frameMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hands the pending chunks to the frame consumer. The consumer runs under the lock so frames keep their order.
+     */
+    public synchronized void flush() {
+        if (Objects.nonNull(this.scheduledFlush)) {
+            this.scheduledFlush.dispose();
+            this.scheduledFlush = null;
+        }
+        if (this.pendingChunks.isEmpty())
+            return;
+        List<StreamChunk> frame = this.pendingChunks.stream()
+                .map(pendingChunk -> new StreamChunk(pendingChunk.kind, pendingChunk.text.toString(),
+                        pendingChunk.parts, pendingChunk.offeredMillis)).toList();
+        this.pendingChunks.clear();
+        this.pendingChars = 0;
+        this.frameConsumer.accept(frame);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        this.closed = true;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.webui.chat;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Chat;
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.StreamFrame;
+import jm.kr.spring.ai.playground.webui.chat.ChatStreamCoalescer.StreamChunk;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Creates the {@link ChatStreamCoalescer} of a chat stream and counts the UI pushes it causes per Vaadin session.
+ */
+@Service
+public class ChatStreamPushService implements VaadinServiceInitListener {
+
+    public record ChatStreamPushStats(String sessionId, long chunks, long pushes, long chars, double chunksPerPush,
+                                      long pushesLastSecond, long peakPushesPerSecond) {}
+
+    private static class PushCounters {
+        private final String sessionId = UUID.randomUUID().toString();
+        private long chunks;
+        private long pushes;
+        private long chars;
+        private long currentSecond;
+        private long pushesInCurrentSecond;
+        private long pushesLastSecond;
+        private long peakPushesPerSecond;
+
+        private synchronized void record(List<StreamChunk> frame) {
+            long second = System.currentTimeMillis() / 1000;
+            if (second != this.currentSecond) {
+                this.pushesLastSecond = second == this.currentSecond + 1 ? this.pushesInCurrentSecond : 0;
+                this.currentSecond = second;
+                this.pushesInCurrentSecond = 0;
+            }
+            this.pushes++;
+            this.pushesInCurrentSecond++;
+            this.peakPushesPerSecond = Math.max(this.peakPushesPerSecond, this.pushesInCurrentSecond);
+            frame.forEach(streamChunk -> {
+                this.chunks += streamChunk.parts();
+                this.chars += streamChunk.text().length();
+            });
+        }
+
+        private synchronized ChatStreamPushStats toStats() {
+            return new ChatStreamPushStats(this.sessionId, this.chunks, this.pushes, this.chars,
+                    this.pushes == 0 ? 0 : (double) this.chunks / this.pushes,
+                    System.currentTimeMillis() / 1000 == this.currentSecond + 1 ? this.pushesInCurrentSecond :
+                            this.pushesLastSecond, this.peakPushesPerSecond);
+        }
+    }
+
+    private final long frameMillis;
+    private final int maxFrameChars;
+    private final Map<String, PushCounters> sessionPushCounters;
+
+    public ChatStreamPushService(SpringAiPlaygroundOptions playgroundOptions) {
+        Optional<StreamFrame> streamFrame =
+                Optional.ofNullable(playgroundOptions.chat()).map(Chat::streamFrame);
+        this.frameMillis = streamFrame.map(StreamFrame::frameMillis).orElse(50L);
+        this.maxFrameChars = streamFrame.map(StreamFrame::maxFrameChars).orElse(1024);
+        this.sessionPushCounters = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.getSource().addSessionDestroyListener(sessionDestroyEvent -> Optional.ofNullable(
+                        sessionDestroyEvent.getSession().getAttribute(PushCounters.class))
+                .ifPresent(pushCounters -> this.sessionPushCounters.remove(pushCounters.sessionId)));
+    }
+
+    public ChatStreamCoalescer newCoalescer(UI ui, Consumer<List<StreamChunk>> frameConsumer) {
+        // counters live in the Vaadin session under a random id, so stats never expose the real session id
+        PushCounters pushCounters = ui.getSession().getAttribute(PushCounters.class);
+        if (Objects.isNull(pushCounters)) {
+            pushCounters = new PushCounters();
+            ui.getSession().setAttribute(PushCounters.class, pushCounters);
+            this.sessionPushCounters.put(pushCounters.sessionId, pushCounters);
+        }
+        PushCounters sessionCounters = pushCounters;
+        return new ChatStreamCoalescer(this.frameMillis, this.maxFrameChars, frame -> {
+            sessionCounters.record(frame);
+            ui.access(() -> frameConsumer.accept(frame));
+        });
+    }
+
+    public List<ChatStreamPushStats> getStats() {
+        return this.sessionPushCounters.values().stream().map(PushCounters::toStats)
+                .sorted(Comparator.comparing(ChatStreamPushStats::sessionId)).toList();
+    }
+}
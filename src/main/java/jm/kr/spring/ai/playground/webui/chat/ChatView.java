@@ -70,6 +70,7 @@ public class ChatView extends Div {
     private final Consumer<ChatHistory> completeChatHistoryConsumer;
     private final ChatHistoryService chatHistoryService;
     private final McpClientService mcpClientService;
+    private final ChatStreamPushService chatStreamPushService;
     private final ChatHistoryView chatHistoryView;
     private final SplitLayout splitLayout;
     private final VerticalLayout chatContentLayout;
@@ -78,11 +79,13 @@ public class ChatView extends Div {
     private ChatContentView chatContentView;
 
     public ChatView(PersistentUiDataStorage persistentUiDataStorage, ChatService chatService,
-            ChatHistoryService chatHistoryService, McpClientService mcpClientService) {
+            ChatHistoryService chatHistoryService, McpClientService mcpClientService,
+            ChatStreamPushService chatStreamPushService) {
         this.persistentUiDataStorage = persistentUiDataStorage;
         this.chatService = chatService;
         this.chatHistoryService = chatHistoryService;
         this.mcpClientService = mcpClientService;
+        this.chatStreamPushService = chatStreamPushService;
 
         PropertyChangeSupport chatHistoryChangeSupport = new PropertyChangeSupport(this);
         chatHistoryChangeSupport.addPropertyChangeListener(CHAT_HISTORY_SELECT_EVENT,
@@ -206,8 +209,9 @@ public class ChatView extends Div {
         if (Objects.isNull(chatHistory))
             return;
 
-        this.chatContentView = new ChatContentView(this.persistentUiDataStorage, this.chatService, chatHistory,
-                this.completeChatHistoryConsumer, this.mcpClientService);
+        this.chatContentView = new ChatContentView(this.persistentUiDataStorage, this.chatService,
+                this.chatHistoryService, chatHistory, this.completeChatHistoryConsumer, this.mcpClientService,
+                this.chatStreamPushService);
         VaadinUtils.getUi(this).access(() -> {
             this.chatContentLayout.removeAll();
             this.chatContentLayout.add(createChatContentHeader(chatHistory.chatOptions()), this.chatContentView);
@@ -27,7 +27,6 @@ import jm.kr.spring.ai.playground.service.mcp.client.McpClientService;
 import jm.kr.spring.ai.playground.webui.VaadinUtils;
 
 import java.beans.PropertyChangeSupport;
-import java.util.concurrent.CompletableFuture;
 
 public class McpContentView extends VerticalLayout {
 
@@ -49,10 +48,11 @@ public class McpContentView extends VerticalLayout {
         add(mcpServerConfigView);
 
         if (mcpClientService.isConnecting(this.mcpServerInfo))
-            CompletableFuture.supplyAsync(() -> mcpClientService.getToolListAsOpt(this.mcpServerInfo))
-                    .thenAccept(toolListAsOpt -> VaadinUtils.getUi(this).access(() ->
-                            toolListAsOpt.ifPresent(toolList ->
-                                    add(new McpServerInspectorView(this.mcpServerInfo, mcpClientService, toolList)))));
+            mcpClientService.getToolListAsync(this.mcpServerInfo)
+                    .subscribe(toolList -> VaadinUtils.getUi(this).access(() ->
+                                    add(new McpServerInspectorView(this.mcpServerInfo, mcpClientService, toolList))),
+                            throwable -> VaadinUtils.getUi(this).access(
+                                    () -> add(createErrorMcpServerInspectorView())));
         else
             add(createErrorMcpServerInspectorView());
     }
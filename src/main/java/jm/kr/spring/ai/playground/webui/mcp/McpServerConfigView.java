@@ -15,6 +15,7 @@
  */
 package jm.kr.spring.ai.playground.webui.mcp;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.dependency.NpmPackage;
@@ -114,12 +115,14 @@ public class McpServerConfigView extends VerticalLayout {
         addEditor(McpTransportType.STREAMABLE_HTTP, """
                 {
                    "url": "http://localhost:8080",
-                   "endpoint": "/mcp"
+                   "endpoint": "/mcp",
+                   "poolSize": 1
                  }""");
         addEditor(McpTransportType.SSE, """
                 {
                    "url": "http://localhost:8080",
-                   "sse-endpoint": "/sse"
+                   "sse-endpoint": "/sse",
+                   "poolSize": 1
                  }""");
         addEditor(McpTransportType.STDIO, """
                 {
@@ -253,13 +256,12 @@ public class McpServerConfigView extends VerticalLayout {
                         return;
                     }
 
-                    try {
-                        this.mcpClientService.startMcpClient(uiMcpServerInfo);
-                        this.mcpServerInfoChangeSupport.firePropertyChange(MCP_CONNECTION_CHANGE_EVENT,
-                                mcpServerInfo, uiMcpServerInfo);
-                    } catch (Exception e) {
-                        VaadinUtils.showErrorNotification("Failed to connect : " + e.getMessage());
-                    }
+                    UI ui = VaadinUtils.getUi(this);
+                    this.mcpClientService.startMcpClientAsync(uiMcpServerInfo).subscribe(null,
+                            e -> ui.access(() -> VaadinUtils.showErrorNotification(
+                                    "Failed to connect : " + e.getMessage())),
+                            () -> ui.access(() -> this.mcpServerInfoChangeSupport.firePropertyChange(
+                                    MCP_CONNECTION_CHANGE_EVENT, mcpServerInfo, uiMcpServerInfo)));
                 });
     }
 
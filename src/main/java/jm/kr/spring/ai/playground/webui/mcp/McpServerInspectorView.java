@@ -17,6 +17,7 @@ package jm.kr.spring.ai.playground.webui.mcp;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.dependency.CssImport;
@@ -36,6 +37,7 @@ import com.vaadin.flow.data.renderer.ComponentRenderer;
 import io.modelcontextprotocol.spec.McpSchema;
 import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
 import jm.kr.spring.ai.playground.service.mcp.client.McpClientService;
+import jm.kr.spring.ai.playground.webui.VaadinUtils;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -199,18 +201,16 @@ public class McpServerInspectorView extends VerticalLayout {
 
         writeLog("[%s] Executing %s result:%n".formatted(now(), tool.name()));
 
-        try {
-            String result = clientService
-                    .callTool(serverInfo, tool.name(), args, null)
-                    .map(McpSchema.CallToolResult::content)
-                    .map(Object::toString)
-                    .orElse("No result");
-            writeLog(result + System.lineSeparator());
-        } catch (Exception ex) {
-            writeLog("Error: " + ex.getMessage() + System.lineSeparator());
-        } finally {
-            writeLog(System.lineSeparator());
-        }
+        UI ui = VaadinUtils.getUi(this);
+        clientService
+                .callToolAsync(serverInfo, tool.name(), args, null)
+                .map(McpSchema.CallToolResult::content)
+                .map(Object::toString)
+                .defaultIfEmpty("No result")
+                .subscribe(result -> ui.access(() -> writeLog(result + System.lineSeparator() +
+                                System.lineSeparator())),
+                        ex -> ui.access(() -> writeLog("Error: " + ex.getMessage() + System.lineSeparator() +
+                                System.lineSeparator())));
     }
 
     private static TextArea createHistoryArea() {
@@ -111,14 +111,16 @@ public class JavascriptToolPlaygroundView extends VerticalLayout {
                  * It is NOT a browser or Node.js environment.
                  *
                  * Unavailable APIs:
-                 * - Browser APIs: fetch, XMLHttpRequest, DOM (window/document), timers, etc.
+                 * - Browser APIs: XMLHttpRequest, DOM (window/document), timers, etc.
                  * - Node.js APIs: require(), modules, process, built-in modules, etc.
                  *
                  * Available features:
                  * - Java interop via Java.type() is restricted to a safe allowlist (see application.yml)
                  * - Common utilities and HTTP client classes are allowed (e.g. java.util.*, java.net.http.HttpClient, ...)
+                 * - await fetch(url, {method, headers, body}) uses a shared keep-alive HTTP client (if network IO is allowed)
                  * - Dangerous operations (file I/O, system commands, reflection, etc.) are completely blocked
                  * - console.log output is captured and displayed in the Debug Console below
+                 * - progress(pct, msg) reports the progress of long-running tools to MCP clients and the chat
                  *
                  * Execution model:
                  * - Your script is executed in a sandboxed environment with strict security restrictions
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChatHistoryJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void testReplayKeepsLatestHistoryAndAllMessages() throws IOException {
+        ChatHistoryJournal chatHistoryJournal = new ChatHistoryJournal(this.journalDir, new ObjectMapper());
+        chatHistoryJournal.append("chat-001", Map.of("title", "First"), null, List.of(Map.of("text", "Hello!"),
+                Map.of("text", "Hi!")));
+        chatHistoryJournal.append("chat-001", Map.of("title", "Renamed"),
+                Map.of("text", "greetings", "summarizedMessages", 2), List.of());
+        chatHistoryJournal.append("chat-001", Map.of("title", "Renamed"), null, List.of(Map.of("text", "Bye!")));
+
+        ChatHistoryJournal.JournalReplay journalReplay =
+                chatHistoryJournal.replay("chat-001", null, 0).orElseThrow();
+        assertThat(journalReplay.journalId()).isNotBlank();
+        assertThat(journalReplay.size()).isEqualTo(chatHistoryJournal.size("chat-001"));
+        assertThat(journalReplay.historyMap()).containsEntry("title", "Renamed");
+        assertThat(journalReplay.summaryMap()).containsEntry("text", "greetings");
+        assertThat(journalReplay.messageMaps()).extracting(messageMap -> messageMap.get("text"))
+                .containsExactly("Hello!", "Hi!", "Bye!");
+        assertThat(chatHistoryJournal.getConversationIds()).containsExactly("chat-001");
+        assertThat(chatHistoryJournal.replay("chat-unknown", null, 0)).isEmpty();
+    }
+
+    @Test
+    void testReplayIgnoresLineCutOffByCrash() throws IOException {
+        ChatHistoryJournal chatHistoryJournal = new ChatHistoryJournal(this.journalDir, new ObjectMapper());
+        chatHistoryJournal.append("chat-001", Map.of("title", "First"), null, List.of(Map.of("text", "Hello!")));
+        Files.writeString(this.journalDir.resolve("chat-001.jsonl"), "{\"type\":\"message\",\"mess",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertThat(chatHistoryJournal.replay("chat-001", null, 0).orElseThrow().messageMaps()).hasSize(1);
+
+        chatHistoryJournal.append("chat-001", Map.of("title", "First"), null, List.of(Map.of("text", "Again!")));
+        assertThat(chatHistoryJournal.replay("chat-001", null, 0).orElseThrow().messageMaps())
+                .extracting(messageMap -> messageMap.get("text")).containsExactly("Hello!", "Again!");
+    }
+
+    @Test
+    void testLastHistoryReadsOnlyTheLatestHistoryRecord() throws IOException {
+        ChatHistoryJournal chatHistoryJournal = new ChatHistoryJournal(this.journalDir, new ObjectMapper());
+        chatHistoryJournal.append("chat-001", Map.of("title", "First"), null, List.of(Map.of("text", "Hello!")));
+        chatHistoryJournal.append("chat-001", Map.of("title", "Renamed"), null, List.of(Map.of("text", "Bye!")));
+        Path journalPath = this.journalDir.resolve("chat-001.jsonl");
+        assertThat(Files.readAllLines(journalPath).getLast()).startsWith("{\"type\":\"message\"");
+        Files.writeString(journalPath, "{\"type\":\"history\",\"ti", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        assertThat(chatHistoryJournal.lastHistory("chat-001").orElseThrow()).containsEntry("title", "Renamed");
+
+        chatHistoryJournal.append("chat-001", Map.of("title", "Final"), null, List.of(Map.of("text", "Again!")));
+        assertThat(chatHistoryJournal.lastHistory("chat-001").orElseThrow()).containsEntry("title", "Final");
+        assertThat(chatHistoryJournal.lastHistory("chat-unknown")).isEmpty();
+    }
+
+    @Test
+    void testReplaySkipsCompactedBytes() throws IOException {
+        ChatHistoryJournal chatHistoryJournal = new ChatHistoryJournal(this.journalDir, new ObjectMapper());
+        chatHistoryJournal.append("chat-001", Map.of("title", "First"), null, List.of(Map.of("text", "Hello!")));
+        ChatHistoryJournal.JournalReplay compacted = chatHistoryJournal.replay("chat-001", null, 0).orElseThrow();
+        chatHistoryJournal.append("chat-001", Map.of("title", "Second"), null, List.of(Map.of("text", "Bye!")));
+
+        ChatHistoryJournal.JournalReplay journalReplay =
+                chatHistoryJournal.replay("chat-001", compacted.journalId(), compacted.size()).orElseThrow();
+        assertThat(journalReplay.historyMap()).containsEntry("title", "Second");
+        assertThat(journalReplay.messageMaps()).extracting(messageMap -> messageMap.get("text"))
+                .containsExactly("Bye!");
+        assertThat(chatHistoryJournal.replay("chat-001", "other-journal", compacted.size()).orElseThrow()
+                .messageMaps()).hasSize(2);
+
+        chatHistoryJournal.delete("chat-001");
+        assertThat(chatHistoryJournal.getConversationIds()).isEmpty();
+    }
+}
@@ -28,6 +28,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -93,4 +96,52 @@ class ChatHistoryPersistenceServiceTest {
         assertThat(systemMessage.getMessageType()).isEqualTo(MessageType.SYSTEM);
         assertThat(systemMessage.getMetadata()).containsEntry("messageType", MessageType.SYSTEM);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLoadIndexWithoutMessages() throws IOException {
+        long timestamp = System.currentTimeMillis();
+        ChatHistory history = new ChatHistory("chat-001", "Indexed Chat", timestamp, timestamp, "",
+                new DefaultChatOptions(), () -> List.of(new UserMessage("Hello!"), new AssistantMessage("Hi!")));
+
+        chatHistoryPersistenceService.save(history);
+        chatHistoryPersistenceService.saveIndex(List.of(history.mutate("Renamed Chat", timestamp)));
+
+        ChatHistory indexedHistory = chatHistoryPersistenceService.loadIndex().stream()
+                .filter(chatHistory -> chatHistory.conversationId().equals("chat-001")).findFirst().orElseThrow();
+        assertThat(indexedHistory.title()).isEqualTo("Renamed Chat");
+        assertThat(indexedHistory.messagesSupplier().get()).isEmpty();
+        assertThat(chatHistoryPersistenceService.loadMessages("chat-001")).extracting(Message::getText)
+                .containsExactly("Hello!", "Hi!");
+        assertThat(chatHistoryPersistenceService.loadMessages("chat-unknown")).isEmpty();
+    }
+
+    @Test
+    void testLoadIndexReadsOnlyJournalsNewerThanTheIndex() throws IOException {
+        long timestamp = System.currentTimeMillis();
+        ChatHistory history = new ChatHistory("chat-journaled", "Journaled Chat", timestamp, timestamp, "",
+                new DefaultChatOptions(), List::of);
+        TokenBudgetChatMemory.Summary summary = new TokenBudgetChatMemory.Summary("greeted", 0);
+        chatHistoryPersistenceService.appendTurn(history, List.of(new UserMessage("Hello!")), summary);
+        ChatHistoryPersistenceService.SavedMessages savedMessages =
+                chatHistoryPersistenceService.loadSavedMessages("chat-journaled");
+        assertThat(savedMessages.messages()).hasSize(1);
+        assertThat(savedMessages.summary()).isEqualTo(summary);
+        chatHistoryPersistenceService.saveIndex(List.of(history.mutate("Indexed Chat", timestamp)));
+        Path indexFile = chatHistoryPersistenceService.getSaveDir().getParent().resolve("index.json");
+        Path journalFile = chatHistoryPersistenceService.getSaveDir().getParent().resolve("journal")
+                .resolve("chat-journaled.jsonl");
+        long indexMillis = Files.getLastModifiedTime(indexFile).toMillis();
+
+        Files.setLastModifiedTime(journalFile, FileTime.fromMillis(indexMillis - 10_000));
+        assertThat(findIndexed("chat-journaled").title()).isEqualTo("Indexed Chat");
+
+        Files.setLastModifiedTime(journalFile, FileTime.fromMillis(indexMillis + 10_000));
+        assertThat(findIndexed("chat-journaled").title()).isEqualTo("Journaled Chat");
+        chatHistoryPersistenceService.delete(history);
+    }
+
+    private ChatHistory findIndexed(String conversationId) throws IOException {
+        return chatHistoryPersistenceService.loadIndex().stream()
+                .filter(chatHistory -> chatHistory.conversationId().equals(conversationId)).findFirst().orElseThrow();
+    }
+}
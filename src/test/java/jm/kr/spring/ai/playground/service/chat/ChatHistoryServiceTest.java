@@ -21,9 +21,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.DefaultChatOptionsBuilder;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -31,6 +36,11 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static java.lang.Thread.sleep;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -38,9 +48,11 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest
 public class ChatHistoryServiceTest {
@@ -117,6 +129,110 @@ public class ChatHistoryServiceTest {
                         .findFirst().orElseThrow().title());
     }
 
+    @Test
+    void testConversationMessagesAddTheOpenTurnToTheSavedHistory() {
+        ChatHistory chatHistory = chatHistoryService.createChatHistory("systemPrompt", chatOptions);
+        String conversationId = chatHistory.conversationId();
+        this.chatMemory.add(conversationId, new UserMessage("Saved Message"));
+        chatHistoryService.updateChatHistory(chatHistory);
+        this.chatMemory.add(conversationId, new AssistantMessage("Open Turn Message"));
+
+        assertEquals(List.of("Saved Message", "Open Turn Message"),
+                chatHistoryService.getConversationMessages(conversationId).stream().map(Message::getText).toList());
+        chatHistoryService.deleteChatHistory(chatHistory);
+    }
+
+    @Test
+    void testSlowLoadDoesNotBlockOtherConversations() throws Exception {
+        ChatHistoryPersistenceService chatHistoryPersistenceService = mock(ChatHistoryPersistenceService.class);
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch slowLoadReleased = new CountDownLatch(1);
+        List<Message> slowSavedMessages = List.of(new UserMessage("Slow Message"));
+        List<Message> fastSavedMessages = List.of(new UserMessage("Fast Message"));
+        when(chatHistoryPersistenceService.loadSavedMessages("slow")).thenAnswer(invocation -> {
+            slowLoadStarted.countDown();
+            slowLoadReleased.await();
+            return new ChatHistoryPersistenceService.SavedMessages(slowSavedMessages, null);
+        });
+        when(chatHistoryPersistenceService.loadSavedMessages("fast"))
+                .thenReturn(new ChatHistoryPersistenceService.SavedMessages(fastSavedMessages, null));
+        when(chatHistoryPersistenceService.loadMessages("slow")).thenReturn(slowSavedMessages);
+        when(chatHistoryPersistenceService.loadMessages("fast")).thenReturn(fastSavedMessages);
+        ChatHistoryService service = new ChatHistoryService(MessageWindowChatMemory.builder().build(),
+                chatHistoryPersistenceService, this.playgroundOptions);
+
+        CompletableFuture<List<Message>> slowMessages =
+                CompletableFuture.supplyAsync(() -> service.getConversationMessages("slow"));
+        assertTrue(slowLoadStarted.await(5, TimeUnit.SECONDS));
+        List<Message> fastMessages = CompletableFuture.supplyAsync(() -> service.getConversationMessages("fast"))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals("Fast Message", fastMessages.getFirst().getText());
+        assertFalse(slowMessages.isDone());
+
+        slowLoadReleased.countDown();
+        assertEquals("Slow Message", slowMessages.get(5, TimeUnit.SECONDS).getFirst().getText());
+    }
+
+    @Test
+    void testReloadingAnOverBudgetHistoryRestoresItsSummary() throws Exception {
+        List<Message> savedMessages = IntStream.range(0, 20).mapToObj(i -> List.<Message>of(
+                new UserMessage("question " + i + " " + "word ".repeat(10)),
+                new AssistantMessage("answer " + i + " " + "word ".repeat(10)))).flatMap(List::stream).toList();
+        ChatHistoryPersistenceService chatHistoryPersistenceService = mock(ChatHistoryPersistenceService.class);
+        when(chatHistoryPersistenceService.loadSavedMessages("long")).thenReturn(new ChatHistoryPersistenceService
+                .SavedMessages(savedMessages, new TokenBudgetChatMemory.Summary("earlier summary", 30)));
+        List<String> transcripts = new CopyOnWriteArrayList<>();
+        try (TokenBudgetChatMemory tokenBudgetChatMemory = new TokenBudgetChatMemory(new InMemoryChatMemoryRepository(),
+                new JTokkitTokenCountEstimator(), 100, 20, (conversationId, prompt) -> {
+            transcripts.add(prompt.getLast().getText());
+            return "later summary";
+        })) {
+            ChatHistoryService service = new ChatHistoryService(tokenBudgetChatMemory, chatHistoryPersistenceService,
+                    this.playgroundOptions);
+            service.putIndexedChatHistory(new ChatHistory("long", "Long Chat", 0, 0, "", null, List::of));
+
+            List<Message> messages = service.getChatHistory("long").messagesSupplier().get();
+            assertTrue(messages.getLast().getText().startsWith("answer 19"));
+            // the 30 messages the saved summary replaces are not added again
+            assertTrue(messages.stream().noneMatch(message -> message.getText().matches("\\w+ ([0-9]|1[0-4]) .*")));
+            assertTrue(tokenBudgetChatMemory.get("long").getFirst().getText().contains("summary"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (tokenBudgetChatMemory.getStats().summarizing() > 0 && System.nanoTime() < deadline)
+                sleep(10);
+            assertFalse(transcripts.isEmpty());
+            assertTrue(transcripts.getFirst().contains("earlier summary"));
+            assertTrue(transcripts.stream().noneMatch(transcript -> transcript.contains("question 0 ")));
+            assertEquals(30 + tokenBudgetChatMemory.getStats().evictedMessages(),
+                    tokenBudgetChatMemory.getSummary("long").orElseThrow().summarizedMessages());
+        }
+    }
+
+    @Test
+    void testOversizedTurnIsJournaledWhole() {
+        ChatHistoryPersistenceService chatHistoryPersistenceService = mock(ChatHistoryPersistenceService.class);
+        when(chatHistoryPersistenceService.loadSavedMessages("oversized"))
+                .thenReturn(new ChatHistoryPersistenceService.SavedMessages(List.of(), null));
+        try (TokenBudgetChatMemory tokenBudgetChatMemory = new TokenBudgetChatMemory(new InMemoryChatMemoryRepository(),
+                new JTokkitTokenCountEstimator(), 100, 20, null)) {
+            ChatHistoryService service = new ChatHistoryService(tokenBudgetChatMemory, chatHistoryPersistenceService,
+                    this.playgroundOptions);
+            service.putIndexedChatHistory(new ChatHistory("oversized", null, 0, 0, "", null, List::of));
+            UserMessage pastedDocument = new UserMessage("summarize this " + "word ".repeat(500));
+            AssistantMessage answer = new AssistantMessage("It repeats one word.");
+            tokenBudgetChatMemory.add("oversized", pastedDocument);
+            tokenBudgetChatMemory.add("oversized", answer);
+            // the window evicted the turn's own prompt before the turn completed
+            assertEquals(List.of(answer), tokenBudgetChatMemory.get("oversized"));
+
+            ChatHistory updatedChatHistory = service.updateChatHistory(service.getChatHistory("oversized"));
+            assertEquals("summarize this word ...", updatedChatHistory.title());
+            ArgumentCaptor<List<Message>> turnMessages = ArgumentCaptor.forClass(List.class);
+            verify(chatHistoryPersistenceService).appendTurn(any(ChatHistory.class), turnMessages.capture(), any());
+            assertEquals(List.of(pastedDocument, answer), turnMessages.getValue());
+        }
+    }
+
     @Test
     public void testDeleteChatHistory() {
         ChatHistory chatHistory = chatHistoryService.createChatHistory("To Delete", chatOptions);
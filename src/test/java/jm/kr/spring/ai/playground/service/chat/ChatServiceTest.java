@@ -115,7 +115,8 @@ class ChatServiceTest {
         ChatClient chatClient = mock(ChatClient.class);
         SpringAiPlaygroundOptions playgroundOptions =
                 new SpringAiPlaygroundOptions(null, true, "", new SpringAiPlaygroundOptions.Chat("systemPrompt",
-                        List.of("MockLlmProvider"), (DefaultChatOptions) chatService.getDefaultOptions()));
+                        List.of("MockLlmProvider"), (DefaultChatOptions) chatService.getDefaultOptions(), null, null,
+                        null, null), null);
         ChatMemory chatMemory = mock(ChatMemory.class);
         ChatService service = new ChatService(chatModel, chatClient, playgroundOptions, vectorStoreDocumentService,
                 null);
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.chat;
+
+import jm.kr.spring.ai.playground.service.chat.TokenBudgetChatMemory.TokenBudgetChatMemoryStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBudgetChatMemoryTest {
+
+    private static TokenBudgetChatMemory newChatMemory(BiFunction<String, List<Message>, String> summarizer) {
+        return new TokenBudgetChatMemory(new InMemoryChatMemoryRepository(), new JTokkitTokenCountEstimator(), 100,
+                20, summarizer);
+    }
+
+    private static List<Message> turn(int index) {
+        return List.of(new UserMessage("question " + index + " " + "word ".repeat(10)),
+                new AssistantMessage("answer " + index + " " + "word ".repeat(10)));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void testEvictsOldestTurnsIntoSummaryWithoutWaiting() throws Exception {
+        CompletableFuture<Void> summaryGate = new CompletableFuture<>();
+        List<List<Message>> summaryPrompts = new CopyOnWriteArrayList<>();
+        try (TokenBudgetChatMemory chatMemory = newChatMemory((conversationId, prompt) -> {
+            summaryPrompts.add(prompt);
+            summaryGate.join();
+            return "user asked questions 0 and 1";
+        })) {
+            for (int i = 0; i < 4; i++)
+                chatMemory.add("chat", turn(i));
+
+            List<Message> messages = chatMemory.get("chat");
+            assertTrue(messages.size() < 8);
+            assertEquals(MessageType.USER, messages.getFirst().getMessageType());
+            assertTrue(messages.getLast().getText().startsWith("answer 3"));
+            await(() -> summaryPrompts.size() == 1);
+            assertTrue(summaryPrompts.getFirst().getLast().getText().contains("question 0"));
+
+            summaryGate.complete(null);
+            await(() -> TokenBudgetChatMemory.isSummary(chatMemory.get("chat").getFirst()));
+            assertTrue(chatMemory.get("chat").getFirst().getText().contains("user asked questions 0 and 1"));
+            await(() -> chatMemory.getStats().summarizing() == 0);
+            TokenBudgetChatMemoryStats stats = chatMemory.getStats();
+            assertTrue(stats.evictedMessages() > 0);
+            assertFalse(stats.summarizations() == 0);
+            assertEquals(0, stats.failedSummarizations());
+        }
+    }
+
+    @Test
+    void testSummarizesABulkEvictionInChunksThatFitTheBudget() throws Exception {
+        List<String> transcripts = new CopyOnWriteArrayList<>();
+        AtomicInteger summaries = new AtomicInteger();
+        try (TokenBudgetChatMemory chatMemory = newChatMemory((conversationId, prompt) -> {
+            transcripts.add(prompt.getLast().getText());
+            return "summary " + summaries.incrementAndGet();
+        })) {
+            chatMemory.add("chat", IntStream.range(0, 20).mapToObj(TokenBudgetChatMemoryTest::turn)
+                    .flatMap(List::stream).toList());
+            await(() -> chatMemory.getStats().summarizing() == 0);
+
+            assertTrue(transcripts.size() > 2);
+            for (String transcript : transcripts)
+                assertTrue(transcript.split("question ", -1).length - 1 <= 4, transcript);
+            assertTrue(transcripts.get(1).contains("summary 1"));
+            TokenBudgetChatMemory.Summary summary = chatMemory.getSummary("chat").orElseThrow();
+            assertEquals("summary " + transcripts.size(), summary.text());
+            assertEquals(chatMemory.getStats().evictedMessages(), summary.summarizedMessages());
+        }
+    }
+
+    @Test
+    void testKeepsPreviousSummaryWhenSummarizingFails() throws Exception {
+        try (TokenBudgetChatMemory chatMemory = newChatMemory((conversationId, prompt) -> {
+            throw new IllegalStateException("model unavailable");
+        })) {
+            for (int i = 0; i < 4; i++)
+                chatMemory.add("chat", turn(i));
+            await(() -> chatMemory.getStats().failedSummarizations() > 0 && chatMemory.getStats().summarizing() == 0);
+            assertFalse(chatMemory.get("chat").stream().anyMatch(TokenBudgetChatMemory::isSummary));
+            assertTrue(chatMemory.get("chat").getLast().getText().startsWith("answer 3"));
+        }
+    }
+
+    @Test
+    void testDropsEvictedMessagesWithoutSummarizerAndClears() {
+        try (TokenBudgetChatMemory chatMemory = newChatMemory(null)) {
+            for (int i = 0; i < 4; i++)
+                chatMemory.add("chat", turn(i));
+            assertTrue(chatMemory.get("chat").size() < 8);
+            assertEquals(0, chatMemory.getStats().summarizations());
+
+            Message hugeAnswer = new AssistantMessage("word ".repeat(500));
+            chatMemory.add("chat", List.of(hugeAnswer));
+            assertEquals(List.of(hugeAnswer), chatMemory.get("chat"));
+
+            chatMemory.clear("chat");
+            assertTrue(chatMemory.get("chat").isEmpty());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp;
+
+import jm.kr.spring.ai.playground.SpringAiPlaygroundOptions;
+import jm.kr.spring.ai.playground.service.mcp.McpToolCallingManager.McpToolCallStatus;
+import jm.kr.spring.ai.playground.service.mcp.McpToolCallingManager.McpToolResult;
+import jm.kr.spring.ai.playground.service.mcp.client.McpToolProgressRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static jm.kr.spring.ai.playground.service.mcp.McpToolCallingManager.MCP_PROCESS_MESSAGE_CONSUMER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class McpToolCallingManagerTest {
+
+    private static McpToolCallingManager buildManager(long timeoutSeconds) {
+        return buildManager(true, timeoutSeconds);
+    }
+
+    private static McpToolCallingManager buildManager(boolean parallel, long timeoutSeconds) {
+        return new McpToolCallingManager(new McpToolProgressRouter(), new SpringAiPlaygroundOptions(null, false, null,
+                new SpringAiPlaygroundOptions.Chat(null, List.of(), null,
+                        new SpringAiPlaygroundOptions.ToolCalling(parallel, timeoutSeconds), null, null, null),
+                null));
+    }
+
+    private static ToolCallback failingTool(String name) {
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+            }
+
+            @Override
+            public String call(String toolInput) {
+                throw new IllegalStateException(name + " is broken");
+            }
+        };
+    }
+
+    private static ToolCallback sleepingTool(String name, long sleepMillis) {
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+            }
+
+            @Override
+            public String call(String toolInput) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "\"" + name + "\"";
+            }
+        };
+    }
+
+    private static ToolExecutionResult execute(McpToolCallingManager manager, List<ToolCallback> toolCallbacks,
+            Consumer<Object> mcpProcessMessageConsumer) {
+        Prompt prompt = new Prompt(List.of(new UserMessage("question")), ToolCallingChatOptions.builder()
+                .toolCallbacks(toolCallbacks).internalToolExecutionEnabled(false)
+                .toolContext(Map.of(MCP_PROCESS_MESSAGE_CONSUMER, mcpProcessMessageConsumer)).build());
+        List<AssistantMessage.ToolCall> toolCalls = toolCallbacks.stream().map(toolCallback -> {
+            String name = toolCallback.getToolDefinition().name();
+            return new AssistantMessage.ToolCall("id-" + name, "function", name, "{}");
+        }).toList();
+        return manager.executeToolCalls(prompt, new ChatResponse(
+                List.of(new Generation(AssistantMessage.builder().content("").toolCalls(toolCalls).build()))));
+    }
+
+    @Test
+    void testToolCallsRunInParallelAndKeepOrder() {
+        List<Object> processMessages = new CopyOnWriteArrayList<>();
+        long startMillis = System.currentTimeMillis();
+        ToolExecutionResult result = execute(buildManager(10),
+                List.of(sleepingTool("a", 600), sleepingTool("b", 300), sleepingTool("c", 600)),
+                processMessages::add);
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+
+        assertTrue(elapsedMillis < 1400, "elapsed " + elapsedMillis);
+        List<ToolResponseMessage.ToolResponse> responses =
+                ((ToolResponseMessage) result.conversationHistory().getLast()).getResponses();
+        assertEquals(List.of("id-a", "id-b", "id-c"),
+                responses.stream().map(ToolResponseMessage.ToolResponse::id).toList());
+        assertEquals("\"b\"", responses.get(1).responseData());
+        assertEquals(3, result.conversationHistory().size());
+
+        assertEquals(3, processMessages.stream().filter(message -> message instanceof McpToolCallStatus status &&
+                status.status().equals("started")).count());
+        assertEquals(3, processMessages.stream().filter(message -> message instanceof McpToolCallStatus status &&
+                status.status().equals("finished")).count());
+        assertEquals(3, processMessages.stream().filter(message -> message instanceof McpToolResult).count());
+    }
+
+    @Test
+    void testSlowToolCallIsAnsweredWithTimeout() {
+        List<Object> processMessages = new CopyOnWriteArrayList<>();
+        long startMillis = System.currentTimeMillis();
+        ToolExecutionResult result = execute(buildManager(1),
+                List.of(sleepingTool("slow", 10_000), sleepingTool("fast", 10)), processMessages::add);
+
+        assertTrue(System.currentTimeMillis() - startMillis < 5_000);
+        List<ToolResponseMessage.ToolResponse> responses =
+                ((ToolResponseMessage) result.conversationHistory().getLast()).getResponses();
+        assertEquals("Tool call timed out after 1 seconds", responses.get(0).responseData());
+        assertEquals("\"fast\"", responses.get(1).responseData());
+        assertTrue(processMessages.stream().anyMatch(message -> message instanceof McpToolCallStatus status &&
+                status.name().equals("slow") && status.status().equals("timed out")));
+    }
+
+    @Test
+    void testFailedToolCallKeepsSiblingResults() {
+        List<Object> processMessages = new CopyOnWriteArrayList<>();
+        ToolExecutionResult result = execute(buildManager(10),
+                List.of(sleepingTool("a", 100), failingTool("broken"), sleepingTool("c", 100)), processMessages::add);
+
+        List<ToolResponseMessage.ToolResponse> responses =
+                ((ToolResponseMessage) result.conversationHistory().getLast()).getResponses();
+        assertEquals("\"a\"", responses.get(0).responseData());
+        assertTrue(responses.get(1).responseData().startsWith("Tool call failed: "));
+        assertTrue(responses.get(1).responseData().contains("broken is broken"));
+        assertEquals("\"c\"", responses.get(2).responseData());
+        assertFalse(result.returnDirect());
+        assertTrue(processMessages.stream().anyMatch(message -> message instanceof McpToolCallStatus status &&
+                status.name().equals("broken") && status.status().equals("failed")));
+    }
+
+    @Test
+    void testSequentialToolCallsReportStatusAndTimeOut() {
+        List<Object> processMessages = new CopyOnWriteArrayList<>();
+        ToolExecutionResult result = execute(buildManager(false, 1),
+                List.of(sleepingTool("slow", 10_000), sleepingTool("fast", 10)), processMessages::add);
+
+        List<ToolResponseMessage.ToolResponse> responses =
+                ((ToolResponseMessage) result.conversationHistory().getLast()).getResponses();
+        assertEquals("Tool call timed out after 1 seconds", responses.get(0).responseData());
+        assertEquals("\"fast\"", responses.get(1).responseData());
+        assertEquals(2, processMessages.stream().filter(message -> message instanceof McpToolCallStatus status &&
+                status.status().equals("started")).count());
+        assertTrue(processMessages.stream().anyMatch(message -> message instanceof McpToolCallStatus status &&
+                status.name().equals("fast") && status.status().equals("finished")));
+    }
+
+    @Test
+    void testSingleToolCallReportsStatus() {
+        List<Object> processMessages = new CopyOnWriteArrayList<>();
+        execute(buildManager(10), List.of(sleepingTool("only", 10)), processMessages::add);
+
+        assertTrue(processMessages.stream().anyMatch(message -> message instanceof McpToolCallStatus status &&
+                status.name().equals("only") && status.status().equals("started")));
+        assertTrue(processMessages.stream().anyMatch(message -> message instanceof McpToolCallStatus status &&
+                status.name().equals("only") && status.status().equals("finished")));
+    }
+}
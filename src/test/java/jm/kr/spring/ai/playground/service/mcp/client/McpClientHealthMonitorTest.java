@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
+import jm.kr.spring.ai.playground.service.mcp.client.McpClientHealthMonitor.McpClientHealthStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class McpClientHealthMonitorTest {
+
+    private static class PingMcpClientOps implements McpClientOps {
+        private final AtomicBoolean alive = new AtomicBoolean(true);
+
+        @Override
+        public Mono<Void> initializeAsync() {return Mono.empty();}
+
+        @Override
+        public Object ping() {return pingAsync().block();}
+
+        @Override
+        public Mono<Object> pingAsync() {
+            return this.alive.get() ? Mono.just(Map.of()) : Mono.error(new IllegalStateException("connection lost"));
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public ServerCapabilities capabilities() {return null;}
+
+        @Override
+        public List<McpSchema.Tool> listTools() {return List.of();}
+
+        @Override
+        public Mono<List<McpSchema.Tool>> listToolsAsync() {return Mono.just(List.of());}
+
+        @Override
+        public CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta) {
+            return null;
+        }
+
+        @Override
+        public Mono<CallToolResult> callToolAsync(String name, Map<String, Object> args, Map<String, Object> meta) {
+            return Mono.empty();
+        }
+
+        @Override
+        public ToolCallbackProvider toolCallbackProvider() {return ToolCallbackProvider.from(List.of());}
+
+        @Override
+        public Mono<List<ToolCallback>> toolCallbacksAsync() {return Mono.just(List.of());}
+    }
+
+    @Test
+    void testUnhealthyServerIsReconnectedWithBackoff() {
+        McpServerInfo mcpServerInfo = new McpServerInfo(McpTransportType.STREAMABLE_HTTP, "server", "", 0, 0, "{}");
+        PingMcpClientOps mcpClientOps = new PingMcpClientOps();
+        AtomicInteger reconnectAttempts = new AtomicInteger();
+        AtomicBoolean serverBack = new AtomicBoolean();
+        try (McpClientHealthMonitor monitor = new McpClientHealthMonitor(0, 1000, 1000, 2, 0, 0,
+                () -> Map.of(mcpServerInfo, mcpClientOps), info -> Mono.defer(() -> {
+            reconnectAttempts.incrementAndGet();
+            if (!serverBack.get())
+                return Mono.error(new IllegalStateException("connection refused"));
+            mcpClientOps.alive.set(true);
+            return Mono.empty();
+        }))) {
+            monitor.checkAll().block();
+            assertTrue(monitor.isHealthy(mcpServerInfo));
+
+            mcpClientOps.alive.set(false);
+            monitor.checkAll().block();
+            assertTrue(monitor.isHealthy(mcpServerInfo));
+            monitor.checkAll().block();
+            assertFalse(monitor.isHealthy(mcpServerInfo));
+
+            monitor.checkAll().block();
+            assertEquals(1, reconnectAttempts.get());
+            assertFalse(monitor.isHealthy(mcpServerInfo));
+
+            serverBack.set(true);
+            monitor.checkAll().block();
+            assertEquals(2, reconnectAttempts.get());
+            assertTrue(monitor.isHealthy(mcpServerInfo));
+
+            McpClientHealthStats stats = monitor.getStats().getFirst();
+            assertEquals(3, stats.pings());
+            assertEquals(2, stats.failures());
+            assertEquals(2, stats.reconnects());
+            assertEquals(1, stats.latencyBucketCounts().stream().mapToLong(Long::longValue).sum());
+        }
+    }
+
+    @Test
+    void testHangingReconnectTimesOut() {
+        McpServerInfo mcpServerInfo = new McpServerInfo(McpTransportType.STREAMABLE_HTTP, "server", "", 0, 0, "{}");
+        PingMcpClientOps mcpClientOps = new PingMcpClientOps();
+        mcpClientOps.alive.set(false);
+        AtomicBoolean reconnectCancelled = new AtomicBoolean();
+        try (McpClientHealthMonitor monitor = new McpClientHealthMonitor(0, 1000, 50, 1, 0, 60_000,
+                () -> Map.of(mcpServerInfo, mcpClientOps),
+                info -> Mono.<Void>never().doOnCancel(() -> reconnectCancelled.set(true)))) {
+            monitor.checkAll().block();
+            assertFalse(monitor.isHealthy(mcpServerInfo));
+
+            monitor.checkAll().block(Duration.ofSeconds(5));
+            assertTrue(reconnectCancelled.get());
+            McpClientHealthStats stats = monitor.getStats().getFirst();
+            assertFalse(stats.healthy());
+            assertEquals(1, stats.reconnects());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import jm.kr.spring.ai.playground.service.mcp.client.McpClientOpsPool.McpClientPoolStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class McpClientOpsPoolTest {
+
+    private static class PendingMcpClientOps implements McpClientOps {
+        private final List<Sinks.One<CallToolResult>> pendingCalls = new CopyOnWriteArrayList<>();
+        private final AtomicInteger toolListings = new AtomicInteger();
+
+        @Override
+        public Mono<Void> initializeAsync() {return Mono.empty();}
+
+        @Override
+        public Object ping() {return Map.of();}
+
+        @Override
+        public Mono<Object> pingAsync() {return Mono.just(Map.of());}
+
+        @Override
+        public void close() {}
+
+        @Override
+        public ServerCapabilities capabilities() {return null;}
+
+        @Override
+        public List<McpSchema.Tool> listTools() {return List.of();}
+
+        @Override
+        public Mono<List<McpSchema.Tool>> listToolsAsync() {return Mono.just(List.of());}
+
+        @Override
+        public CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta) {
+            return callToolAsync(name, args, meta).block();
+        }
+
+        @Override
+        public Mono<CallToolResult> callToolAsync(String name, Map<String, Object> args, Map<String, Object> meta) {
+            Sinks.One<CallToolResult> sink = Sinks.one();
+            this.pendingCalls.add(sink);
+            return sink.asMono();
+        }
+
+        @Override
+        public ToolCallbackProvider toolCallbackProvider() {return ToolCallbackProvider.from(List.of());}
+
+        @Override
+        public Mono<List<ToolCallback>> toolCallbacksAsync() {
+            return Mono.fromSupplier(() -> {
+                this.toolListings.incrementAndGet();
+                return List.of(FunctionToolCallback.builder("tool", (Map<String, Object> input) -> "local")
+                        .inputType(Map.class).build());
+            });
+        }
+
+        private void completeFirst() {
+            this.pendingCalls.removeFirst().tryEmitValue(new CallToolResult(List.of(), false));
+        }
+    }
+
+    @Test
+    void testDispatchesToLeastOutstandingClient() {
+        PendingMcpClientOps first = new PendingMcpClientOps();
+        PendingMcpClientOps second = new PendingMcpClientOps();
+        McpClientOpsPool pool = new McpClientOpsPool("server", List.of(first, second));
+
+        List<Disposable> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            calls.add(pool.callToolAsync("tool", Map.of(), Map.of()).subscribe());
+        assertEquals(3, first.pendingCalls.size() + second.pendingCalls.size());
+        assertEquals(1, Math.abs(first.pendingCalls.size() - second.pendingCalls.size()));
+
+        PendingMcpClientOps busier = first.pendingCalls.size() > second.pendingCalls.size() ? first : second;
+        PendingMcpClientOps idler = busier == first ? second : first;
+        idler.completeFirst();
+        calls.add(pool.callToolAsync("tool", Map.of(), Map.of()).subscribe());
+        calls.add(pool.callToolAsync("tool", Map.of(), Map.of()).subscribe());
+        assertEquals(2, busier.pendingCalls.size());
+        assertEquals(2, idler.pendingCalls.size());
+
+        McpClientPoolStats stats = pool.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(4, stats.outstanding());
+        assertEquals(4, stats.maxOutstanding());
+        assertEquals(5, stats.requests());
+        assertEquals(1.0, stats.utilization());
+
+        calls.forEach(Disposable::dispose);
+        assertEquals(0, pool.getStats().outstanding());
+    }
+
+    @Test
+    void testToolCallbacksListOnceAndDispatchToLeastOutstandingClient() throws Exception {
+        PendingMcpClientOps first = new PendingMcpClientOps();
+        PendingMcpClientOps second = new PendingMcpClientOps();
+        McpClientOpsPool pool = new McpClientOpsPool("server", List.of(first, second));
+
+        List<ToolCallback> toolCallbacks = pool.toolCallbacksAsync().block();
+        assertEquals(1, toolCallbacks.size());
+        assertEquals(1, first.toolListings.get() + second.toolListings.get());
+
+        Disposable busyCall = pool.callToolAsync("tool", Map.of(), Map.of()).subscribe();
+        PendingMcpClientOps busier = first.pendingCalls.isEmpty() ? second : first;
+        PendingMcpClientOps idler = busier == first ? second : first;
+        CompletableFuture<String> pooledCall =
+                CompletableFuture.supplyAsync(() -> toolCallbacks.getFirst().call("{\"message\":\"hi\"}"));
+        while (idler.pendingCalls.isEmpty())
+            Thread.sleep(10);
+        idler.completeFirst();
+        assertEquals("[]", pooledCall.get(5, TimeUnit.SECONDS));
+        assertEquals(1, busier.pendingCalls.size());
+
+        busyCall.dispose();
+        assertEquals(0, pool.getStats().outstanding());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.Implementation;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.tool.ToolCallback;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class McpClientOpsTest {
+
+    private static final McpSchema.Tool ECHO_TOOL = McpSchema.Tool.builder().name("echo").description("echo").build();
+
+    @Test
+    void testAsyncInitializeAndPingSubscribeToTheClient() {
+        McpAsyncClient mcpAsyncClient = mock(McpAsyncClient.class);
+        AtomicInteger initializations = new AtomicInteger();
+        AtomicInteger pings = new AtomicInteger();
+        when(mcpAsyncClient.initialize()).thenReturn(Mono.<McpSchema.InitializeResult>empty()
+                .doOnSubscribe(subscription -> initializations.incrementAndGet()));
+        when(mcpAsyncClient.ping()).thenReturn(Mono.fromCallable(() -> {
+            pings.incrementAndGet();
+            return Map.of();
+        }));
+        McpAsyncClientOps mcpClientOps = new McpAsyncClientOps(mcpAsyncClient);
+
+        Mono<Void> initialize = mcpClientOps.initializeAsync();
+        assertEquals(0, initializations.get());
+        initialize.block();
+        assertEquals(1, initializations.get());
+
+        Mono<Object> ping = mcpClientOps.pingAsync();
+        assertEquals(0, pings.get());
+        assertEquals(Map.of(), ping.block());
+        assertEquals(1, pings.get());
+
+        // the blocking ping used to return the Mono without subscribing, so no ping was ever sent
+        mcpClientOps.ping();
+        assertEquals(2, pings.get());
+    }
+
+    @Test
+    void testAsyncCallToolAndToolCallbacks() {
+        McpAsyncClient mcpAsyncClient = mock(McpAsyncClient.class);
+        CallToolResult callToolResult = new CallToolResult(List.of(), false);
+        when(mcpAsyncClient.callTool(any(CallToolRequest.class))).thenReturn(Mono.just(callToolResult));
+        when(mcpAsyncClient.listTools())
+                .thenReturn(Mono.just(new McpSchema.ListToolsResult(List.of(ECHO_TOOL), null)));
+        when(mcpAsyncClient.getClientInfo()).thenReturn(new Implementation("client", "1.0"));
+        McpAsyncClientOps mcpClientOps = new McpAsyncClientOps(mcpAsyncClient);
+
+        assertSame(callToolResult,
+                mcpClientOps.callToolAsync("echo", Map.of("message", "hi"), Map.of("progressToken", "t")).block());
+        ArgumentCaptor<CallToolRequest> request = ArgumentCaptor.forClass(CallToolRequest.class);
+        verify(mcpAsyncClient).callTool(request.capture());
+        assertEquals("echo", request.getValue().name());
+        assertEquals(Map.of("message", "hi"), request.getValue().arguments());
+        assertEquals(Map.of("progressToken", "t"), request.getValue().meta());
+
+        List<ToolCallback> toolCallbacks = mcpClientOps.toolCallbacksAsync().block();
+        assertEquals(1, toolCallbacks.size());
+        assertTrue(toolCallbacks.getFirst().getToolDefinition().name().contains("echo"));
+    }
+
+    @Test
+    void testSyncOperationsRunLazilyOffTheCallerThread() {
+        McpSyncClient mcpSyncClient = mock(McpSyncClient.class);
+        Thread callerThread = Thread.currentThread();
+        AtomicReference<Thread> initializeThread = new AtomicReference<>();
+        when(mcpSyncClient.initialize()).thenAnswer(invocation -> {
+            initializeThread.set(Thread.currentThread());
+            return null;
+        });
+        when(mcpSyncClient.ping()).thenReturn(Map.of());
+        McpSyncClientOps mcpClientOps = new McpSyncClientOps(mcpSyncClient);
+
+        Mono<Void> initialize = mcpClientOps.initializeAsync();
+        verify(mcpSyncClient, never()).initialize();
+        initialize.block();
+        verify(mcpSyncClient, times(1)).initialize();
+        assertNotEquals(callerThread, initializeThread.get());
+
+        Mono<Object> ping = mcpClientOps.pingAsync();
+        verify(mcpSyncClient, never()).ping();
+        assertEquals(Map.of(), ping.block());
+        verify(mcpSyncClient, times(1)).ping();
+    }
+
+    @Test
+    void testSyncCallToolAndToolCallbacks() {
+        McpSyncClient mcpSyncClient = mock(McpSyncClient.class);
+        CallToolResult callToolResult = new CallToolResult(List.of(), false);
+        when(mcpSyncClient.callTool(any(CallToolRequest.class))).thenReturn(callToolResult);
+        when(mcpSyncClient.listTools()).thenReturn(new McpSchema.ListToolsResult(List.of(ECHO_TOOL), null));
+        when(mcpSyncClient.getClientInfo()).thenReturn(new Implementation("client", "1.0"));
+        McpSyncClientOps mcpClientOps = new McpSyncClientOps(mcpSyncClient);
+
+        Mono<CallToolResult> callTool = mcpClientOps.callToolAsync("echo", Map.of("message", "hi"), Map.of());
+        verify(mcpSyncClient, never()).callTool(any(CallToolRequest.class));
+        assertSame(callToolResult, callTool.block());
+        ArgumentCaptor<CallToolRequest> request = ArgumentCaptor.forClass(CallToolRequest.class);
+        verify(mcpSyncClient).callTool(request.capture());
+        assertEquals("echo", request.getValue().name());
+        assertEquals(Map.of("message", "hi"), request.getValue().arguments());
+
+        List<ToolCallback> toolCallbacks = mcpClientOps.toolCallbacksAsync().block();
+        assertEquals(1, toolCallbacks.size());
+        assertTrue(toolCallbacks.getFirst().getToolDefinition().name().contains("echo"));
+    }
+}
@@ -51,6 +51,8 @@ public interface McpClientServiceTest {
                 mcpClientService.buildToolCallbackProviders(mcpServerInfo).stream()
                         .map(ToolCallbackProvider::getToolCallbacks).flatMap(Arrays::stream).toList();
         assertThat(toolCallbacks).hasSize(8);
+        assertThat(mcpClientService.getToolCallbacks(mcpServerInfo))
+                .isSameAs(mcpClientService.getToolCallbacks(mcpServerInfo)).hasSize(8);
 
         assertThat(mcpClientService.pingMcpClient(mcpServerInfo)).isNotNull();
 
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.mcp.client;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import jm.kr.spring.ai.playground.service.mcp.McpServerInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class McpToolCallbacksCacheTest {
+
+    private static class CountingMcpClientOps implements McpClientOps {
+        private final AtomicInteger loads = new AtomicInteger();
+        private Sinks.One<List<ToolCallback>> pendingLoad;
+
+        @Override
+        public Mono<Void> initializeAsync() {return Mono.empty();}
+
+        @Override
+        public Object ping() {return Map.of();}
+
+        @Override
+        public Mono<Object> pingAsync() {return Mono.just(Map.of());}
+
+        @Override
+        public void close() {}
+
+        @Override
+        public ServerCapabilities capabilities() {return null;}
+
+        @Override
+        public List<McpSchema.Tool> listTools() {return List.of();}
+
+        @Override
+        public Mono<List<McpSchema.Tool>> listToolsAsync() {return Mono.just(List.of());}
+
+        @Override
+        public CallToolResult callTool(String name, Map<String, Object> args, Map<String, Object> meta) {
+            return null;
+        }
+
+        @Override
+        public Mono<CallToolResult> callToolAsync(String name, Map<String, Object> args, Map<String, Object> meta) {
+            return Mono.empty();
+        }
+
+        @Override
+        public ToolCallbackProvider toolCallbackProvider() {return ToolCallbackProvider.from(List.of());}
+
+        @Override
+        public Mono<List<ToolCallback>> toolCallbacksAsync() {
+            this.loads.incrementAndGet();
+            if (this.pendingLoad != null)
+                return this.pendingLoad.asMono();
+            return Mono.fromSupplier(ArrayList::new);
+        }
+    }
+
+    private static McpServerInfo serverInfo(String serverName) {
+        return new McpServerInfo(McpTransportType.STREAMABLE_HTTP, serverName, "", 0L, 0L, "{}");
+    }
+
+    @Test
+    void testListChangedInvalidatesOnlyThatServer() {
+        McpToolCallbacksCache cache = new McpToolCallbacksCache(60_000L);
+        McpServerInfo first = serverInfo("first");
+        McpServerInfo second = serverInfo("second");
+        CountingMcpClientOps firstOps = new CountingMcpClientOps();
+        CountingMcpClientOps secondOps = new CountingMcpClientOps();
+
+        List<ToolCallback> firstCallbacks = cache.get(first, firstOps).block();
+        cache.get(second, secondOps).block();
+        assertSame(firstCallbacks, cache.get(first, firstOps).block());
+        assertEquals(1, firstOps.loads.get());
+
+        cache.invalidate("first");
+        assertNotSame(firstCallbacks, cache.get(first, firstOps).block());
+        assertEquals(2, firstOps.loads.get());
+        cache.get(second, secondOps).block();
+        assertEquals(1, secondOps.loads.get());
+    }
+
+    @Test
+    void testListChangedDuringLoadLeavesOnlyThatServerUncached() {
+        McpToolCallbacksCache cache = new McpToolCallbacksCache(60_000L);
+        McpServerInfo first = serverInfo("first");
+        McpServerInfo second = serverInfo("second");
+        CountingMcpClientOps firstOps = new CountingMcpClientOps();
+        CountingMcpClientOps secondOps = new CountingMcpClientOps();
+        firstOps.pendingLoad = Sinks.one();
+        secondOps.pendingLoad = Sinks.one();
+
+        Mono<List<ToolCallback>> firstLoad = cache.get(first, firstOps);
+        Mono<List<ToolCallback>> secondLoad = cache.get(second, secondOps);
+        firstLoad.subscribe();
+        secondLoad.subscribe();
+        cache.invalidate("first");
+        firstOps.pendingLoad.tryEmitValue(List.of());
+        secondOps.pendingLoad.tryEmitValue(List.of());
+        firstOps.pendingLoad = null;
+        secondOps.pendingLoad = null;
+
+        cache.get(first, firstOps).block();
+        cache.get(second, secondOps).block();
+        assertEquals(2, firstOps.loads.get());
+        assertEquals(1, secondOps.loads.get());
+    }
+
+    @Test
+    void testTtlAndReplacedClientReload() {
+        AtomicLong now = new AtomicLong(1_000L);
+        McpToolCallbacksCache cache = new McpToolCallbacksCache(100L, now::get);
+        McpServerInfo server = serverInfo("server");
+        CountingMcpClientOps ops = new CountingMcpClientOps();
+
+        cache.get(server, ops).block();
+        now.addAndGet(99L);
+        cache.get(server, ops).block();
+        assertEquals(1, ops.loads.get());
+
+        now.addAndGet(1L);
+        cache.get(server, ops).block();
+        assertEquals(2, ops.loads.get());
+
+        CountingMcpClientOps replacedOps = new CountingMcpClientOps();
+        cache.get(server, replacedOps).block();
+        assertEquals(1, replacedOps.loads.get());
+    }
+}
@@ -15,21 +15,36 @@
  */
 package jm.kr.spring.ai.playground.service.tool;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.sun.net.httpserver.HttpServer;
+import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsBatchExecutionParams;
 import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsExecutionParams;
 import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsExecutionResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+import static jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.Admission;
+import static jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ContextPool;
 import static jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.JsSandbox;
+import static jm.kr.spring.ai.playground.SpringAiPlaygroundOptions.ResultLimits;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class JsToolExecutorTest {
 
@@ -102,6 +117,49 @@ public class JsToolExecutorTest {
         assertNull(result.error());
     }
 
+    @Test
+    void testLeanModeSkipsDebugTracing() {
+        String code = "console.log('log'); globalThis.changed = 1; return value.length;";
+        JsExecutionParams params = new JsExecutionParams(Map.of("value", "x".repeat(10_000)), code, null,
+                JsToolExecutor.ExecutionMode.LEAN);
+        JsExecutionResult result = executor.execute(params);
+
+        assertTrue(result.isOk());
+        assertEquals("10000", ((RawValue) result.result()).rawValue());
+        assertNull(result.debugInfo());
+        assertNull(result.error());
+    }
+
+    @Test
+    void testLeanModeWritesResultAsJson() {
+        String code = """
+                return {name: 'n', count: 3, ratio: 0.5, ok: true, none: null, list: [1, 'a', () => 1],
+                        nested: {deep: [{x: NaN}]}, fn: function() {}, when: new Date(0)};
+                """;
+        JsExecutionResult result = executor.execute(
+                new JsExecutionParams(Map.of(), code, null, JsToolExecutor.ExecutionMode.LEAN));
+
+        assertTrue(result.isOk());
+        assertEquals("{\"name\":\"n\",\"count\":3,\"ratio\":0.5,\"ok\":true,\"none\":null," +
+                        "\"list\":[1,\"a\",null],\"nested\":{\"deep\":[{\"x\":null}]}," +
+                        "\"when\":\"1970-01-01T00:00:00Z\"}", ((RawValue) result.result()).rawValue());
+    }
+
+    @Test
+    void testLeanModeEnforcesResultLimits() {
+        try (JsToolExecutor limitedExecutor = new JsToolExecutor(5L, null, null, null, new ResultLimits(3, 100))) {
+            JsExecutionResult tooDeep = limitedExecutor.execute(new JsExecutionParams(Map.of(),
+                    "return {a: {b: {c: {d: 1}}}};", null, JsToolExecutor.ExecutionMode.LEAN));
+            JsExecutionResult tooLarge = limitedExecutor.execute(new JsExecutionParams(Map.of(),
+                    "return 'x'.repeat(200);", null, JsToolExecutor.ExecutionMode.LEAN));
+
+            assertFalse(tooDeep.isOk());
+            assertEquals("JS result exceeds the maximum depth of 3", tooDeep.error());
+            assertFalse(tooLarge.isOk());
+            assertEquals("JS result exceeds the maximum size of 100 chars", tooLarge.error());
+        }
+    }
+
     @Test
     void testSyntaxError() {
         String code = "return (1 + );"; // 문법 오류
@@ -277,6 +335,308 @@ public class JsToolExecutorTest {
         assertFalse(debug.contains("(env "));
     }
 
+    @Test
+    void testPooledContextIsReusedAndReset() {
+        try (JsToolExecutor pooledExecutor = new JsToolExecutor(5L, null, new ContextPool(true, 1, 1, 60L))) {
+            JsExecutionResult first = pooledExecutor.execute(
+                    new JsExecutionParams(Map.of("x", 20), "globalThis.leaked = 'yes'; return x + 1;"));
+            JsExecutionResult second = pooledExecutor.execute(
+                    new JsExecutionParams(Map.of(), "return typeof leaked + ',' + typeof x;"));
+
+            assertTrue(first.isOk());
+            assertEquals(21, first.result());
+            assertTrue(second.isOk());
+            assertEquals("undefined,undefined", second.result());
+
+            JsContextPool.JsContextPoolStats stats = pooledExecutor.getContextPoolStats().orElseThrow();
+            assertEquals(1, stats.created());
+            assertEquals(2, stats.reused());
+            assertEquals(1, stats.idle());
+            assertEquals(0, stats.active());
+        }
+    }
+
+    @Test
+    void testPooledContextDiscardedAfterStatementLimit() {
+        try (JsToolExecutor pooledExecutor = new JsToolExecutor(5L,
+                new JsSandbox(false, false, false, false, 1_000L, Set.of()), new ContextPool(true, 1, 2, 60L))) {
+            JsExecutionResult exhausted = pooledExecutor.execute(
+                    new JsExecutionParams(Map.of(), "while (true) {}"));
+            JsExecutionResult next = pooledExecutor.execute(new JsExecutionParams(Map.of(), "return 'ok';"));
+
+            assertFalse(exhausted.isOk());
+            assertTrue(next.isOk());
+            assertEquals("ok", next.result());
+            assertEquals(1, pooledExecutor.getContextPoolStats().orElseThrow().discarded());
+        }
+    }
+
+    @Test
+    void testTimedOutExecutionIsKilledAndContextDiscarded() {
+        try (JsToolExecutor pooledExecutor = new JsToolExecutor(1L, null, new ContextPool(true, 1, 1, 60L))) {
+            long start = System.currentTimeMillis();
+            JsExecutionResult timedOut = pooledExecutor.execute(new JsExecutionParams(Map.of(), "while (true) {}"));
+            JsExecutionResult next = pooledExecutor.execute(new JsExecutionParams(Map.of(), "return 'ok';"));
+
+            assertFalse(timedOut.isOk());
+            assertEquals("Execution timed out after 1 seconds", timedOut.error());
+            assertTrue(System.currentTimeMillis() - start < 5_000);
+            assertTrue(next.isOk());
+            assertEquals("ok", next.result());
+
+            JsExecutionWatchdog.JsExecutionWatchdogStats stats = pooledExecutor.getExecutionStats();
+            assertEquals(1, stats.killed());
+            assertEquals(1, stats.completed());
+            assertEquals(0, stats.running());
+            assertEquals(1, pooledExecutor.getContextPoolStats().orElseThrow().discarded());
+        }
+    }
+
+    @Test
+    void testExecuteAsyncCompletesAndCancellationKills() throws Exception {
+        try (JsToolExecutor asyncExecutor = new JsToolExecutor(30L, null)) {
+            CompletableFuture<JsExecutionResult> completed =
+                    asyncExecutor.executeAsync(new JsExecutionParams(Map.of("a", 2), "return a * 21;"));
+            assertEquals(42, completed.get().result());
+
+            CompletableFuture<JsExecutionResult> endless =
+                    asyncExecutor.executeAsync(new JsExecutionParams(Map.of(), "while (true) {}"));
+            while (asyncExecutor.getExecutionStats().running() < 1)
+                Thread.sleep(10);
+            endless.cancel(true);
+            while (asyncExecutor.getExecutionStats().killed() < 1)
+                Thread.sleep(10);
+
+            JsExecutionWatchdog.JsExecutionWatchdogStats stats = asyncExecutor.getExecutionStats();
+            assertEquals(1, stats.completed());
+            assertEquals(0, stats.running());
+        }
+    }
+
+    @Test
+    void testAdmissionRejectsWhenSaturated() throws Exception {
+        try (JsToolExecutor limitedExecutor = new JsToolExecutor(1L, null, null, new Admission(2, 1, 200L))) {
+            CompletableFuture<JsExecutionResult> running = CompletableFuture.supplyAsync(
+                    () -> limitedExecutor.execute("busy", 1, new JsExecutionParams(Map.of(), "while (true) {}")));
+            while (limitedExecutor.getAdmissionStats().running() < 1)
+                Thread.sleep(10);
+
+            JsExecutionResult toolLimited =
+                    limitedExecutor.execute("busy", 1, new JsExecutionParams(Map.of(), "return 1;"));
+            assertFalse(toolLimited.isOk());
+            assertTrue(toolLimited.error().contains("tool 'busy' is at its concurrency limit"));
+
+            JsExecutionResult otherTool =
+                    limitedExecutor.execute("other", 1, new JsExecutionParams(Map.of(), "return 2;"));
+            assertTrue(otherTool.isOk());
+            assertEquals(2, otherTool.result());
+
+            assertFalse(running.get().isOk());
+            while (limitedExecutor.getAdmissionStats().running() > 0)
+                Thread.sleep(10);
+            JsToolAdmissionController.JsToolAdmissionStats stats = limitedExecutor.getAdmissionStats();
+            assertEquals(2, stats.admitted());
+            assertEquals(1, stats.rejected());
+            assertEquals(1, stats.queueTimedOut());
+            assertEquals(0, stats.running());
+            assertEquals(0, stats.queued());
+        }
+    }
+
+    @Test
+    void testWatchdogInterruptsOnlyAttachedThread() {
+        try (JsExecutionWatchdog watchdog = new JsExecutionWatchdog()) {
+            JsExecutionWatchdog.JsExecution attached =
+                    watchdog.register(Thread.currentThread(), 1, TimeUnit.HOURS, () -> {});
+            attached.kill();
+            assertTrue(attached.isKilled());
+            assertTrue(Thread.interrupted());
+
+            JsExecutionWatchdog.JsExecution released =
+                    watchdog.register(Thread.currentThread(), 1, TimeUnit.HOURS, () -> {});
+            released.releaseThread();
+            released.kill();
+            assertTrue(released.isKilled());
+            assertFalse(Thread.interrupted());
+        }
+    }
+
+    @Test
+    void testWatchdogInterruptsBeforeAFailingKillCallback() {
+        try (JsExecutionWatchdog watchdog = new JsExecutionWatchdog()) {
+            JsExecutionWatchdog.JsExecution execution = watchdog.register(Thread.currentThread(), 1, TimeUnit.HOURS,
+                    () -> {
+                        assertTrue(Thread.currentThread().isInterrupted());
+                        throw new IllegalStateException("kill callback failed");
+                    });
+            execution.kill();
+            assertTrue(execution.isKilled());
+            assertTrue(Thread.interrupted());
+            assertEquals(0, watchdog.getStats().running());
+        }
+    }
+
+    @Test
+    void testTimedOutExecutionWhileLoggingCompletes() throws Exception {
+        try (JsToolExecutor loggingExecutor = new JsToolExecutor(1L, null)) {
+            JsExecutionResult timedOut = loggingExecutor.executeAsync(new JsExecutionParams(Map.of(),
+                    "let i = 0; while (true) { if (i++ < 900) console.log('line ' + i); }"))
+                    .get(10, TimeUnit.SECONDS);
+            assertFalse(timedOut.isOk());
+            assertEquals("Execution timed out after 1 seconds", timedOut.error());
+            assertTrue(timedOut.debugInfo().startsWith("=== Execution Log ==="));
+        }
+    }
+
+    @Test
+    void testAdmissionResizesToolLimitInPlace() throws Exception {
+        JsToolAdmissionController controller = new JsToolAdmissionController(4, 0, 50L);
+        JsToolAdmissionController.Permit first = controller.acquire("tool", 2);
+        JsToolAdmissionController.Permit second = controller.acquire("tool", 2);
+
+        RejectedExecutionException shrunk =
+                assertThrows(RejectedExecutionException.class, () -> controller.acquire("tool", 1));
+        assertNotNull(shrunk.getMessage());
+        first.close();
+        assertThrows(RejectedExecutionException.class, () -> controller.acquire("tool", 1));
+        second.close();
+        controller.acquire("tool", 1).close();
+
+        JsToolAdmissionController.Permit held = controller.acquire("tool", 1);
+        JsToolAdmissionController.Permit grown = controller.acquire("tool", 2);
+        assertThrows(RejectedExecutionException.class, () -> controller.acquire("tool", 2));
+        held.close();
+        grown.close();
+        assertEquals(0, controller.getStats().running());
+    }
+
+    @Test
+    void testFetchUsesSharedClientAndRecordsHostStats() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            byte[] response = ("{\"method\":\"" + exchange.getRequestMethod() + "\",\"body\":\"" +
+                    new String(requestBody, StandardCharsets.UTF_8) + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/echo";
+        try (JsToolExecutor fetchExecutor = new JsToolExecutor(5L,
+                new JsSandbox(true, false, false, false, 50_000L, Set.of()))) {
+            String code = """
+                    const first = await fetch(url);
+                    const second = await fetch(url, {method: 'post', body: 'hi'});
+                    const json = await second.json();
+                    return first.status + ',' + first.ok + ',' + first.headers['content-type'] + ',' + json.method +
+                            ',' + json.body;
+                    """;
+            JsExecutionResult result = fetchExecutor.execute(new JsExecutionParams(Map.of("url", url), code));
+
+            assertTrue(result.error(), result.isOk());
+            assertEquals("200,true,application/json,POST,hi", result.result());
+            JsHttpFetch.JsHttpHostStats stats = fetchExecutor.getHttpFetchStats().getFirst();
+            assertEquals("127.0.0.1", stats.host());
+            assertEquals(2, stats.requests());
+            assertEquals(0, stats.failures());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testFetchRespectsNetworkIoFlag() {
+        try (JsToolExecutor offlineExecutor = new JsToolExecutor(5L,
+                new JsSandbox(false, false, false, false, 50_000L, Set.of()))) {
+            JsExecutionResult result = offlineExecutor.execute(
+                    new JsExecutionParams(Map.of(), "return await fetch('http://127.0.0.1:1/');"));
+
+            assertFalse(result.isOk());
+            assertTrue(result.error().contains("network IO is disabled"));
+        }
+    }
+
+    @Test
+    void testBatchKeepsOrderAndReusesWarmContexts() {
+        try (JsToolExecutor pooledExecutor = new JsToolExecutor(5L, null, new ContextPool(true, 0, 4, 60L))) {
+            List<Map<String, Object>> paramsList = IntStream.range(0, 20).<Map<String, Object>>mapToObj(
+                    i -> Map.of("n", i)).toList();
+            String code = "const seen = typeof leaked; globalThis.leaked = n; return seen + ':' + n * 2;";
+            List<JsExecutionResult> results = pooledExecutor.executeBatch(null, null,
+                    new JsBatchExecutionParams(paramsList, code, null, JsToolExecutor.ExecutionMode.LEAN, 2));
+
+            assertEquals(20, results.size());
+            for (int i = 0; i < 20; i++)
+                assertEquals("\"undefined:" + i * 2 + "\"", ((RawValue) results.get(i).result()).rawValue());
+            assertEquals(2, pooledExecutor.getContextPoolStats().orElseThrow().created());
+            assertEquals(20, pooledExecutor.getExecutionStats().completed());
+        }
+    }
+
+    @Test
+    void testBatchElementTimeoutDoesNotStopTheBatch() {
+        try (JsToolExecutor batchExecutor = new JsToolExecutor(1L, null)) {
+            List<JsExecutionResult> results = batchExecutor.executeBatch(new JsBatchExecutionParams(
+                    List.of(Map.of("spin", false), Map.of("spin", true), Map.of("spin", false)),
+                    "while (spin) {} return 'done';"));
+
+            assertTrue(results.get(0).isOk());
+            assertFalse(results.get(1).isOk());
+            assertEquals("Execution timed out after 1 seconds", results.get(1).error());
+            assertTrue(results.get(2).isOk());
+            assertEquals("done", results.get(2).result());
+        }
+    }
+
+    @Test
+    void testSourceCacheHitMissAndInvalidation() {
+        String code = "return a * 2;";
+        String fingerprint = executor.cacheSource("tool-1", code);
+        assertEquals(JsSourceCache.fingerprint(code), fingerprint);
+        assertEquals(fingerprint, executor.cacheSource("tool-2", code));
+
+        JsExecutionResult result = executor.execute(new JsExecutionParams(Map.of("a", 21), code, fingerprint));
+        assertTrue(result.isOk());
+        assertEquals(42, result.result());
+
+        executor.invalidateSource("tool-1");
+        assertEquals(1, executor.getSourceCacheStats().size());
+        executor.invalidateSource("tool-2");
+        assertEquals(0, executor.getSourceCacheStats().size());
+
+        result = executor.execute(new JsExecutionParams(Map.of("a", 1), code, fingerprint));
+        assertTrue(result.isOk());
+        assertEquals(2, result.result());
+
+        JsSourceCache.JsSourceCacheStats stats = executor.getSourceCacheStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void testProgressIsReportedInIncreasingOrder() {
+        String code = """
+                progress(10, 'started');
+                progress(5, 'ignored');
+                progress(60);
+                progress(150, 'done');
+                return 'ok';
+                """;
+        List<String> reported = new ArrayList<>();
+        JsExecutionResult result = executor.execute(new JsExecutionParams(Map.of(), code, null,
+                JsToolExecutor.ExecutionMode.DEBUG, (progress, message) -> reported.add(progress + ":" + message)));
+
+        assertTrue(result.isOk());
+        assertEquals("ok", result.result());
+        assertEquals(List.of("10.0:started", "60.0:null", "100.0:done"), reported);
+        assertTrue(result.debugInfo().contains("[PROGRESS] 10.0% started"));
+        assertFalse(result.debugInfo().contains("progress ="));
+
+        result = executor.execute(new JsExecutionParams(Map.of(), code));
+        assertTrue(result.isOk());
+    }
 
     @Disabled
     @Test
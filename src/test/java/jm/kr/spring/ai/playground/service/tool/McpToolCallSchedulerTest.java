@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.service.tool;
+
+import jm.kr.spring.ai.playground.service.tool.McpToolCallScheduler.McpToolCallSchedulerStats;
+import jm.kr.spring.ai.playground.service.tool.McpToolCallScheduler.Permit;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class McpToolCallSchedulerTest {
+
+    @Test
+    void testQueuedCallsAreSharedFairlyBetweenSessions() {
+        McpToolCallScheduler scheduler = new McpToolCallScheduler(1, 1, 1, 8, 10_000L, Map.of());
+        Permit running = scheduler.acquire("x", "client", "tool").join();
+        CompletableFuture<Permit> a1 = scheduler.acquire("a", "client", "tool");
+        CompletableFuture<Permit> a2 = scheduler.acquire("a", "client", "tool");
+        CompletableFuture<Permit> a3 = scheduler.acquire("a", "client", "tool");
+        CompletableFuture<Permit> b1 = scheduler.acquire("b", "client", "tool");
+        assertEquals(4, scheduler.getStats().queued());
+
+        running.close();
+        assertTrue(a1.isDone());
+        assertFalse(b1.isDone());
+
+        a1.join().close();
+        assertTrue(b1.isDone());
+        assertFalse(a2.isDone());
+
+        b1.join().close();
+        a2.join().close();
+        a3.join().close();
+        McpToolCallSchedulerStats stats = scheduler.getStats();
+        assertEquals(0, stats.running());
+        assertEquals(0, stats.activeSessions());
+        assertEquals(5, stats.admitted());
+    }
+
+    @Test
+    void testClientWeightGivesLargerShare() {
+        McpToolCallScheduler scheduler = new McpToolCallScheduler(1, 1, 1, 8, 10_000L, Map.of("heavy", 2));
+        Permit running = scheduler.acquire("x", "client", "tool").join();
+        CompletableFuture<Permit> light = scheduler.acquire("l", "light", "tool");
+        CompletableFuture<Permit> heavy1 = scheduler.acquire("h", "heavy", "tool");
+        CompletableFuture<Permit> heavy2 = scheduler.acquire("h", "heavy", "tool");
+
+        running.close();
+        assertTrue(heavy1.isDone());
+        heavy1.join().close();
+        assertTrue(light.isDone());
+        assertFalse(heavy2.isDone());
+        light.join().close();
+        heavy2.join().close();
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFullOrTimedOut() throws Exception {
+        McpToolCallScheduler scheduler = new McpToolCallScheduler(4, 1, 4, 1, 100L, Map.of());
+        Permit running = scheduler.acquire("a", "client", "tool").join();
+        CompletableFuture<Permit> queued = scheduler.acquire("a", "client", "tool");
+        CompletableFuture<Permit> rejected = scheduler.acquire("a", "client", "tool");
+
+        ExecutionException queueFull = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(queueFull.getCause() instanceof RejectedExecutionException);
+        assertTrue(queueFull.getCause().getMessage().contains("queue of 1 calls is full"));
+
+        ExecutionException timedOut = assertThrows(ExecutionException.class, queued::get);
+        assertTrue(timedOut.getCause().getMessage().contains("over its concurrency quota"));
+        running.close();
+
+        McpToolCallSchedulerStats stats = scheduler.getStats();
+        assertEquals(0, stats.queued());
+        assertEquals(2, stats.rejected());
+        assertEquals(1, stats.queueTimedOut());
+        assertEquals(0, stats.running());
+    }
+
+    @Test
+    void testCancelledWaiterIsCountedSeparately() {
+        McpToolCallScheduler scheduler = new McpToolCallScheduler(1, 1, 1, 8, 10_000L, Map.of());
+        Permit running = scheduler.acquire("a", "client", "tool").join();
+        CompletableFuture<Permit> queued = scheduler.acquire("b", "client", "tool");
+
+        queued.cancel(false);
+        running.close();
+
+        McpToolCallSchedulerStats stats = scheduler.getStats();
+        assertEquals(0, stats.queued());
+        assertEquals(1, stats.cancelled());
+        assertEquals(0, stats.rejected());
+        assertEquals(0, stats.queueTimedOut());
+        assertEquals(0, stats.activeSessions());
+    }
+}
@@ -20,6 +20,7 @@ import jm.kr.spring.ai.playground.service.mcp.McpServerInfoService;
 import jm.kr.spring.ai.playground.service.tool.JsToolExecutor.JsExecutionResult;
 import jm.kr.spring.ai.playground.service.tool.ToolSpec.CodeType;
 import jm.kr.spring.ai.playground.service.tool.ToolSpec.JsonSchemaType;
+import jm.kr.spring.ai.playground.service.tool.ToolSpec.ToolExecutionPolicy;
 import jm.kr.spring.ai.playground.service.tool.ToolSpec.ToolParamSpec;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,8 +32,12 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 @TestPropertySource(properties = "logging.level.com.example=DEBUG")
@@ -195,4 +200,121 @@ class ToolSpecServiceTest {
 
         assertThat(toolSpecService.getToolSpecAsOpt(toolName)).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSourceCacheInvalidatedOnUpdateAndDelete() {
+        toolSpecService.update("cache-1", "cacheTool", "", List.of(), List.of(), "return 1;", CodeType.Javascript);
+        int baseSize = toolSpecService.getSourceCacheStats().size();
+
+        toolSpecService.update("cache-1", "cacheTool", "", List.of(), List.of(), "return 2;", CodeType.Javascript);
+        assertThat(toolSpecService.getSourceCacheStats().size()).isEqualTo(baseSize);
+
+        ToolSpec toolSpec = toolSpecService.getToolSpecAsOpt("cacheTool").orElseThrow();
+        long hits = toolSpecService.getSourceCacheStats().hits();
+        assertThat(toolSpec.toolCallback().call("{}")).isEqualTo("2");
+        assertThat(toolSpecService.getSourceCacheStats().hits()).isEqualTo(hits + 1);
+
+        toolSpecService.deleteToolSpec("cache-1");
+        assertThat(toolSpecService.getSourceCacheStats().size()).isEqualTo(baseSize - 1);
+    }
+
+    @Test
+    void testExecutionPolicyKeptWhenUpdatedWithoutPolicy() {
+        ToolExecutionPolicy policy = new ToolExecutionPolicy(2, false, null);
+        toolSpecService.update("policy-1", "policyTool", "", List.of(), List.of(), "return 1;", CodeType.Javascript,
+                policy);
+        ToolSpec updated = toolSpecService.update("policy-1", "policyTool", "", List.of(), List.of(), "return 2;",
+                CodeType.Javascript);
+
+        assertThat(updated.executionPolicy()).isEqualTo(policy);
+        long admitted = toolSpecService.getAdmissionStats().admitted();
+        assertThat(updated.toolCallback().call("{}")).isEqualTo("2");
+        assertThat(toolSpecService.getAdmissionStats().admitted()).isEqualTo(admitted + 1);
+    }
+
+    @Test
+    void testCacheableToolResultIsMemoizedAndInvalidatedOnUpdate() {
+        ToolParamSpec param = new ToolParamSpec("n", "", true, JsonSchemaType.INTEGER, "1");
+        ToolExecutionPolicy policy = new ToolExecutionPolicy(null, true, 60L);
+        ToolSpec toolSpec = toolSpecService.update("memo-1", "memoTool", "", List.of(), List.of(param),
+                "globalThis.calls = (globalThis.calls || 0) + 1; return n * 2;", CodeType.Javascript, policy);
+        long hits = toolSpecService.getResultCacheStats().hits();
+
+        assertThat(toolSpec.toolCallback().call("{\"n\": 2}")).isEqualTo("4");
+        assertThat(toolSpec.toolCallback().call("{\"n\": 2}")).isEqualTo("4");
+        assertThat(toolSpecService.getResultCacheStats().hits()).isEqualTo(hits + 1);
+
+        ToolSpec updated = toolSpecService.update("memo-1", "memoTool", "", List.of(), List.of(param),
+                "return n * 3;", CodeType.Javascript, policy);
+        assertThat(updated.toolCallback().call("{\"n\": 2}")).isEqualTo("6");
+    }
+
+    @Test
+    void testNameIndexAndContentHashFollowUpdates() {
+        ToolParamSpec param = new ToolParamSpec("n", "", true, JsonSchemaType.INTEGER, "1");
+        ToolSpec toolSpec = toolSpecService.update("index-1", "indexTool", "", List.of(Map.entry("k", "v")),
+                List.of(param), "return n;", CodeType.Javascript);
+
+        assertThat(toolSpecService.getToolSpecAsOpt("indexTool").orElseThrow()).isSameAs(toolSpec);
+        assertThat(toolSpecService.update("index-1", "indexTool", "", List.of(Map.entry("k", "v")), List.of(param),
+                "return n;", CodeType.Javascript)).isSameAs(toolSpec);
+
+        ToolSpec renamed = toolSpecService.update("index-1", "renamedIndexTool", "", List.of(Map.entry("k", "v")),
+                List.of(param), "return n;", CodeType.Javascript);
+        assertThat(renamed.contentHash()).isNotEqualTo(toolSpec.contentHash());
+        assertThat(toolSpecService.getToolSpecAsOpt("indexTool")).isEmpty();
+        assertThat(toolSpecService.getToolSpecAsOpt("renamedIndexTool").orElseThrow()).isSameAs(renamed);
+        assertThat(toolSpecService.getMcpToolList().stream().map(McpSchema.Tool::name).toList()
+                .contains("indexTool")).isFalse();
+
+        toolSpecService.deleteToolSpec("index-1");
+        assertThat(toolSpecService.getToolSpecAsOpt("renamedIndexTool")).isEmpty();
+    }
+
+    @Test
+    void testToolDefinitionIsBuiltOncePerVersion() {
+        ToolSpec toolSpec = toolSpecService.update("definition-1", "definitionTool", "first", List.of(), List.of(),
+                "return 1;", CodeType.Javascript);
+        ToolSpec.ToolDefinition toolDefinition = toolSpec.toolDefinition();
+
+        assertThat(toolDefinition.mcpToolSpecification().tool().name()).isEqualTo("definitionTool");
+        assertThat(toolDefinition.inputSchema()).isEqualTo(toolSpec.toolCallback().getToolDefinition().inputSchema());
+        assertThat(toolSpecService.update("definition-1", "definitionTool", "first", List.of(), List.of(),
+                "return 1;", CodeType.Javascript).toolDefinition()).isSameAs(toolDefinition);
+
+        ToolSpec updated = toolSpecService.update("definition-1", "definitionTool", "second", List.of(), List.of(),
+                "return 1;", CodeType.Javascript);
+        assertThat(updated.toolDefinition()).isNotSameAs(toolDefinition);
+        assertThat(updated.toolDefinition().mcpToolSpecification().tool().description()).isEqualTo("second");
+    }
+
+    @Test
+    void testUpdateAllRefreshesDefaultMcpClientOnce() {
+        clearInvocations(mcpServerInfoService);
+        List<ToolSpec> toolSpecs = toolSpecService.updateAll(IntStream.range(0, 3).mapToObj(
+                i -> new ToolSpec("bulk-" + i, "bulkTool" + i, "", List.of(), List.of(), "return " + i + ";",
+                        CodeType.Javascript, null, null)).toList());
+
+        assertThat(toolSpecs.size()).isEqualTo(3);
+        assertThat(toolSpecService.getMcpToolList().stream().map(McpSchema.Tool::name)
+                .filter(name -> name.startsWith("bulkTool")).count()).isEqualTo(3L);
+        verify(mcpServerInfoService, times(1)).updateDefaultMcpTool();
+    }
+
+    @Test
+    void testToolBatchKeepsOrderAndUsesResultCache() {
+        ToolParamSpec param = new ToolParamSpec("n", "", true, JsonSchemaType.INTEGER, "1");
+        toolSpecService.update("batch-1", "batchTool", "", List.of(Map.entry("base", "10")), List.of(param),
+                "return Number(base) + n;", CodeType.Javascript, new ToolExecutionPolicy(null, true, 60L));
+        long hits = toolSpecService.getResultCacheStats().hits();
+
+        List<JsExecutionResult> results =
+                toolSpecService.executeToolBatch("batch-1", List.of(Map.of("n", 1), Map.of("n", 2), Map.of("n", 1)));
+
+        assertThat(results.stream().map(result -> result.result().toString()).toList())
+                .isEqualTo(List.of("11", "12", "11"));
+        assertThat(toolSpecService.executeToolBatch("batch-1", List.of(Map.of("n", 2))).getFirst().result()
+                .toString()).isEqualTo("12");
+        assertThat(toolSpecService.getResultCacheStats().hits()).isEqualTo(hits + 1);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.webui.chat;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.Scroller;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChatMessageWindowTest {
+
+    private final List<Message> messages = new ArrayList<>();
+    private final AtomicInteger messageReads = new AtomicInteger();
+    private VerticalLayout messageListLayout;
+    private ChatMessageWindow chatMessageWindow;
+
+    @BeforeEach
+    void setUp() {
+        this.messageListLayout = new VerticalLayout();
+        this.chatMessageWindow = new ChatMessageWindow(this.messageListLayout, new Scroller(this.messageListLayout),
+                () -> {
+                    this.messageReads.incrementAndGet();
+                    return List.copyOf(this.messages);
+                }, message -> List.of(new Span(message.getText())));
+    }
+
+    private void addMessages(int fromIndex, int toIndex) {
+        IntStream.range(fromIndex, toIndex).mapToObj(i -> new UserMessage("message " + i)).forEach(this.messages::add);
+    }
+
+    private List<String> liveTexts() {
+        return this.messageListLayout.getChildren().map(component -> ((Span) component).getText()).toList();
+    }
+
+    @Test
+    void testPagesOverTheWholeHistory() {
+        addMessages(0, 50);
+        this.chatMessageWindow.showLatest();
+        assertEquals(20, liveTexts().size());
+        assertEquals("message 30", liveTexts().getFirst());
+        assertEquals("message 49", liveTexts().getLast());
+
+        this.chatMessageWindow.loadEarlier();
+        assertEquals("message 10", liveTexts().getFirst());
+        this.chatMessageWindow.loadEarlier();
+        assertEquals(50, liveTexts().size());
+        assertEquals("message 0", liveTexts().getFirst());
+        assertEquals("message 49", liveTexts().getLast());
+        assertEquals(1, this.messageReads.get());
+    }
+
+    @Test
+    void testTrimsTheOtherSideAndLoadsLaterAgain() {
+        addMessages(0, 100);
+        this.chatMessageWindow.showLatest();
+        for (int i = 0; i < 3; i++)
+            this.chatMessageWindow.loadEarlier();
+        assertEquals(60, liveTexts().size());
+        assertEquals("message 20", liveTexts().getFirst());
+        assertEquals("message 79", liveTexts().getLast());
+        assertFalse(this.chatMessageWindow.isShowingLatest());
+
+        this.chatMessageWindow.loadLater();
+        assertEquals(60, liveTexts().size());
+        assertEquals("message 40", liveTexts().getFirst());
+        assertEquals("message 99", liveTexts().getLast());
+        assertTrue(this.chatMessageWindow.isShowingLatest());
+        assertEquals(1, this.messageReads.get());
+    }
+
+    @Test
+    void testFinishedStreamIsTrackedAsOneTurn() {
+        addMessages(0, 30);
+        this.chatMessageWindow.showLatest();
+        this.chatMessageWindow.startStreaming();
+        Component userPrompt = new Span("message 30");
+        Component botResponse = new Span("message 31");
+        this.messageListLayout.add(userPrompt, botResponse);
+        addMessages(30, 32);
+        this.chatMessageWindow.finishStreaming(this.messages.subList(30, 32));
+        assertEquals(1, this.messageReads.get());
+        assertTrue(this.chatMessageWindow.isShowingLatest());
+
+        this.chatMessageWindow.loadEarlier();
+        assertEquals(32, liveTexts().size());
+        assertEquals("message 0", liveTexts().getFirst());
+        assertEquals("message 31", liveTexts().getLast());
+        assertEquals(1, this.messageReads.get());
+    }
+
+    @Test
+    void testTurnLeftOpenByAFailedStreamIsNotRepeated() {
+        addMessages(0, 31);
+        this.chatMessageWindow.showLatest();
+        this.chatMessageWindow.startStreaming();
+        this.messageListLayout.add(new Span("message 31"));
+        addMessages(31, 32);
+        // the failed stream's prompt at 30 was already shown and is still open in the next turn
+        this.chatMessageWindow.finishStreaming(this.messages.subList(30, 32));
+
+        this.chatMessageWindow.loadEarlier();
+        assertEquals(32, liveTexts().size());
+        assertEquals("message 30", liveTexts().get(30));
+        assertEquals("message 31", liveTexts().getLast());
+        assertEquals(1, this.messageReads.get());
+    }
+}
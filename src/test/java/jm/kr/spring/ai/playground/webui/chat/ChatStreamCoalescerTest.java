@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2025 Jemin Huh (hjm1980@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jm.kr.spring.ai.playground.webui.chat;
+
+import jm.kr.spring.ai.playground.webui.chat.ChatStreamCoalescer.ChunkKind;
+import jm.kr.spring.ai.playground.webui.chat.ChatStreamCoalescer.StreamChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChatStreamCoalescerTest {
+
+    private final List<List<StreamChunk>> frames = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testFlushesWhenMaxFrameCharsArePending() {
+        try (ChatStreamCoalescer coalescer = new ChatStreamCoalescer(60_000, 5, this.frames::add)) {
+            coalescer.offer(ChunkKind.CONTENT, "ab");
+            coalescer.offer(ChunkKind.CONTENT, "cd");
+            assertTrue(this.frames.isEmpty());
+
+            coalescer.offer(ChunkKind.CONTENT, "e");
+            assertEquals(1, this.frames.size());
+            assertEquals("abcde", this.frames.getFirst().getFirst().text());
+            assertEquals(3, this.frames.getFirst().getFirst().parts());
+        }
+    }
+
+    @Test
+    void testFlushesAfterFrameMillis() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        try (ChatStreamCoalescer coalescer = new ChatStreamCoalescer(20, 1_000, frame -> {
+            this.frames.add(frame);
+            flushed.countDown();
+        })) {
+            coalescer.offer(ChunkKind.CONTENT, "a");
+            coalescer.offer(ChunkKind.CONTENT, "b");
+            assertTrue(flushed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, this.frames.getFirst().size());
+            assertEquals("ab", this.frames.getFirst().getFirst().text());
+            assertEquals(2, this.frames.getFirst().getFirst().parts());
+        }
+        assertEquals(1, this.frames.size());
+    }
+
+    @Test
+    void testMergesConsecutiveKindsInOrderWithFirstOfferTime() {
+        AtomicLong now = new AtomicLong(1_000L);
+        ChatStreamCoalescer coalescer = new ChatStreamCoalescer(60_000, 1_000, this.frames::add, now::get);
+        coalescer.offer(ChunkKind.THINK, "hmm ");
+        now.addAndGet(10);
+        coalescer.offer(ChunkKind.THINK, "ok");
+        now.addAndGet(10);
+        coalescer.offer(ChunkKind.MCP_TOOL, "tool call");
+        now.addAndGet(10);
+        coalescer.offer(ChunkKind.CONTENT, "Hello");
+        now.addAndGet(10);
+        coalescer.offer(ChunkKind.CONTENT, "");
+        coalescer.offer(ChunkKind.CONTENT, " world");
+        now.addAndGet(10);
+        coalescer.offer(ChunkKind.MCP_TOOL, "tool result");
+        coalescer.flush();
+
+        assertEquals(List.of(List.of(
+                new StreamChunk(ChunkKind.THINK, "hmm ok", 2, 1_000L),
+                new StreamChunk(ChunkKind.MCP_TOOL, "tool call", 1, 1_020L),
+                new StreamChunk(ChunkKind.CONTENT, "Hello world", 2, 1_030L),
+                new StreamChunk(ChunkKind.MCP_TOOL, "tool result", 1, 1_050L))), this.frames);
+        coalescer.close();
+    }
+
+    @Test
+    void testCloseFlushesPendingAndDropsLaterOffers() {
+        ChatStreamCoalescer coalescer = new ChatStreamCoalescer(60_000, 1_000, this.frames::add);
+        coalescer.offer(ChunkKind.CONTENT, "last");
+        coalescer.close();
+        assertEquals(1, this.frames.size());
+        assertEquals("last", this.frames.getFirst().getFirst().text());
+
+        coalescer.offer(ChunkKind.CONTENT, "late");
+        coalescer.flush();
+        coalescer.close();
+        assertEquals(1, this.frames.size());
+    }
+}